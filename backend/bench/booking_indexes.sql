@@ -0,0 +1,66 @@
+-- Query latency for the BookingRepository finders before and after the V2 indexes.
+--
+-- Builds a throwaway "bench" schema with a generated dataset, times each finder's SQL
+-- without indexes, creates the V2 indexes and times them again.
+--
+--   psql -h localhost -U carwash_admin -d car_wash -f bench/booking_indexes.sql > bench_output.txt
+--
+-- Sizes can be changed with -v users=... -v bookings=...
+
+\set ON_ERROR_STOP on
+\if :{?users}
+\else
+    \set users 20000
+\endif
+\if :{?bookings}
+\else
+    \set bookings 2000000
+\endif
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path TO bench;
+
+CREATE TABLE users (LIKE public.users INCLUDING DEFAULTS INCLUDING IDENTITY);
+CREATE TABLE service (LIKE public.service INCLUDING DEFAULTS INCLUDING IDENTITY);
+CREATE TABLE vehicles (LIKE public.vehicles INCLUDING DEFAULTS INCLUDING IDENTITY);
+CREATE TABLE bookings (LIKE public.bookings INCLUDING DEFAULTS INCLUDING IDENTITY);
+
+INSERT INTO users (email, password, full_name, role, active)
+SELECT 'user' || g || '@bench.test', 'x', 'User ' || g,
+       CASE WHEN g % 100 = 0 THEN 'STAFF' ELSE 'CUSTOMER' END, TRUE
+FROM generate_series(1, :users) g;
+
+INSERT INTO service (name, price, duration_minutes, active)
+SELECT 'Service ' || g, 10 + g, 30 + (g % 4) * 15, TRUE
+FROM generate_series(1, 12) g;
+
+INSERT INTO vehicles (make, model, license_plate, color, type, user_id)
+SELECT 'Make', 'Model', 'K' || LPAD(g::text, 6, '0'), 'White', 'SEDAN', g
+FROM generate_series(1, :users) g;
+
+-- Four years of history, a few weeks into the future
+INSERT INTO bookings (user_id, service_id, vehicle_id, booking_date_time, status, assigned_staff_id)
+SELECT u, 1 + (g % 12), u,
+       TIMESTAMP '2022-11-01' + (random() * INTERVAL '4 years 1 month'),
+       (ARRAY['COMPLETED', 'COMPLETED', 'COMPLETED', 'CANCELLED', 'PENDING', 'CONFIRMED', 'IN_PROGRESS'])[1 + g % 7],
+       CASE WHEN g % 3 = 0 THEN 100 * (1 + g % 50) END
+FROM (SELECT g, 1 + (g % :users) AS u FROM generate_series(1, :bookings) g) s;
+
+ANALYZE;
+
+\echo '=== before indexes ==='
+\ir booking_indexes_queries.sql
+
+CREATE INDEX idx_bookings_date_time ON bookings (booking_date_time);
+CREATE INDEX idx_bookings_user_date_time ON bookings (user_id, booking_date_time);
+CREATE INDEX idx_bookings_status_date_time ON bookings (status, booking_date_time);
+CREATE INDEX idx_bookings_staff_status ON bookings (assigned_staff_id, status);
+ANALYZE;
+
+\echo '=== after indexes ==='
+\ir booking_indexes_queries.sql
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
@@ -0,0 +1,33 @@
+-- The SQL Hibernate issues for each BookingRepository finder. Included by booking_indexes.sql.
+
+\echo '-- createBooking slot check (findByBookingDateTimeBetween)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT * FROM bookings
+WHERE booking_date_time BETWEEN TIMESTAMP '2026-10-20 09:30' AND TIMESTAMP '2026-10-20 11:00';
+
+\echo '-- day schedule (findByBookingDateTimeAfterAndBookingDateTimeBefore)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT * FROM bookings
+WHERE booking_date_time > TIMESTAMP '2026-10-20' AND booking_date_time < TIMESTAMP '2026-10-21';
+
+\echo '-- my-bookings (findByCustomer)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT * FROM bookings WHERE user_id = 4242;
+
+\echo '-- staff queue (findByAssignedStaff)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT * FROM bookings WHERE assigned_staff_id = 700;
+
+\echo '-- status list (findByStatus)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT * FROM bookings WHERE status = 'IN_PROGRESS';
+
+\echo '-- dashboard count (countByStatus)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT COUNT(*) FROM bookings WHERE status = 'PENDING';
+
+\echo '-- monthly revenue (findRevenueBetweenDates)'
+EXPLAIN (ANALYZE, BUFFERS, SUMMARY)
+SELECT SUM(s.price) FROM bookings b JOIN service s ON s.id = b.service_id
+WHERE b.status = 'COMPLETED'
+  AND b.booking_date_time BETWEEN TIMESTAMP '2026-09-01' AND TIMESTAMP '2026-09-30 23:59:59';
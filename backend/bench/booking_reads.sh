@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+# Database statements per booking, with and without the second-level cache: for each mode, starts the
+# boot jar, makes a few warm-up bookings, resets GET /api/admin/cache-stats, creates N bookings through
+# POST /api/bookings and prints Hibernate's prepared statements and cache hits per booking.
+#
+#   mvn package -DskipTests
+#   ADMIN_EMAIL=... ADMIN_PASSWORD=... bench/booking_reads.sh [bookings]      > bench_booking_reads.txt
+#
+# Needs the database from application.properties (or JAVA_OPTS=-Dapp.datasource.primary.jdbc-url=...)
+# with at least one service, and an ADMIN account for the stats endpoint. Statements the app runs through
+# JdbcTemplate (slot locks, invalidation notifies) are not in Hibernate's count; log_statement = 'all'
+# on the server shows those too.
+
+set -euo pipefail
+
+BOOKINGS=${1:-50}
+WARMUP=${WARMUP:-3}
+PORT=${PORT:-8080}
+BASE=http://localhost:${PORT}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-}
+: "${ADMIN_EMAIL:?ADMIN_EMAIL is required}" "${ADMIN_PASSWORD:?ADMIN_PASSWORD is required}"
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/CarWashBookings-*.jar | grep -v original | head -1)
+JSON='Content-Type: application/json'
+# One client makes every booking; keep the per-user limiter out of the way
+LIMITS=(--app.rate-limit.mutation.per-minute=100000 --app.rate-limit.mutation.burst=100000)
+PID=
+trap 'kill $PID 2> /dev/null || true' EXIT
+
+token() {
+    curl -s -X POST -H "$JSON" "$BASE/api/auth/login" -d "{\"email\":\"$1\",\"password\":\"$2\"}" \
+        | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+# book <token> <vehicle id> <service id> <day offset>; fails on anything but 200
+book() {
+    local day status
+    day=$(date -d "+$4 days" +%F)
+    status=$(curl -s -o /tmp/booking_reads_body -w '%{http_code}' -X POST -H "$JSON" -H "Authorization: Bearer $1" \
+        "$BASE/api/bookings" -d "{\"serviceId\":$3,\"vehicleId\":$2,\"bookingDateTime\":\"${day}T10:00:00\"}")
+    [[ $status == 200 ]] || { echo "booking failed ($status): $(cat /tmp/booking_reads_body)" >&2; return 1; }
+}
+
+run_mode() {
+    local name=$1 suffix email customer admin vehicle service start stats prepared hits
+    shift
+    "$JAVA" $JAVA_OPTS -jar "$JAR" --server.port="$PORT" "${LIMITS[@]}" "$@" > /dev/null 2>&1 &
+    PID=$!
+    until curl -s -o /dev/null "$BASE/api/services"; do
+        kill -0 "$PID" 2> /dev/null || { echo "app exited during startup" >&2; return 1; }
+        sleep 0.1
+    done
+
+    # Email, phone and plate are unique, so each run brings its own
+    suffix=$(date +%N)
+    email="reads-$suffix@bench.test"
+    curl -s -o /dev/null -X POST -H "$JSON" "$BASE/api/auth/register" \
+        -d "{\"email\":\"$email\",\"password\":\"Bench-pass1\",\"fullName\":\"Read Bench\",\"phoneNumber\":\"07$suffix\"}"
+    customer=$(token "$email" Bench-pass1)
+    admin=$(token "$ADMIN_EMAIL" "$ADMIN_PASSWORD")
+    [[ -n $customer && -n $admin ]] || { echo "login failed" >&2; return 1; }
+    vehicle=$(curl -s -X POST -H "$JSON" -H "Authorization: Bearer $customer" "$BASE/api/vehicles" \
+        -d "{\"make\":\"Toyota\",\"model\":\"Vitz\",\"licensePlate\":\"RB$suffix\",\"color\":\"Silver\",\"type\":\"SEDAN\"}" \
+        | grep -o '"id":[0-9]*' | head -1 | cut -d: -f2)
+    service=$(curl -s "$BASE/api/services" | grep -o '"id":[0-9]*' | head -1 | cut -d: -f2)
+    [[ -n $vehicle && -n $service ]] || { echo "no vehicle or service to book" >&2; return 1; }
+
+    # Far-off days nobody else books, a different one for each booking
+    start=$(( 3650 + RANDOM % 3000 ))
+    for ((i = 0; i < WARMUP; i++)); do
+        book "$customer" "$vehicle" "$service" $(( start + i ))
+    done
+    curl -s -o /dev/null -X DELETE -H "Authorization: Bearer $admin" "$BASE/api/admin/cache-stats"
+    for ((i = WARMUP; i < WARMUP + BOOKINGS; i++)); do
+        book "$customer" "$vehicle" "$service" $(( start + i ))
+    done
+    stats=$(curl -s -H "Authorization: Bearer $admin" "$BASE/api/admin/cache-stats")
+    prepared=$(sed -n 's/.*"preparedStatements":\([0-9]*\).*/\1/p' <<< "$stats")
+    hits=$(sed -n 's/.*"secondLevelCacheHits":\([0-9]*\).*/\1/p' <<< "$stats")
+
+    awk -v name="$name" -v n="$BOOKINGS" -v p="$prepared" -v h="$hits" 'BEGIN {
+        printf "%-9s  %6.2f statements/booking   %6.2f cache hits/booking   (%d bookings; %d statements)\n",
+            name, p / n, h / n, n, p }'
+
+    kill "$PID"
+    wait "$PID" 2> /dev/null || true
+}
+
+echo "bookings: $BOOKINGS  jar: $JAR"
+run_mode cached
+run_mode uncached --spring.jpa.properties.hibernate.cache.use_second_level_cache=false
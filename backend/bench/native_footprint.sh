@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+# JVM jar vs native executable: time to first successful request, idle RSS, throughput on a read
+# endpoint and RSS after that load.
+#
+#   mvn package && mvn -Pnative native:compile
+#   bench/native_footprint.sh               > bench_native.txt
+#
+# Needs the database from application.properties. Throughput uses hey (https://github.com/rakyll/hey)
+# when installed, otherwise parallel curl. REQUESTS and CONCURRENCY set the load.
+
+set -euo pipefail
+
+PORT=${PORT:-8080}
+PROBE=${PROBE:-http://localhost:${PORT}/api/services}
+REQUESTS=${REQUESTS:-20000}
+CONCURRENCY=${CONCURRENCY:-32}
+JAVA=${JAVA:-java}
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/CarWashBookings-*.jar | head -1)
+NATIVE=target/CarWashBookings
+[[ -x $NATIVE ]] || { echo "Missing $NATIVE - build with: mvn -Pnative native:compile" >&2; exit 1; }
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_kb() {
+    awk '/VmRSS/ {print $2}' "/proc/$1/status"
+}
+
+load() {
+    if command -v hey > /dev/null; then
+        hey -n "$REQUESTS" -c "$CONCURRENCY" "$PROBE" | awk '/Requests\/sec/ {print int($2)}'
+    else
+        local start elapsed
+        start=$(now_ms)
+        seq "$REQUESTS" | xargs -P "$CONCURRENCY" -n 100 sh -c \
+            'for _ in "$@"; do curl -s -o /dev/null "$0"; done' "$PROBE"
+        elapsed=$(( $(now_ms) - start ))
+        echo $(( REQUESTS * 1000 / elapsed ))
+    fi
+}
+
+run() {
+    local name=$1 start pid first idle rps loaded
+    shift
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until [[ $(curl -s -o /dev/null -w '%{http_code}' "$PROBE" || true) == 200 ]]; do
+        kill -0 "$pid" 2> /dev/null || { echo "$name exited before answering" >&2; return 1; }
+        sleep 0.01
+    done
+    first=$(( $(now_ms) - start ))
+    idle=$(rss_kb "$pid")
+
+    load > /dev/null  # warm-up pass (JIT for the JVM)
+    rps=$(load)
+    loaded=$(rss_kb "$pid")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    printf '%-7s  first request %6s ms   idle RSS %7s KB   %6s req/s   RSS under load %7s KB\n' \
+        "$name" "$first" "$idle" "$rps" "$loaded"
+}
+
+echo "probe: $PROBE  requests: $REQUESTS  concurrency: $CONCURRENCY"
+run jvm "$JAVA" -jar "$JAR"
+run native "$NATIVE"
@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Smoke test for the native executable: starts it, walks the paths that depend on reflection and
+# resource hints (JSON binding, JPA, BCrypt, JJWT create/parse/revoke, second-level cache), stops it.
+#
+#   mvn -Pnative native:compile
+#   bench/native_smoke.sh [command...]      (default: target/CarWashBookings)
+#
+# Needs the database from application.properties. Exits non-zero on the first failed check.
+
+set -euo pipefail
+
+PORT=${PORT:-8080}
+BASE=http://localhost:${PORT}
+cd "$(dirname "$0")/.."
+if (( $# == 0 )); then
+    set -- target/CarWashBookings
+fi
+
+LOG=$(mktemp)
+"$@" --server.port="$PORT" > "$LOG" 2>&1 &
+PID=$!
+trap 'kill $PID 2> /dev/null || true' EXIT
+
+fail() {
+    echo "FAIL: $*" >&2
+    echo "--- app log (tail) ---" >&2
+    tail -40 "$LOG" >&2
+    exit 1
+}
+
+# check <name> <expected status> <curl args...>; response body lands in $BODY
+check() {
+    local name=$1 expected=$2 status
+    shift 2
+    status=$(curl -s -o /tmp/smoke_body -w '%{http_code}' "$@") || true
+    BODY=$(cat /tmp/smoke_body)
+    [[ $status == "$expected" ]] || fail "$name: expected $expected, got $status: $BODY"
+    echo "ok   $name"
+}
+
+for _ in $(seq 1 300); do
+    curl -s -o /dev/null "$BASE/api/services" && break
+    kill -0 $PID 2> /dev/null || fail "app exited during startup"
+    sleep 0.1
+done
+
+check "list services (JPA + JSON)" 200 "$BASE/api/services"
+check "services again (second-level cache)" 200 "$BASE/api/services"
+
+EMAIL="smoke-$(date +%s%N)@native.test"
+JSON='Content-Type: application/json'
+check "register (BCrypt + JWT build)" 200 -X POST -H "$JSON" "$BASE/api/auth/register" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"Smoke-pass1\",\"fullName\":\"Native Smoke\",\"phoneNumber\":\"0700000000\"}"
+check "login (BCrypt match)" 200 -X POST -H "$JSON" "$BASE/api/auth/login" \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"Smoke-pass1\"}"
+TOKEN=$(sed -n 's/.*"token":"\([^"]*\)".*/\1/p' <<< "$BODY")
+[[ -n $TOKEN ]] || fail "login response has no token: $BODY"
+AUTH="Authorization: Bearer $TOKEN"
+
+check "profile (JWT parse)" 200 -H "$AUTH" "$BASE/api/users/profile"
+check "add vehicle (request binding + insert)" 200 -X POST -H "$JSON" -H "$AUTH" "$BASE/api/vehicles" \
+    -d "{\"make\":\"Toyota\",\"model\":\"Vitz\",\"licensePlate\":\"KSM $(( RANDOM % 900 + 100 ))N\",\"color\":\"Silver\",\"type\":\"SEDAN\"}"
+check "my bookings (derived query)" 200 -H "$AUTH" "$BASE/api/bookings/my-bookings"
+
+SERVICE_ID=$(curl -s "$BASE/api/services" | sed -n 's/^\[{"id":\([0-9]*\).*/\1/p')
+if [[ -n $SERVICE_ID ]]; then
+    check "quote (record serialization)" 200 "$BASE/api/quote?serviceId=$SERVICE_ID&vehicleType=SUV"
+else
+    echo "skip quote (no services)"
+fi
+
+check "logout (revocation)" 200 -X POST -H "$AUTH" "$BASE/api/auth/logout"
+status=$(curl -s -o /dev/null -w '%{http_code}' -H "$AUTH" "$BASE/api/users/profile")
+[[ $status == 401 || $status == 403 ]] || fail "revoked token still accepted ($status)"
+echo "ok   revoked token rejected"
+
+echo "native smoke test passed"
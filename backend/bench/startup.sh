@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Cold-start comparison: time to first successful request and RSS at that point, for
+#   jar      - java -jar on the boot jar (default build)
+#   aot      - extracted jar with Spring AOT initializers
+#   aot-cds  - extracted jar with Spring AOT and the AppCDS archive from the training run
+#
+#   mvn -Paot-cds package
+#   bench/startup.sh [runs]            > bench_startup.txt
+#
+# Needs the database from application.properties to be up (the app migrates and validates on start).
+# PROBE is hit until it answers 200; the default is a public endpoint that goes through JPA.
+# Extra JVM flags for every mode go in JAVA_OPTS.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+PROBE=${PROBE:-http://localhost:${PORT}/api/services}
+TIMEOUT_S=${TIMEOUT_S:-60}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-}
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/CarWashBookings-*.jar | grep -v original | head -1)
+CDS_DIR=target/cds
+CDS_JAR=$CDS_DIR/$(basename "$JAR")
+
+if [[ ! -f $CDS_JAR || ! -f $CDS_DIR/application.jsa ]]; then
+    echo "Missing $CDS_DIR - build with: mvn -Paot-cds package" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Start the app, wait for PROBE to answer 200, print "<ms> <rss_kb>", stop it
+measure() {
+    local dir=$1
+    shift
+    local start pid elapsed rss
+    start=$(now_ms)
+    (cd "$dir" && exec "$JAVA" $JAVA_OPTS "$@" --server.port="$PORT") > /dev/null 2>&1 &
+    pid=$!
+
+    until [[ $(curl -s -o /dev/null -w '%{http_code}' "$PROBE" || true) == 200 ]]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "app exited before answering" >&2
+            return 1
+        fi
+        if (( $(now_ms) - start > TIMEOUT_S * 1000 )); then
+            kill "$pid"
+            echo "no answer within ${TIMEOUT_S}s" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+run_mode() {
+    local name=$1 dir=$2
+    shift 2
+    local times=() rsss=() result
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure "$dir" "$@")
+        times+=("${result% *}")
+        rsss+=("${result#* }")
+    done
+    printf '%-8s  first request %6s ms   RSS %7s KB   (median of %d; runs: %s)\n' "$name" \
+        "$(printf '%s\n' "${times[@]}" | median)" "$(printf '%s\n' "${rsss[@]}" | median)" \
+        "$RUNS" "${times[*]}"
+}
+
+echo "probe: $PROBE  java: $("$JAVA" -version 2>&1 | head -1)"
+run_mode jar     .        -jar "$JAR"
+run_mode aot     "$CDS_DIR" -Dspring.aot.enabled=true -jar "$(basename "$JAR")"
+run_mode aot-cds "$CDS_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$(basename "$JAR")"
@@ -0,0 +1,127 @@
+package com.carwash.config;
+
+import com.carwash.config.ReadWriteRoutingDataSource.DataSourceRole;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Primary/replica connection pools behind a read/write routing DataSource
+@Configuration
+public class DataSourceConfig {
+
+    static final String DEFAULT_LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+                    + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                    + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Bean
+    @ConfigurationProperties("app.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    // Report jobs get their own small read-only pool (on the replica when there is one),
+    // so long analytics queries can't take connections from request traffic
+    @Bean
+    public HikariDataSource reportsDataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                              @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replicaDataSource,
+                                              @Value("${app.reports.threads:2}") int threads) {
+        HikariDataSource source = replicaDataSource.getIfAvailable(() -> primaryDataSource);
+        HikariDataSource reports = new HikariDataSource();
+        reports.setJdbcUrl(source.getJdbcUrl());
+        reports.setUsername(source.getUsername());
+        reports.setPassword(source.getPassword());
+        reports.setDriverClassName(source.getDriverClassName());
+        reports.setPoolName("reports");
+        reports.setMaximumPoolSize(threads);
+        reports.setMinimumIdle(0);
+        reports.setReadOnly(true);
+        return reports;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.replica.read-your-writes-ms:5000}") long windowMillis) {
+        return new ReadYourWritesTracker(windowMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replica.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${app.replica.lag-query:}") String lagQuery,
+            @Value("${app.replica.max-lag-ms:2000}") long maxLagMillis) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource,
+                lagQuery.isBlank() ? DEFAULT_LAG_QUERY : lagQuery, maxLagMillis);
+        monitor.checkLag();
+        return monitor;
+    }
+
+    // The DataSource JPA, Flyway and JdbcTemplate see
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                replicaLagMonitor.getIfAvailable(), readYourWritesTracker);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceRole.PRIMARY, primaryDataSource);
+        targets.put(DataSourceRole.REPLICA, replicaDataSource.getIfAvailable(() -> primaryDataSource));
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReplicaHousekeeping replicaHousekeeping(ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                                   ReadYourWritesTracker readYourWritesTracker) {
+        return new ReplicaHousekeeping(replicaLagMonitor.getIfAvailable(), readYourWritesTracker);
+    }
+
+    // Scheduled lag checks and read-your-writes cleanup
+    public static class ReplicaHousekeeping {
+
+        private final ReplicaLagMonitor replicaLagMonitor;
+        private final ReadYourWritesTracker readYourWritesTracker;
+
+        ReplicaHousekeeping(ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+            this.replicaLagMonitor = replicaLagMonitor;
+            this.readYourWritesTracker = readYourWritesTracker;
+        }
+
+        @Scheduled(fixedDelayString = "${app.replica.lag-check-interval-ms:2000}")
+        public void checkReplicaLag() {
+            if (replicaLagMonitor != null) {
+                replicaLagMonitor.checkLag();
+            }
+        }
+
+        @Scheduled(fixedDelay = 60_000)
+        public void evictExpiredWrites() {
+            readYourWritesTracker.evictExpired();
+        }
+    }
+}
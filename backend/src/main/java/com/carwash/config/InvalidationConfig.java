@@ -0,0 +1,32 @@
+package com.carwash.config;
+
+import com.carwash.invalidation.InvalidationBus;
+import com.carwash.invalidation.LocalInvalidationBus;
+import com.carwash.invalidation.PostgresInvalidationBus;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// app.invalidation.mode: "postgres" (default, LISTEN/NOTIFY between instances) or "local" (single node, tests)
+@Configuration
+public class InvalidationConfig {
+
+    // Sends on the primary pool directly, outside the transaction-bound routing DataSource
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "app.invalidation.mode", havingValue = "postgres", matchIfMissing = true)
+    public InvalidationBus postgresInvalidationBus(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                                   @Value("${app.invalidation.poll-ms:500}") int pollMillis,
+                                                   @Value("${app.invalidation.max-backoff-ms:30000}") long maxBackoffMillis) {
+        return new PostgresInvalidationBus(primaryDataSource, primaryDataSource.getJdbcUrl(),
+                primaryDataSource.getUsername(), primaryDataSource.getPassword(), pollMillis, maxBackoffMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.invalidation.mode", havingValue = "local")
+    public InvalidationBus localInvalidationBus() {
+        return new LocalInvalidationBus(new LocalInvalidationBus.Hub());
+    }
+}
@@ -0,0 +1,69 @@
+package com.carwash.config;
+
+import com.carwash.service.DemandForecaster;
+import com.carwash.service.PricingEngine;
+import com.carwash.service.ReportJobService;
+import com.carwash.service.ScheduleCache;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+// Reachability metadata for the native image that Spring's AOT pass can't infer on its own.
+// Entities, repositories, @RequestBody types and Flyway scripts are covered by Spring Boot; this adds:
+// - DTOs and records returned through ResponseEntity<?>, which hide their type from AOT
+// - JJWT 0.11, which creates its builder/parser implementations by class name and finds its
+//   Jackson (de)serializer through ServiceLoader
+// - the JCache region factory and Caffeine provider Hibernate loads by name, and Caffeine's application.conf
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    private static final String[] CACHE_TYPES = {
+            "org.hibernate.cache.jcache.internal.JCacheRegionFactory",
+            "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+
+        // Every DTO, nested ones included
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> true);
+        for (BeanDefinition candidate : scanner.findCandidateComponents("com.carwash.dto")) {
+            binding.registerReflectionHints(hints.reflection(),
+                    ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+        }
+
+        // Service records sent as JSON as they are
+        binding.registerReflectionHints(hints.reflection(),
+                PricingEngine.Quote.class, ScheduleCache.DaySchedule.class, ScheduleCache.BookingSummary.class,
+                DemandForecaster.LocationForecast.class, DemandForecaster.HourForecast.class,
+                ReportJobService.JobView.class, ReportJobService.ReportRequest.class, ReportJobService.ReportRow.class);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        for (String type : CACHE_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("application.conf");
+    }
+}
@@ -0,0 +1,18 @@
+package com.carwash.config;
+
+import com.carwash.notification.LoggingNotificationSink;
+import com.carwash.notification.NotificationSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificationConfig {
+
+    // Any NotificationSink bean (SMS/email gateway) replaces the logging one
+    @Bean
+    @ConditionalOnMissingBean(NotificationSink.class)
+    public NotificationSink notificationSink() {
+        return new LoggingNotificationSink();
+    }
+}
@@ -0,0 +1,48 @@
+package com.carwash.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Sends read-only transactions to the replica pool and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy so the read-only flag is known
+// by the time the physical connection is fetched.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum DataSourceRole {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor,
+                                      ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // Writes and non-transactional work always go to the primary
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        // Replica missing, down or lagging too far behind
+        if (replicaLagMonitor == null || !replicaLagMonitor.isReplicaUsable()) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        // User just changed something - read it back from the primary
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && readYourWritesTracker.hasRecentWrite(auth.getName())) {
+            return DataSourceRole.PRIMARY;
+        }
+
+        return DataSourceRole.REPLICA;
+    }
+}
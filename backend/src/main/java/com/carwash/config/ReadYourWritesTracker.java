@@ -0,0 +1,41 @@
+package com.carwash.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers who wrote recently so their reads stay on the primary until the replica catches up
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    // Record a write made by (or on behalf of) a user
+    public void recordWrite(String email) {
+        if (email != null) {
+            lastWrites.put(email, System.nanoTime());
+        }
+    }
+
+    // Check if the user wrote within the pinning window
+    public boolean hasRecentWrite(String email) {
+        Long writtenAt = lastWrites.get(email);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(email, writtenAt);
+        return false;
+    }
+
+    // Drop expired entries so the map only holds active writers
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.entrySet().removeIf(e -> now - e.getValue() >= windowNanos);
+    }
+}
@@ -0,0 +1,52 @@
+package com.carwash.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+
+// Polls the replica's replay lag; reads fall back to the primary while it is unhealthy
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaUsable = false;
+    private volatile long lastLagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, long maxLagMillis) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    // Called on a schedule by DataSourceConfig
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+            lastLagMillis = lagSeconds == null ? 0 : (long) (lagSeconds * 1000);
+            usable = lastLagMillis <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lastLagMillis = -1;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            }
+        }
+
+        if (usable != replicaUsable) {
+            log.info("Replica {} (lag {} ms)", usable ? "back in rotation" : "taken out of rotation", lastLagMillis);
+        }
+        replicaUsable = usable;
+    }
+}
@@ -1,9 +1,12 @@
 package com.carwash.config;
 
 import com.carwash.security.JwtFilter;
+import com.carwash.security.RateLimitFilter;
+import com.carwash.security.RateLimiter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -22,6 +25,7 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RateLimiter rateLimiter;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -46,21 +50,29 @@ public class SecurityConfig {
                         // Public endpoints (no authentication needed)
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/services/**").permitAll()
+                        .requestMatchers("/api/quote/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/locations/**").permitAll()
                         .requestMatchers("/api/test/**").permitAll()
 
                         // Protected endpoints (need valid JWT token)
                         .requestMatchers("/api/vehicles/**").authenticated()
                         .requestMatchers("/api/bookings/**").authenticated()
+                        .requestMatchers("/api/subscriptions/**").authenticated()
+                        .requestMatchers("/api/waitlist/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
                         .requestMatchers("/api/staff/**").authenticated()
                         .requestMatchers("/api/admin/**").authenticated()
+                        .requestMatchers("/api/locations/**").authenticated()
 
                         // Allow all other requests
                         .anyRequest().permitAll()
                 )
 
                 // Add JWT filter
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Rate limit once the caller is known
+                .addFilterAfter(new RateLimitFilter(rateLimiter), JwtFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,30 @@
+package com.carwash.config;
+
+import com.carwash.service.AdvisorySlotLockManager;
+import com.carwash.service.LocalSlotLockManager;
+import com.carwash.service.SlotLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// app.slot-locks.mode: "postgres" (default, safe across instances) or "local" (single node, tests)
+@Configuration
+public class SlotLockConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.slot-locks.mode", havingValue = "postgres", matchIfMissing = true)
+    public SlotLockManager advisorySlotLockManager(JdbcTemplate jdbcTemplate,
+                                                   @Value("${app.slot-locks.bucket-minutes:30}") int bucketMinutes) {
+        return new AdvisorySlotLockManager(jdbcTemplate, bucketMinutes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.slot-locks.mode", havingValue = "local")
+    public SlotLockManager localSlotLockManager(@Value("${app.slot-locks.bucket-minutes:30}") int bucketMinutes,
+                                                @Value("${app.slot-locks.local-stripes:1024}") int stripes,
+                                                @Value("${app.slot-locks.local-timeout-ms:5000}") long timeoutMillis) {
+        return new LocalSlotLockManager(bucketMinutes, stripes, timeoutMillis);
+    }
+}
@@ -0,0 +1,83 @@
+package com.carwash.controller;
+
+import com.carwash.dto.ErrorDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+// One place that turns exceptions from the controllers into JSON error bodies
+@Slf4j
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<ErrorDTO> notFound(NotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, e);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorDTO> conflict(ConflictException e) {
+        return error(HttpStatus.CONFLICT, e);
+    }
+
+    @ExceptionHandler(BusinessRuleException.class)
+    public ResponseEntity<ErrorDTO> businessRule(BusinessRuleException e) {
+        return error(HttpStatus.UNPROCESSABLE_CONTENT, e);
+    }
+
+    @ExceptionHandler(PermissionDeniedException.class)
+    public ResponseEntity<ErrorDTO> permissionDenied(PermissionDeniedException e) {
+        return error(HttpStatus.FORBIDDEN, e);
+    }
+
+    @ExceptionHandler(AuthenticationFailedException.class)
+    public ResponseEntity<ErrorDTO> authenticationFailed(AuthenticationFailedException e) {
+        return error(HttpStatus.UNAUTHORIZED, e);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorDTO> serviceUnavailable(ServiceUnavailableException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e);
+    }
+
+    // Body or parameter Spring couldn't bind (bad JSON, unknown enum value, text for a number)
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorDTO> unreadableBody(HttpMessageNotReadableException e) {
+        return error(HttpStatus.BAD_REQUEST, "Malformed request body");
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorDTO> badParameter(MethodArgumentTypeMismatchException e) {
+        return error(HttpStatus.BAD_REQUEST, "Invalid value for " + e.getName());
+    }
+
+    // Anything else is a bug: log it and don't leak its message. Framework exceptions that
+    // carry their own status (upload too large, ResponseStatusException) keep it.
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<ErrorDTO> unexpected(RuntimeException e) {
+        if (e instanceof ErrorResponse response && !response.getStatusCode().is5xxServerError()) {
+            return error(HttpStatus.valueOf(response.getStatusCode().value()), response.getBody().getDetail());
+        }
+        log.error("Unhandled error", e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong, please try again later");
+    }
+
+    private static ResponseEntity<ErrorDTO> error(HttpStatus status, RuntimeException e) {
+        return error(status, e.getMessage());
+    }
+
+    private static ResponseEntity<ErrorDTO> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ErrorDTO(status.value(), status.getReasonPhrase(), message));
+    }
+}
@@ -4,9 +4,12 @@ package com.carwash.controller;
 import com.carwash.dto.LoginRequestDTO;
 import com.carwash.dto.LoginResponseDTO;
 import com.carwash.dto.RegisterRequestDTO;
+import com.carwash.exception.AuthenticationFailedException;
 import com.carwash.model.User;
+import com.carwash.security.TokenRevocationList;
 import com.carwash.service.AuthService;
 import com.carwash.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,40 +23,49 @@ public class AuthController {
 
     private final AuthService authService;
     private final JwtUtil jwtUtil;  // Add this
+    private final TokenRevocationList tokenRevocationList;
 
     // Register new customer
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequestDTO registerDTO) {
-        try {
-            registerDTO.setRole(User.UserRole.CUSTOMER);
-            User user = authService.register(registerDTO);
-
-            // Generate JWT token (same as login)
-            String token = jwtUtil.generateToken(user.getEmail(), user.getRole().toString());
-
-            // Create login response (same format as login endpoint)
-            LoginResponseDTO response = new LoginResponseDTO();
-            response.setToken(token);
-            response.setEmail(user.getEmail());
-            response.setFullName(user.getFullName());
-            response.setRole(user.getRole());
-
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        registerDTO.setRole(User.UserRole.CUSTOMER);
+        User user = authService.register(registerDTO);
+
+        // Generate JWT token (same as login)
+        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().toString());
+
+        // Create login response (same format as login endpoint)
+        LoginResponseDTO response = new LoginResponseDTO();
+        response.setToken(token);
+        response.setEmail(user.getEmail());
+        response.setFullName(user.getFullName());
+        response.setRole(user.getRole());
+
+        return ResponseEntity.ok(response);
     }
 
 
     // Login user
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginDTO) {
-        try {
-            LoginResponseDTO response = authService.login(loginDTO);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        LoginResponseDTO response = authService.login(loginDTO);
+        return ResponseEntity.ok(response);
+    }
+
+    // Logout - revoke the token this request was made with
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AuthenticationFailedException("No token to revoke");
+        }
+
+        Claims claims = jwtUtil.parseToken(authHeader.substring(7));
+        if (claims == null || claims.getId() == null) {
+            throw new AuthenticationFailedException("Invalid token");
         }
+
+        tokenRevocationList.revokeToken(claims.getId(), claims.getSubject(), claims.getExpiration());
+        return ResponseEntity.ok("Logged out successfully");
     }
 
 
@@ -2,15 +2,23 @@ package com.carwash.controller;
 
 
 import com.carwash.dto.*;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.Booking;
+import com.carwash.model.BookingAuditEntry;
 import com.carwash.model.User;
+import com.carwash.service.BookingAuditTrail;
 import com.carwash.service.BookingService;
+import com.carwash.service.PricingEngine;
 import com.carwash.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +29,8 @@ import java.util.stream.Collectors;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingAuditTrail bookingAuditTrail;
+    private final PricingEngine pricingEngine;
     private final UserService userService;
 
     // Helper method to get current user
@@ -28,18 +38,25 @@ public class BookingController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         return userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
     }
 
     // Helper to convert Booking to BookingDTO
     private BookingDTO convertToDTO(Booking booking) {
         BookingDTO dto = new BookingDTO();
         dto.setId(booking.getId());
+        dto.setLocationId(booking.getLocation().getId());
+        dto.setLocationName(booking.getLocation().getName());
         dto.setBookingDateTime(booking.getBookingDateTime());
         dto.setStatus(booking.getStatus());
         dto.setNotes(booking.getNotes());
         dto.setRating(booking.getRating());
         dto.setReview(booking.getReview());
+        dto.setSubscriptionId(booking.getSubscriptionId());
+        dto.setDurationMinutes(booking.getDurationMinutes() != null
+                ? booking.getDurationMinutes() : booking.getService().getDurationMinutes());
+        dto.setAddOns(pricingEngine.addOnCodes(booking.getAddOnMask() == null ? 0 : booking.getAddOnMask()));
+        dto.setPrice((booking.getPrice() != null ? booking.getPrice() : booking.getService().getPrice()).doubleValue());
 
         // Set service details
         BookingDTO.ServiceDTO serviceDTO = new BookingDTO.ServiceDTO();
@@ -66,24 +83,35 @@ public class BookingController {
         return dto;
     }
 
+    // Helper to convert BookingAuditEntry to BookingAuditDTO
+    private BookingAuditDTO convertToDTO(BookingAuditEntry entry) {
+        BookingAuditDTO dto = new BookingAuditDTO();
+        dto.setEventType(entry.getEventType());
+        dto.setActor(entry.getActor());
+        dto.setOldStatus(entry.getOldStatus());
+        dto.setNewStatus(entry.getNewStatus());
+        dto.setOldStaffId(entry.getOldStaffId());
+        dto.setNewStaffId(entry.getNewStaffId());
+        dto.setOccurredAt(entry.getOccurredAt());
+        return dto;
+    }
+
     // POST /api/bookings - Create new booking (CUSTOMER)
     @PostMapping
     public ResponseEntity<?> createBooking(@RequestBody CreateBookingDTO createBookingDTO) {
-        try {
-            User currentUser = getCurrentUser();
-
-            Booking booking = bookingService.createBooking(
-                    currentUser,
-                    createBookingDTO.getServiceId(),
-                    createBookingDTO.getVehicleId(),
-                    createBookingDTO.getBookingDateTime(),
-                    createBookingDTO.getNotes()
-            );
-
-            return ResponseEntity.ok(convertToDTO(booking));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        User currentUser = getCurrentUser();
+
+        Booking booking = bookingService.createBooking(
+                currentUser,
+                createBookingDTO.getLocationId(),
+                createBookingDTO.getServiceId(),
+                createBookingDTO.getVehicleId(),
+                createBookingDTO.getBookingDateTime(),
+                createBookingDTO.getNotes(),
+                pricingEngine.addOnMask(createBookingDTO.getAddOns())
+        );
+
+        return ResponseEntity.ok(convertToDTO(booking));
     }
 
     // GET /api/bookings/my-bookings - Get my bookings (CUSTOMER)
@@ -100,61 +128,90 @@ public class BookingController {
         return ResponseEntity.ok(bookingDTOs);
     }
 
+    // GET /api/bookings/history - Full history including archived bookings
+    // Customers get their own; staff/admin pass a from/to range
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        User currentUser = getCurrentUser();
+
+        List<Booking> bookings;
+        if (currentUser.getRole().equals(User.UserRole.CUSTOMER)) {
+            bookings = bookingService.getCustomerBookingHistory(currentUser);
+        } else {
+            if (from == null || to == null) {
+                throw new BusinessRuleException("from and to are required");
+            }
+            bookings = bookingService.getBookingHistory(from, to);
+        }
+
+        List<BookingDTO> bookingDTOs = bookings.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(bookingDTOs);
+    }
+
     // GET /api/bookings/{id} - Get specific booking
     @GetMapping("/{id}")
     public ResponseEntity<?> getBooking(@PathVariable Long id) {
-        try {
-            Booking booking = bookingService.getBookingById(id);
-            User currentUser = getCurrentUser();
-
-            // Check permissions: customer can view their own, staff/admin can view all
-            if (currentUser.getRole().equals(User.UserRole.CUSTOMER) &&
-                    !booking.getCustomer().getId().equals(currentUser.getId())) {
-                return ResponseEntity.status(403).body("Access denied");
-            }
+        Booking booking = bookingService.getBookingIncludingArchive(id);
+        User currentUser = getCurrentUser();
 
-            return ResponseEntity.ok(convertToDTO(booking));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        // Check permissions: customer can view their own, staff/admin can view all
+        if (currentUser.getRole().equals(User.UserRole.CUSTOMER) &&
+                !booking.getCustomer().getId().equals(currentUser.getId())) {
+            throw new PermissionDeniedException("Access denied");
         }
+
+        return ResponseEntity.ok(convertToDTO(booking));
+    }
+
+    // GET /api/bookings/{id}/audit - Who changed what and when (STAFF/ADMIN)
+    @GetMapping("/{id}/audit")
+    public ResponseEntity<?> getAudit(@PathVariable Long id) {
+        User currentUser = getCurrentUser();
+
+        if (currentUser.getRole().equals(User.UserRole.CUSTOMER)) {
+            throw new PermissionDeniedException("Only staff can view the audit trail");
+        }
+
+        List<BookingAuditDTO> auditDTOs = bookingAuditTrail.getHistory(id).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(auditDTOs);
     }
 
     // PUT /api/bookings/{id}/status - Update booking status (STAFF)
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateStatus(@PathVariable Long id,
                                           @RequestBody UpdateStatusDTO updateStatusDTO) {
-        try {
-            User currentUser = getCurrentUser();
-
-            // Only staff can update status
-            if (!currentUser.getRole().equals(User.UserRole.STAFF)) {
-                return ResponseEntity.status(403).body("Only staff can update booking status");
-            }
+        User currentUser = getCurrentUser();
 
-            Booking booking = bookingService.updateBookingStatus(id, updateStatusDTO.getStatus());
-            return ResponseEntity.ok(convertToDTO(booking));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        // Only staff can update status
+        if (!currentUser.getRole().equals(User.UserRole.STAFF)) {
+            throw new PermissionDeniedException("Only staff can update booking status");
         }
+
+        Booking booking = bookingService.updateBookingStatus(id, updateStatusDTO.getStatus());
+        return ResponseEntity.ok(convertToDTO(booking));
     }
 
     // POST /api/bookings/{id}/rate - Rate booking (CUSTOMER after completion)
     @PostMapping("/{id}/rate")
     public ResponseEntity<?> rateBooking(@PathVariable Long id,
                                          @RequestBody RateBookingDTO rateBookingDTO) {
-        try {
-            User currentUser = getCurrentUser();
-
-            Booking booking = bookingService.rateBooking(
-                    id,
-                    rateBookingDTO.getRating(),
-                    rateBookingDTO.getReview(),
-                    currentUser
-            );
-
-            return ResponseEntity.ok(convertToDTO(booking));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        User currentUser = getCurrentUser();
+
+        Booking booking = bookingService.rateBooking(
+                id,
+                rateBookingDTO.getRating(),
+                rateBookingDTO.getReview(),
+                currentUser
+        );
+
+        return ResponseEntity.ok(convertToDTO(booking));
     }
 }
\ No newline at end of file
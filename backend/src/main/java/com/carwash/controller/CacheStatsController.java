@@ -0,0 +1,88 @@
+package com.carwash.controller;
+
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache-stats")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // GET /api/admin/cache-stats - Second-level cache and JDBC counters (ADMIN only)
+    @GetMapping
+    public ResponseEntity<?> getCacheStats() {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can view cache statistics");
+        }
+
+        Statistics stats = statistics();
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("secondLevelCacheHits", stats.getSecondLevelCacheHitCount());
+        totals.put("secondLevelCacheMisses", stats.getSecondLevelCacheMissCount());
+        totals.put("secondLevelCachePuts", stats.getSecondLevelCachePutCount());
+        totals.put("naturalIdCacheHits", stats.getNaturalIdCacheHitCount());
+        totals.put("naturalIdCacheMisses", stats.getNaturalIdCacheMissCount());
+        totals.put("entityLoads", stats.getEntityLoadCount());
+        totals.put("entityFetches", stats.getEntityFetchCount());
+        totals.put("queryExecutions", stats.getQueryExecutionCount());
+        totals.put("preparedStatements", stats.getPrepareStatementCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : stats.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = stats.getDomainDataRegionStatistics(regionName);
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hits", region.getHitCount());
+            regionStats.put("misses", region.getMissCount());
+            regionStats.put("puts", region.getPutCount());
+            regionStats.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(regionName, regionStats);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("statisticsSince", stats.getStartTime());
+        response.put("totals", totals);
+        response.put("regions", regions);
+        return ResponseEntity.ok(response);
+    }
+
+    // DELETE /api/admin/cache-stats - Reset counters, e.g. before a measurement run (ADMIN only)
+    @DeleteMapping
+    public ResponseEntity<?> resetCacheStats() {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can reset cache statistics");
+        }
+
+        statistics().clear();
+        return ResponseEntity.ok("Cache statistics reset");
+    }
+}
@@ -0,0 +1,104 @@
+package com.carwash.controller;
+
+import com.carwash.dto.CheckInDTO;
+import com.carwash.dto.VehicleDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.Booking;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.service.BookingService;
+import com.carwash.service.UserService;
+import com.carwash.service.VehicleService;
+import com.carwash.service.VehicleService.PlateLookup;
+import com.carwash.service.VehicleService.PlateMatchType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/staff/check-in")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class CheckInController {
+
+    private final VehicleService vehicleService;
+    private final BookingService bookingService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // Helper to convert Vehicle to VehicleDTO
+    private VehicleDTO convertToDTO(Vehicle vehicle) {
+        VehicleDTO dto = new VehicleDTO();
+        dto.setId(vehicle.getId());
+        dto.setMake(vehicle.getMake());
+        dto.setModel(vehicle.getModel());
+        dto.setLicensePlate(vehicle.getLicensePlate());
+        dto.setColor(vehicle.getColor());
+        dto.setType(vehicle.getType());
+        return dto;
+    }
+
+    // Helper to convert Booking to the compact check-in view
+    private CheckInDTO.TodayBookingDTO convertToDTO(Booking booking) {
+        CheckInDTO.TodayBookingDTO dto = new CheckInDTO.TodayBookingDTO();
+        dto.setId(booking.getId());
+        dto.setServiceName(booking.getService().getName());
+        dto.setBookingDateTime(booking.getBookingDateTime());
+        dto.setStatus(booking.getStatus());
+        if (booking.getAssignedStaff() != null) {
+            dto.setAssignedStaffName(booking.getAssignedStaff().getFullName());
+        }
+        return dto;
+    }
+
+    // GET /api/staff/check-in?plate= - Identify a car at the gate (STAFF/ADMIN)
+    @GetMapping
+    public ResponseEntity<?> checkIn(@RequestParam String plate) {
+        User currentUser = getCurrentUser();
+
+        if (currentUser.getRole().equals(User.UserRole.CUSTOMER)) {
+            throw new PermissionDeniedException("Only staff can check in vehicles");
+        }
+
+        PlateLookup lookup = vehicleService.findByPlate(plate);
+
+        CheckInDTO dto = new CheckInDTO();
+        dto.setPlate(plate);
+        dto.setMatchType(lookup.matchType());
+
+        if (lookup.matchType() == PlateMatchType.AMBIGUOUS) {
+            dto.setCandidates(lookup.vehicles().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(dto);
+        }
+        if (lookup.matchType() == PlateMatchType.NONE) {
+            return ResponseEntity.status(404).body(dto);
+        }
+
+        Vehicle vehicle = lookup.vehicles().get(0);
+        dto.setVehicle(convertToDTO(vehicle));
+        dto.setOwnerName(vehicle.getUser().getFullName());
+        dto.setOwnerPhoneNumber(vehicle.getUser().getPhoneNumber());
+
+        List<Booking> bookings = bookingService.getVehicleBookingsForDay(vehicle, LocalDate.now());
+        dto.setTodaysBookings(bookings.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList()));
+
+        return ResponseEntity.ok(dto);
+    }
+}
@@ -0,0 +1,54 @@
+package com.carwash.controller;
+
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.service.DemandForecaster;
+import com.carwash.service.LocationService;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/forecast")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class ForecastController {
+
+    private final DemandForecaster demandForecaster;
+    private final LocationService locationService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // GET /api/admin/forecast?locationId= - Expected bookings and staff per hour for the coming week (ADMIN)
+    // Served from the nightly forecast; without locationId, the default site
+    @GetMapping
+    public ResponseEntity<?> getForecast(@RequestParam(required = false) Long locationId) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can view forecasts");
+        }
+
+        return ResponseEntity.ok(demandForecaster.getForecast(locationService.resolve(locationId).getId()));
+    }
+
+    // POST /api/admin/forecast/refresh - Re-roll recent history and refit now instead of tonight (ADMIN)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh() {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can refresh forecasts");
+        }
+
+        demandForecaster.refresh();
+        return ResponseEntity.ok("Forecasts refreshed");
+    }
+}
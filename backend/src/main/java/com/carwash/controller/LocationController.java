@@ -0,0 +1,81 @@
+package com.carwash.controller;
+
+import com.carwash.dto.LocationDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.Location;
+import com.carwash.model.User;
+import com.carwash.service.LocationService;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/locations")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class LocationController {
+
+    private final LocationService locationService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // Helper to convert Location to LocationDTO
+    private LocationDTO convertToDTO(Location location) {
+        LocationDTO dto = new LocationDTO();
+        dto.setId(location.getId());
+        dto.setCode(location.getCode());
+        dto.setName(location.getName());
+        dto.setAddress(location.getAddress());
+        dto.setActive(location.isActive());
+        return dto;
+    }
+
+    // GET /api/locations - Active locations (Public)
+    @GetMapping
+    public ResponseEntity<List<LocationDTO>> getLocations() {
+        List<LocationDTO> locationDTOs = locationService.getActiveLocations().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(locationDTOs);
+    }
+
+    // POST /api/locations - Create location (ADMIN only)
+    @PostMapping
+    public ResponseEntity<?> createLocation(@RequestBody LocationDTO locationDTO) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can create locations");
+        }
+
+        Location location = locationService.createLocation(locationDTO);
+        LocationDTO dto = convertToDTO(location);
+        dto.setSchemaName(location.getSchemaName());  // Admin views only
+        return ResponseEntity.ok(dto);
+    }
+
+    // PUT /api/locations/{id} - Update or close location (ADMIN only)
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateLocation(@PathVariable Long id, @RequestBody LocationDTO locationDTO) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can update locations");
+        }
+
+        Location location = locationService.updateLocation(id, locationDTO);
+        LocationDTO dto = convertToDTO(location);
+        dto.setSchemaName(location.getSchemaName());  // Admin views only
+        return ResponseEntity.ok(dto);
+    }
+}
@@ -0,0 +1,109 @@
+package com.carwash.controller;
+
+import com.carwash.dto.AddOnDTO;
+import com.carwash.dto.PriceRuleDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.service.PricingEngine;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/pricing")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class PricingController {
+
+    private final PricingEngine pricingEngine;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    private boolean isAdmin() {
+        return getCurrentUser().getRole().equals(User.UserRole.ADMIN);
+    }
+
+    // PUT /api/admin/pricing/services/{serviceId}/{vehicleType} - Price and duration for one vehicle type (ADMIN)
+    @PutMapping("/services/{serviceId}/{vehicleType}")
+    public ResponseEntity<?> setServicePrice(@PathVariable Long serviceId,
+                                             @PathVariable Vehicle.VehicleType vehicleType,
+                                             @RequestBody PriceRuleDTO priceRuleDTO) {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can change pricing");
+        }
+
+        pricingEngine.setServiceVehiclePrice(serviceId, vehicleType,
+                priceRuleDTO.getPrice(), priceRuleDTO.getDurationMinutes());
+        return ResponseEntity.ok("Pricing updated");
+    }
+
+    // DELETE /api/admin/pricing/services/{serviceId}/{vehicleType} - Back to the flat price (ADMIN)
+    @DeleteMapping("/services/{serviceId}/{vehicleType}")
+    public ResponseEntity<?> clearServicePrice(@PathVariable Long serviceId,
+                                               @PathVariable Vehicle.VehicleType vehicleType) {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can change pricing");
+        }
+
+        pricingEngine.clearServiceVehiclePrice(serviceId, vehicleType);
+        return ResponseEntity.ok("Pricing reset");
+    }
+
+    // GET /api/admin/pricing/add-ons - List add-ons (ADMIN)
+    @GetMapping("/add-ons")
+    public ResponseEntity<?> getAddOns() {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can view pricing");
+        }
+
+        return ResponseEntity.ok(pricingEngine.getAddOns());
+    }
+
+    // POST /api/admin/pricing/add-ons - Create add-on (ADMIN)
+    @PostMapping("/add-ons")
+    public ResponseEntity<?> createAddOn(@RequestBody AddOnDTO addOnDTO) {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can change pricing");
+        }
+
+        pricingEngine.createAddOn(addOnDTO);
+        return ResponseEntity.ok("Add-on created");
+    }
+
+    // PUT /api/admin/pricing/add-ons/{code} - Update add-on defaults or active flag (ADMIN)
+    @PutMapping("/add-ons/{code}")
+    public ResponseEntity<?> updateAddOn(@PathVariable String code, @RequestBody AddOnDTO addOnDTO) {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can change pricing");
+        }
+
+        pricingEngine.updateAddOn(code, addOnDTO);
+        return ResponseEntity.ok("Add-on updated");
+    }
+
+    // PUT /api/admin/pricing/add-ons/{code}/{vehicleType} - Add-on price and extra time for one vehicle type (ADMIN)
+    @PutMapping("/add-ons/{code}/{vehicleType}")
+    public ResponseEntity<?> setAddOnPrice(@PathVariable String code,
+                                           @PathVariable Vehicle.VehicleType vehicleType,
+                                           @RequestBody PriceRuleDTO priceRuleDTO) {
+        if (!isAdmin()) {
+            throw new PermissionDeniedException("Only admin can change pricing");
+        }
+
+        pricingEngine.setAddOnVehiclePrice(code, vehicleType,
+                priceRuleDTO.getPrice(), priceRuleDTO.getDurationMinutes());
+        return ResponseEntity.ok("Add-on pricing updated");
+    }
+}
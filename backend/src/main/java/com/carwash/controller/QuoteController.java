@@ -0,0 +1,39 @@
+package com.carwash.controller;
+
+import com.carwash.model.Vehicle;
+import com.carwash.service.DemandPricing;
+import com.carwash.service.LocationService;
+import com.carwash.service.PricingEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/quote")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class QuoteController {
+
+    private final PricingEngine pricingEngine;
+    private final DemandPricing demandPricing;
+    private final LocationService locationService;
+
+    // GET /api/quote?serviceId=&vehicleType=&addOns=WAX,INTERIOR&at=&locationId= - Price and duration (Public)
+    // With a start time the demand multiplier for that slot at the location (default: main site) is applied
+    @GetMapping
+    public ResponseEntity<?> getQuote(@RequestParam Long serviceId,
+                                      @RequestParam Vehicle.VehicleType vehicleType,
+                                      @RequestParam(required = false) List<String> addOns,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                                      @RequestParam(required = false) Long locationId) {
+        PricingEngine.Quote quote = pricingEngine.quote(serviceId, vehicleType, pricingEngine.addOnMask(addOns));
+        if (at == null) {
+            return ResponseEntity.ok(quote);
+        }
+        long siteId = locationId != null ? locationId : locationService.getDefaultLocationId();
+        return ResponseEntity.ok(demandPricing.apply(quote, siteId, at));
+    }
+}
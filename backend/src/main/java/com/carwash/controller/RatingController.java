@@ -0,0 +1,66 @@
+package com.carwash.controller;
+
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.service.RatingAggregateService;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/ratings")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class RatingController {
+
+    private final RatingAggregateService ratingAggregateService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // GET /api/admin/ratings/staff - Average rating per staff member (ADMIN only)
+    @GetMapping("/staff")
+    public ResponseEntity<?> getStaffRatings() {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can view staff ratings");
+        }
+
+        List<Map<String, Object>> ratings = new ArrayList<>();
+        for (User staff : userService.getAllStaff()) {
+            RatingAggregateService.RatingSummary rating = ratingAggregateService.getStaffRating(staff.getId());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("staffId", staff.getId());
+            row.put("fullName", staff.getFullName());
+            row.put("averageRating", rating.average());
+            row.put("ratingCount", rating.count());
+            ratings.add(row);
+        }
+        return ResponseEntity.ok(ratings);
+    }
+
+    // POST /api/admin/ratings/rebuild - Recompute rating totals from all bookings (ADMIN only)
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can rebuild ratings");
+        }
+
+        ratingAggregateService.rebuild();
+        ratingAggregateService.load();
+        return ResponseEntity.ok("Rating totals rebuilt");
+    }
+}
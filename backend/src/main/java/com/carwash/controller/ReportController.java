@@ -0,0 +1,56 @@
+package com.carwash.controller;
+
+import com.carwash.dto.ReportRequestDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.service.ReportJobService;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportJobService reportJobService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // POST /api/admin/reports - Start a report job; 202 with the job id to poll (ADMIN)
+    // An identical request that is running or recently finished returns that job instead
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportRequestDTO reportRequestDTO) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can run reports");
+        }
+
+        return ResponseEntity.accepted().body(reportJobService.submit(
+                reportRequestDTO.getType(),
+                reportRequestDTO.getFrom(),
+                reportRequestDTO.getTo(),
+                reportRequestDTO.getLocationId()));
+    }
+
+    // GET /api/admin/reports/{id} - Status, progress and (when done) the rows (ADMIN)
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can view reports");
+        }
+
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+}
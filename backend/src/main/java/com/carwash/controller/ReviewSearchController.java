@@ -0,0 +1,100 @@
+package com.carwash.controller;
+
+import com.carwash.dto.ReviewSearchResultDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.exception.ServiceUnavailableException;
+import com.carwash.model.Booking;
+import com.carwash.model.User;
+import com.carwash.service.BookingService;
+import com.carwash.service.ReviewSearchIndex;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/reviews")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class ReviewSearchController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final BookingService bookingService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // GET /api/admin/reviews/search?q= - Keyword search over reviews and notes (ADMIN only)
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Long serviceId,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) Integer maxRating,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!getCurrentUser().getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can search reviews");
+        }
+        if (!reviewSearchIndex.isReady()) {
+            throw new ServiceUnavailableException("Review index is still loading");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessRuleException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        ReviewSearchIndex.SearchPage result =
+                reviewSearchIndex.search(q, serviceId, minRating, maxRating, from, to, page, size);
+
+        // Load only the bookings on this page
+        List<Long> ids = new ArrayList<>();
+        for (ReviewSearchIndex.Hit hit : result.hits()) {
+            ids.add(hit.bookingId());
+        }
+        Map<Long, Booking> bookings = bookingService.getBookingsIncludingArchive(ids);
+
+        List<ReviewSearchResultDTO.HitDTO> hits = new ArrayList<>();
+        for (ReviewSearchIndex.Hit hit : result.hits()) {
+            Booking booking = bookings.get(hit.bookingId());
+            if (booking == null) {
+                continue;
+            }
+            ReviewSearchResultDTO.HitDTO dto = new ReviewSearchResultDTO.HitDTO();
+            dto.setBookingId(booking.getId());
+            dto.setScore(hit.score());
+            dto.setServiceId(booking.getService().getId());
+            dto.setServiceName(booking.getService().getName());
+            dto.setBookingDateTime(booking.getBookingDateTime());
+            dto.setRating(booking.getRating());
+            dto.setReview(booking.getReview());
+            dto.setNotes(booking.getNotes());
+            hits.add(dto);
+        }
+
+        ReviewSearchResultDTO response = new ReviewSearchResultDTO();
+        response.setTotal(result.total());
+        response.setPage(page);
+        response.setSize(size);
+        response.setHits(hits);
+        return ResponseEntity.ok(response);
+    }
+}
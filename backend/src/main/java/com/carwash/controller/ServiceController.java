@@ -1,8 +1,12 @@
 package com.carwash.controller;
 
 import com.carwash.dto.ServiceDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.Service;
 import com.carwash.model.User;
+import com.carwash.service.LocationService;
+import com.carwash.service.RatingAggregateService;
 import com.carwash.service.ServiceService;
 import com.carwash.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,8 @@ public class ServiceController {
 
     private final ServiceService serviceService;
     private final UserService userService;
+    private final LocationService locationService;
+    private final RatingAggregateService ratingAggregateService;
 
     // Helper to convert Service to ServiceDTO
     private ServiceDTO convertToDTO(Service service) {
@@ -30,6 +36,12 @@ public class ServiceController {
         dto.setDescription(service.getDescription());
         dto.setPrice(service.getPrice());
         dto.setDurationMinutes(service.getDurationMinutes());
+        dto.setLocationId(service.getLocation() == null ? null : service.getLocation().getId());
+
+        // Ratings come from the in-memory aggregates, not a query
+        RatingAggregateService.RatingSummary rating = ratingAggregateService.getServiceRating(service.getId());
+        dto.setAverageRating(rating.average());
+        dto.setRatingCount(rating.count());
         return dto;
     }
 
@@ -38,13 +50,15 @@ public class ServiceController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         return userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
     }
 
-    // GET /api/services - Get all active services (Public)
+    // GET /api/services?locationId= - Get all active services, or those offered at one location (Public)
     @GetMapping
-    public ResponseEntity<List<ServiceDTO>> getAllServices() {
-        List<Service> services = serviceService.getAllActiveServices();
+    public ResponseEntity<List<ServiceDTO>> getAllServices(@RequestParam(required = false) Long locationId) {
+        List<Service> services = locationId == null
+                ? serviceService.getAllActiveServices()
+                : serviceService.getActiveServicesAt(locationId);
 
         List<ServiceDTO> serviceDTOs = services.stream()
                 .map(this::convertToDTO)
@@ -68,67 +82,61 @@ public class ServiceController {
     // POST /api/services - Create new service (ADMIN only)
     @PostMapping
     public ResponseEntity<?> createService(@RequestBody ServiceDTO serviceDTO) {
-        try {
-            User currentUser = getCurrentUser();
-
-            // Only admin can create services
-            if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
-                return ResponseEntity.status(403).body("Only admin can create services");
-            }
-
-            // Convert DTO to Entity
-            Service service = new Service();
-            service.setName(serviceDTO.getName());
-            service.setDescription(serviceDTO.getDescription());
-            service.setPrice(serviceDTO.getPrice());
-            service.setDurationMinutes(serviceDTO.getDurationMinutes());
-
-            Service createdService = serviceService.createService(service);
-            return ResponseEntity.ok(convertToDTO(createdService));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        User currentUser = getCurrentUser();
+
+        // Only admin can create services
+        if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can create services");
+        }
+
+        // Convert DTO to Entity
+        Service service = new Service();
+        service.setName(serviceDTO.getName());
+        service.setDescription(serviceDTO.getDescription());
+        service.setPrice(serviceDTO.getPrice());
+        service.setDurationMinutes(serviceDTO.getDurationMinutes());
+        if (serviceDTO.getLocationId() != null) {
+            service.setLocation(locationService.getLocationById(serviceDTO.getLocationId()));
         }
+
+        Service createdService = serviceService.createService(service);
+        return ResponseEntity.ok(convertToDTO(createdService));
     }
 
     // PUT /api/services/{id} - Update service (ADMIN only)
     @PutMapping("/{id}")
     public ResponseEntity<?> updateService(@PathVariable Long id, @RequestBody ServiceDTO serviceDTO) {
-        try {
-            User currentUser = getCurrentUser();
-
-            if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
-                return ResponseEntity.status(403).body("Only admin can update services");
-            }
-
-            // Convert DTO to Entity for update
-            Service updatedService = new Service();
-            updatedService.setName(serviceDTO.getName());
-            updatedService.setDescription(serviceDTO.getDescription());
-            updatedService.setPrice(serviceDTO.getPrice());
-            updatedService.setDurationMinutes(serviceDTO.getDurationMinutes());
-
-            Service service = serviceService.updateService(id, updatedService);
-            return ResponseEntity.ok(convertToDTO(service));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        User currentUser = getCurrentUser();
+
+        if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can update services");
         }
+
+        // Convert DTO to Entity for update
+        Service updatedService = new Service();
+        updatedService.setName(serviceDTO.getName());
+        updatedService.setDescription(serviceDTO.getDescription());
+        updatedService.setPrice(serviceDTO.getPrice());
+        updatedService.setDurationMinutes(serviceDTO.getDurationMinutes());
+        if (serviceDTO.getLocationId() != null) {
+            updatedService.setLocation(locationService.getLocationById(serviceDTO.getLocationId()));
+        }
+
+        Service service = serviceService.updateService(id, updatedService);
+        return ResponseEntity.ok(convertToDTO(service));
     }
 
     // DELETE /api/services/{id} - Deactivate service (ADMIN only)
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteService(@PathVariable Long id) {
-        try {
-            User currentUser = getCurrentUser();
-
-            if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
-                return ResponseEntity.status(403).body("Only admin can delete services");
-            }
+        User currentUser = getCurrentUser();
 
-            serviceService.deactivateService(id);
-            return ResponseEntity.ok("Service deactivated successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can delete services");
         }
+
+        serviceService.deactivateService(id);
+        return ResponseEntity.ok("Service deactivated successfully");
     }
 
     // GET /api/services/search?q= - Search services (Public)
@@ -0,0 +1,65 @@
+package com.carwash.controller;
+
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.User;
+import com.carwash.service.LocationService;
+import com.carwash.service.ScheduleCache;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequestMapping("/api/staff/calendar")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class StaffCalendarController {
+
+    private static final long MAX_RANGE_DAYS = 62;
+
+    private final ScheduleCache scheduleCache;
+    private final LocationService locationService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // GET /api/staff/calendar?from=&to=&locationId= - Bookings per day, both dates inclusive (STAFF/ADMIN)
+    // Without locationId: the staff member's own site, else the default one
+    @GetMapping
+    public ResponseEntity<?> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long locationId) {
+        User currentUser = getCurrentUser();
+
+        if (currentUser.getRole().equals(User.UserRole.CUSTOMER)) {
+            throw new PermissionDeniedException("Only staff can view the calendar");
+        }
+        if (to.isBefore(from)) {
+            throw new BusinessRuleException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BusinessRuleException("Calendar range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+
+        if (locationId == null && currentUser.getLocation() != null) {
+            locationId = currentUser.getLocation().getId();
+        }
+        Long calendarLocationId = locationService.resolve(locationId).getId();
+
+        return ResponseEntity.ok(scheduleCache.getDays(calendarLocationId, from, to));
+    }
+}
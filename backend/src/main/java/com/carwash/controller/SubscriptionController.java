@@ -0,0 +1,94 @@
+package com.carwash.controller;
+
+import com.carwash.dto.CreateSubscriptionDTO;
+import com.carwash.dto.SubscriptionDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.model.Subscription;
+import com.carwash.model.User;
+import com.carwash.service.SubscriptionService;
+import com.carwash.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/subscriptions")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class SubscriptionController {
+
+    private final SubscriptionService subscriptionService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // Helper to convert Subscription to SubscriptionDTO
+    private SubscriptionDTO convertToDTO(Subscription subscription) {
+        SubscriptionDTO dto = new SubscriptionDTO();
+        dto.setId(subscription.getId());
+        dto.setLocationId(subscription.getLocation().getId());
+        dto.setLocationName(subscription.getLocation().getName());
+        dto.setServiceId(subscription.getService().getId());
+        dto.setServiceName(subscription.getService().getName());
+        dto.setVehicleId(subscription.getVehicle().getId());
+        dto.setLicensePlate(subscription.getVehicle().getLicensePlate());
+        dto.setStartDate(subscription.getStartDate());
+        dto.setTimeOfDay(subscription.getTimeOfDay());
+        dto.setIntervalWeeks(subscription.getIntervalWeeks());
+        dto.setEndDate(subscription.getEndDate());
+        dto.setNotes(subscription.getNotes());
+        dto.setActive(subscription.getActive());
+        dto.setBookedUntil(subscription.getMaterializedUntil());
+        return dto;
+    }
+
+    // POST /api/subscriptions - Create a recurring wash (CUSTOMER)
+    @PostMapping
+    public ResponseEntity<?> createSubscription(@RequestBody CreateSubscriptionDTO createSubscriptionDTO) {
+        User currentUser = getCurrentUser();
+
+        Subscription subscription = subscriptionService.createSubscription(
+                currentUser,
+                createSubscriptionDTO.getLocationId(),
+                createSubscriptionDTO.getServiceId(),
+                createSubscriptionDTO.getVehicleId(),
+                createSubscriptionDTO.getFirstBookingDateTime(),
+                createSubscriptionDTO.getIntervalWeeks(),
+                createSubscriptionDTO.getEndDate(),
+                createSubscriptionDTO.getNotes()
+        );
+
+        return ResponseEntity.ok(convertToDTO(subscription));
+    }
+
+    // GET /api/subscriptions/my-subscriptions - Get my subscriptions (CUSTOMER)
+    @GetMapping("/my-subscriptions")
+    public ResponseEntity<List<SubscriptionDTO>> getMySubscriptions() {
+        User currentUser = getCurrentUser();
+
+        List<SubscriptionDTO> subscriptionDTOs = subscriptionService.getCustomerSubscriptions(currentUser).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(subscriptionDTOs);
+    }
+
+    // DELETE /api/subscriptions/{id} - Stop a subscription and cancel its upcoming bookings (CUSTOMER)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelSubscription(@PathVariable Long id) {
+        User currentUser = getCurrentUser();
+
+        Subscription subscription = subscriptionService.cancelSubscription(id, currentUser);
+        return ResponseEntity.ok(convertToDTO(subscription));
+    }
+}
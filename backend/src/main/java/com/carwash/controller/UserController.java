@@ -1,5 +1,8 @@
 package com.carwash.controller;
 
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.User;
 import com.carwash.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -24,91 +27,108 @@ public class UserController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         return userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
     }
 
     // GET /api/users/profile - Get my profile
     @GetMapping("/profile")
     public ResponseEntity<?> getMyProfile() {
-        try {
-            User user = getCurrentUser();
-
-            // Return user info without password
-            Map<String, Object> profile = Map.of(
-                    "id", user.getId(),
-                    "email", user.getEmail(),
-                    "fullName", user.getFullName(),
-                    "phoneNumber", user.getPhoneNumber(),
-                    "role", user.getRole(),
-                    "active", user.isActive()
-            );
-
-            return ResponseEntity.ok(profile);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        User user = getCurrentUser();
+
+        // Return user info without password
+        Map<String, Object> profile = Map.of(
+                "id", user.getId(),
+                "email", user.getEmail(),
+                "fullName", user.getFullName(),
+                "phoneNumber", user.getPhoneNumber(),
+                "role", user.getRole(),
+                "active", user.isActive()
+        );
+
+        return ResponseEntity.ok(profile);
     }
 
     // PUT /api/users/profile - Update my profile
     @PutMapping("/profile")
     public ResponseEntity<?> updateProfile(@RequestBody Map<String, String> updateData) {
-        try {
-            User currentUser = getCurrentUser();
-
-            // Update fields if provided
-            if (updateData.containsKey("fullName")) {
-                currentUser.setFullName(updateData.get("fullName"));
-            }
-            if (updateData.containsKey("phoneNumber")) {
-                currentUser.setPhoneNumber(updateData.get("phoneNumber"));
-            }
-
-            // Save updated user
-            userService.updateUser(currentUser);
-
-            return ResponseEntity.ok("Profile updated successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        User currentUser = getCurrentUser();
+
+        // Update fields if provided
+        if (updateData.containsKey("fullName")) {
+            currentUser.setFullName(updateData.get("fullName"));
+        }
+        if (updateData.containsKey("phoneNumber")) {
+            currentUser.setPhoneNumber(updateData.get("phoneNumber"));
         }
+
+        // Save updated user
+        userService.updateUser(currentUser);
+
+        return ResponseEntity.ok("Profile updated successfully");
     }
 
     // POST /api/users/change-password - Change password
     @PostMapping("/change-password")
     public ResponseEntity<?> changePassword(@RequestBody Map<String, String> passwordData) {
-        try {
-            User currentUser = getCurrentUser();
+        User currentUser = getCurrentUser();
 
-            String oldPassword = passwordData.get("oldPassword");
-            String newPassword = passwordData.get("newPassword");
+        String oldPassword = passwordData.get("oldPassword");
+        String newPassword = passwordData.get("newPassword");
 
-            if (oldPassword == null || newPassword == null) {
-                return ResponseEntity.badRequest().body("Old and new password required");
-            }
+        if (oldPassword == null || newPassword == null) {
+            throw new BusinessRuleException("Old and new password required");
+        }
+
+        // Verify old password
+        if (!passwordEncoder.matches(oldPassword, currentUser.getPassword())) {
+            throw new BusinessRuleException("Old password is incorrect");
+        }
 
-            // Verify old password
-            if (!passwordEncoder.matches(oldPassword, currentUser.getPassword())) {
-                return ResponseEntity.badRequest().body("Old password is incorrect");
-            }
+        // Update to new password (encrypted); existing tokens stop working
+        userService.changePassword(currentUser, newPassword);
+
+        return ResponseEntity.ok("Password changed successfully");
+    }
 
-            // Update to new password (encrypted)
-            currentUser.setPassword(passwordEncoder.encode(newPassword));
-            userService.updateUser(currentUser);
+    // PUT /api/users/{id}/active - Activate or deactivate a user (ADMIN)
+    @PutMapping("/{id}/active")
+    public ResponseEntity<?> setActive(@PathVariable Long id, @RequestBody Map<String, Boolean> activeData) {
+        User currentUser = getCurrentUser();
 
-            return ResponseEntity.ok("Password changed successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can activate or deactivate users");
         }
+
+        Boolean active = activeData.get("active");
+        if (active == null) {
+            throw new BusinessRuleException("active is required");
+        }
+
+        User user = userService.setUserActive(id, active);
+        return ResponseEntity.ok(active ? "User " + user.getEmail() + " activated"
+                : "User " + user.getEmail() + " deactivated");
+    }
+
+    // PUT /api/users/{id}/location - Set a staff member's home location (ADMIN)
+    @PutMapping("/{id}/location")
+    public ResponseEntity<?> setLocation(@PathVariable Long id, @RequestBody Map<String, Long> locationData) {
+        User currentUser = getCurrentUser();
+
+        if (!currentUser.getRole().equals(User.UserRole.ADMIN)) {
+            throw new PermissionDeniedException("Only admin can assign staff locations");
+        }
+
+        User user = userService.setUserLocation(id, locationData.get("locationId"));
+        return ResponseEntity.ok(user.getLocation() == null
+                ? "User " + user.getEmail() + " has no home location"
+                : "User " + user.getEmail() + " assigned to " + user.getLocation().getName());
     }
 
     // GET /api/users/vehicles - Get my vehicles (moved from VehicleController)
     @GetMapping("/vehicles")
     public ResponseEntity<?> getMyVehicles() {
-        try {
-            User currentUser = getCurrentUser();
-            // This would need VehicleService injected
-            return ResponseEntity.ok("This endpoint needs VehicleService integration");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        User currentUser = getCurrentUser();
+        // This would need VehicleService injected
+        return ResponseEntity.ok("This endpoint needs VehicleService integration");
     }
 }
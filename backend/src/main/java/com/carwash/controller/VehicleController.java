@@ -2,13 +2,22 @@ package com.carwash.controller;
 
 import com.carwash.dto.CreateVehicleDTO;
 import com.carwash.dto.VehicleDTO;
+import com.carwash.dto.VehicleImportResultDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.User;
 import com.carwash.model.Vehicle;
 import com.carwash.service.UserService;
+import com.carwash.service.VehicleImportService;
 import com.carwash.service.VehicleService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,11 +29,14 @@ public class VehicleController {
 
     private final VehicleService vehicleService;
     private final UserService userService;
+    private final VehicleImportService vehicleImportService;
 
+    // Helper to get current user
     private User getCurrentUser() {
-        // Hardcode a user for testing
-        return userService.findByEmail("customer@test.com")
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
     }
 
     // Helper to convert Vehicle to VehicleDTO
@@ -60,7 +72,7 @@ public class VehicleController {
 
         // Check if vehicle belongs to user
         if (!vehicleService.vehicleBelongsToUser(id, currentUser)) {
-            return ResponseEntity.status(403).build();
+            throw new PermissionDeniedException("Vehicle does not belong to you");
         }
 
         return ResponseEntity.ok(convertToDTO(vehicle));
@@ -85,16 +97,31 @@ public class VehicleController {
         return ResponseEntity.ok(convertToDTO(savedVehicle));
     }
 
+    // POST /api/vehicles/import - Bulk add vehicles from a CSV or NDJSON body (fleet accounts)
+    // CSV needs a header row: make,model,licensePlate,color,type
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importVehicles(HttpServletRequest request) {
+        User currentUser = getCurrentUser();
+
+        VehicleImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? VehicleImportService.Format.CSV
+                : VehicleImportService.Format.NDJSON;
+
+        try {
+            VehicleImportResultDTO result =
+                    vehicleImportService.importVehicles(request.getInputStream(), format, currentUser);
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            throw new BusinessRuleException("Could not read upload: " + e.getMessage());
+        }
+    }
+
     // DELETE /api/vehicles/{id} - Delete vehicle
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteVehicle(@PathVariable Long id) {
         User currentUser = getCurrentUser();
 
-        try {
-            vehicleService.deleteVehicle(id, currentUser);
-            return ResponseEntity.ok("Vehicle deleted successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        vehicleService.deleteVehicle(id, currentUser);
+        return ResponseEntity.ok("Vehicle deleted successfully");
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.carwash.controller;
+
+import com.carwash.dto.JoinWaitlistDTO;
+import com.carwash.dto.WaitlistEntryDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.model.User;
+import com.carwash.model.WaitlistEntry;
+import com.carwash.service.UserService;
+import com.carwash.service.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final UserService userService;
+
+    // Helper to get current user
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = auth.getName();
+        return userService.findByEmail(email)
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
+    }
+
+    // Helper to convert WaitlistEntry to WaitlistEntryDTO
+    private WaitlistEntryDTO convertToDTO(WaitlistEntry entry) {
+        WaitlistEntryDTO dto = new WaitlistEntryDTO();
+        dto.setId(entry.getId());
+        dto.setLocationId(entry.getLocation().getId());
+        dto.setLocationName(entry.getLocation().getName());
+        dto.setServiceId(entry.getService().getId());
+        dto.setServiceName(entry.getService().getName());
+        dto.setVehicleId(entry.getVehicle().getId());
+        dto.setLicensePlate(entry.getVehicle().getLicensePlate());
+        dto.setWindowStart(entry.getWindowStart());
+        dto.setWindowEnd(entry.getWindowEnd());
+        dto.setNotes(entry.getNotes());
+        dto.setStatus(entry.getStatus());
+        dto.setBookingId(entry.getBookingId());
+        dto.setCreatedAt(entry.getCreatedAt());
+        return dto;
+    }
+
+    // POST /api/waitlist - Wait for a booked-out slot or time window (CUSTOMER)
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(@RequestBody JoinWaitlistDTO joinWaitlistDTO) {
+        User currentUser = getCurrentUser();
+
+        WaitlistEntry entry = waitlistService.joinWaitlist(
+                currentUser,
+                joinWaitlistDTO.getLocationId(),
+                joinWaitlistDTO.getServiceId(),
+                joinWaitlistDTO.getVehicleId(),
+                joinWaitlistDTO.getWindowStart(),
+                joinWaitlistDTO.getWindowEnd(),
+                joinWaitlistDTO.getNotes()
+        );
+
+        return ResponseEntity.ok(convertToDTO(entry));
+    }
+
+    // GET /api/waitlist/my-entries - Get my waitlist entries (CUSTOMER)
+    @GetMapping("/my-entries")
+    public ResponseEntity<List<WaitlistEntryDTO>> getMyEntries() {
+        User currentUser = getCurrentUser();
+
+        List<WaitlistEntryDTO> entryDTOs = waitlistService.getCustomerEntries(currentUser).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(entryDTOs);
+    }
+
+    // DELETE /api/waitlist/{id} - Leave the waitlist (CUSTOMER)
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long id) {
+        User currentUser = getCurrentUser();
+
+        WaitlistEntry entry = waitlistService.leaveWaitlist(id, currentUser);
+        return ResponseEntity.ok(convertToDTO(entry));
+    }
+}
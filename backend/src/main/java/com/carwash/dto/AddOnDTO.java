@@ -0,0 +1,13 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class AddOnDTO {
+    private String code;          // e.g. WAX, INTERIOR
+    private String name;
+    private BigDecimal price;     // Default for every vehicle type
+    private Integer extraMinutes;
+    private Boolean active;
+}
@@ -0,0 +1,16 @@
+package com.carwash.dto;
+
+import com.carwash.model.Booking.BookingStatus;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class BookingAuditDTO {
+    private String eventType;
+    private String actor;
+    private BookingStatus oldStatus;
+    private BookingStatus newStatus;
+    private Long oldStaffId;
+    private Long newStaffId;
+    private LocalDateTime occurredAt;
+}
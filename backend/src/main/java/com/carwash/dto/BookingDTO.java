@@ -3,11 +3,14 @@ package com.carwash.dto;
 import com.carwash.model.Booking.BookingStatus;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class BookingDTO {
     private Long id;
     private ServiceDTO service;
+    private Long locationId;
+    private String locationName;
     private VehicleDTO vehicle;
     private LocalDateTime bookingDateTime;
     private BookingStatus status;
@@ -15,6 +18,10 @@ public class BookingDTO {
     private Integer rating;
     private String review;
     private String assignedStaffName;
+    private Long subscriptionId;
+    private Integer durationMinutes;  // For this vehicle and add-ons
+    private List<String> addOns;
+    private Double price;             // What this booking costs (service price for older bookings)
 
     // Nested DTO for service details
     @Data
@@ -0,0 +1,28 @@
+package com.carwash.dto;
+
+import com.carwash.model.Booking.BookingStatus;
+import com.carwash.service.VehicleService.PlateMatchType;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CheckInDTO {
+    private String plate;                 // As entered at the gate
+    private PlateMatchType matchType;
+    private VehicleDTO vehicle;           // Set when exactly one vehicle matched
+    private String ownerName;
+    private String ownerPhoneNumber;
+    private List<TodayBookingDTO> todaysBookings;
+    private List<VehicleDTO> candidates;  // Set when the plate is ambiguous
+
+    // Nested DTO for today's bookings
+    @Data
+    public static class TodayBookingDTO {
+        private Long id;
+        private String serviceName;
+        private LocalDateTime bookingDateTime;
+        private BookingStatus status;
+        private String assignedStaffName;
+    }
+}
@@ -2,11 +2,14 @@ package com.carwash.dto;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class CreateBookingDTO {
+    private Long locationId;       // Optional - defaults to the main site
     private Long serviceId;
     private Long vehicleId;
     private LocalDateTime bookingDateTime;
     private String notes;
+    private List<String> addOns;   // Add-on codes, optional
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class CreateSubscriptionDTO {
+    private Long locationId;       // Optional - defaults to the main site
+    private Long serviceId;
+    private Long vehicleId;
+    private LocalDateTime firstBookingDateTime;  // Sets the day of week and time
+    private Integer intervalWeeks;
+    private LocalDate endDate;                   // Optional
+    private String notes;
+}
@@ -0,0 +1,14 @@
+package com.carwash.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorDTO {
+    private int status;
+    private String error;      // Status reason, e.g. "Conflict"
+    private String message;
+}
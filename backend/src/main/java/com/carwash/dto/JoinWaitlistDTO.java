@@ -0,0 +1,14 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class JoinWaitlistDTO {
+    private Long locationId;       // Optional - defaults to the main site
+    private Long serviceId;
+    private Long vehicleId;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;  // Optional - defaults to windowStart (one exact slot)
+    private String notes;
+}
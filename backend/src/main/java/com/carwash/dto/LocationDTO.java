@@ -0,0 +1,13 @@
+package com.carwash.dto;
+
+import lombok.Data;
+
+@Data
+public class LocationDTO {
+    private Long id;
+    private String code;
+    private String name;
+    private String address;
+    private String schemaName;
+    private Boolean active;
+}
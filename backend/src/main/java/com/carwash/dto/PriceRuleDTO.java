@@ -0,0 +1,10 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class PriceRuleDTO {
+    private BigDecimal price;
+    private Integer durationMinutes;  // For add-ons: extra minutes
+}
@@ -0,0 +1,13 @@
+package com.carwash.dto;
+
+import com.carwash.service.ReportJobService.ReportType;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class ReportRequestDTO {
+    private ReportType type;
+    private LocalDate from;       // Inclusive
+    private LocalDate to;         // Inclusive
+    private Long locationId;      // Null = every site
+}
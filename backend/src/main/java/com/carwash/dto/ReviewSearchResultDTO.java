@@ -0,0 +1,26 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ReviewSearchResultDTO {
+    private long total;
+    private int page;
+    private int size;
+    private List<HitDTO> hits;
+
+    // Nested DTO for one matching booking
+    @Data
+    public static class HitDTO {
+        private Long bookingId;
+        private double score;
+        private Long serviceId;
+        private String serviceName;
+        private LocalDateTime bookingDateTime;
+        private Integer rating;
+        private String review;
+        private String notes;
+    }
+}
@@ -11,4 +11,7 @@ public class ServiceDTO {
     private String description;
     private BigDecimal price;
     private Integer durationMinutes;
+    private Long locationId;        // null = offered at every site
+    private Double averageRating;   // null until rated
+    private Long ratingCount;
 }
\ No newline at end of file
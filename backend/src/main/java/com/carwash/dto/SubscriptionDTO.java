@@ -0,0 +1,23 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class SubscriptionDTO {
+    private Long id;
+    private Long locationId;
+    private String locationName;
+    private Long serviceId;
+    private String serviceName;
+    private Long vehicleId;
+    private String licensePlate;
+    private LocalDate startDate;
+    private LocalTime timeOfDay;
+    private Integer intervalWeeks;
+    private LocalDate endDate;
+    private String notes;
+    private Boolean active;
+    private LocalDate bookedUntil;  // Bookings exist up to this date
+}
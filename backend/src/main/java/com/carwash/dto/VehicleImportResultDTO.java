@@ -0,0 +1,22 @@
+package com.carwash.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class VehicleImportResultDTO {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();  // Capped, see errorsTruncated
+    private boolean errorsTruncated;
+
+    // Nested DTO for a rejected row
+    @Data
+    public static class RowError {
+        private long line;
+        private String licensePlate;
+        private String message;
+    }
+}
@@ -0,0 +1,22 @@
+package com.carwash.dto;
+
+import com.carwash.model.WaitlistEntry.WaitlistStatus;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistEntryDTO {
+    private Long id;
+    private Long locationId;
+    private String locationName;
+    private Long serviceId;
+    private String serviceName;
+    private Long vehicleId;
+    private String licensePlate;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private String notes;
+    private WaitlistStatus status;
+    private Long bookingId;       // Set once promoted
+    private LocalDateTime createdAt;
+}
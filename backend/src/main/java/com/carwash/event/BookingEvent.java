@@ -0,0 +1,52 @@
+package com.carwash.event;
+
+import com.carwash.model.Booking;
+import lombok.Builder;
+import lombok.Value;
+import java.time.LocalDateTime;
+
+// Published by BookingService when a booking changes. Carries ids and values, not entities,
+// so listeners running after commit never touch a closed persistence context.
+@Value
+@Builder
+public class BookingEvent {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        ASSIGNED,
+        RATED
+    }
+
+    Type type;
+    Long bookingId;
+    Long customerId;
+    Long serviceId;
+    Long locationId;
+    Long staffId;                     // Assigned staff, if any
+    Long oldStaffId;                  // ASSIGNED only
+    LocalDateTime bookingDateTime;
+    Booking.BookingStatus status;
+    Booking.BookingStatus oldStatus;  // STATUS_CHANGED only
+    Integer oldRating;
+    Integer newRating;
+    String notes;
+    String review;
+    String actor;                     // Email of who made the change, or "system"
+
+    // Builder pre-filled from the booking's current state
+    public static BookingEventBuilder from(Type type, Booking booking) {
+        return builder()
+                .type(type)
+                .bookingId(booking.getId())
+                .customerId(booking.getCustomer().getId())
+                .serviceId(booking.getService().getId())
+                .locationId(booking.getLocation().getId())
+                .staffId(booking.getAssignedStaff() == null ? null : booking.getAssignedStaff().getId())
+                .bookingDateTime(booking.getBookingDateTime())
+                .status(booking.getStatus())
+                .newRating(booking.getRating())
+                .notes(booking.getNotes())
+                .review(booking.getReview());
+    }
+}
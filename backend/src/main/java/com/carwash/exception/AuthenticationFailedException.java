@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// Wrong credentials or an unusable account (401)
+public class AuthenticationFailedException extends DomainException {
+
+    public AuthenticationFailedException(String message) {
+        super(message);
+    }
+}
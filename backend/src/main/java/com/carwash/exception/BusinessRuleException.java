@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// A well-formed request that breaks a business rule (422)
+public class BusinessRuleException extends DomainException {
+
+    public BusinessRuleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// Clashes with the current state, e.g. the slot was just taken (409)
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
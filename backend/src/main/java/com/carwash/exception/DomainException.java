@@ -0,0 +1,11 @@
+package com.carwash.exception;
+
+// An expected business failure (slot taken, not found, rule broken), not a bug.
+// These are thrown on hot paths under contention and only their message reaches the client,
+// so no stack trace is captured; ApiExceptionHandler turns each subclass into its status code.
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// The requested booking, service, vehicle... doesn't exist (404)
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
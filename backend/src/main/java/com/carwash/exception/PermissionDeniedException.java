@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// The resource belongs to someone else (403)
+public class PermissionDeniedException extends DomainException {
+
+    public PermissionDeniedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.carwash.exception;
+
+// Temporarily unable to serve the request, e.g. still loading or at capacity; retry later (503)
+public class ServiceUnavailableException extends DomainException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,96 @@
+package com.carwash.invalidation;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Location;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.service.DemandPricing;
+import com.carwash.service.PricingEngine;
+import com.carwash.service.RatingAggregateService;
+import com.carwash.service.ReviewSearchIndex;
+import com.carwash.service.ScheduleCache;
+import com.carwash.service.WaitlistService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Applies other nodes' invalidations to this node's caches (Hibernate second-level cache regions,
+// the calendar's day buckets, the demand counters, the pricing matrix, the review search index,
+// the waitlist queues, the rating totals), and
+// announces this node's booking changes.
+@Component
+public class CacheInvalidator {
+
+    private final InvalidationBus invalidationBus;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ScheduleCache scheduleCache;
+    private final DemandPricing demandPricing;
+    private final PricingEngine pricingEngine;
+    private final ReviewSearchIndex reviewSearchIndex;
+    private final WaitlistService waitlistService;
+    private final RatingAggregateService ratingAggregateService;
+
+    public CacheInvalidator(InvalidationBus invalidationBus,
+                            EntityManagerFactory entityManagerFactory,
+                            ScheduleCache scheduleCache,
+                            DemandPricing demandPricing,
+                            PricingEngine pricingEngine,
+                            ReviewSearchIndex reviewSearchIndex,
+                            WaitlistService waitlistService,
+                            RatingAggregateService ratingAggregateService) {
+        this.invalidationBus = invalidationBus;
+        this.entityManagerFactory = entityManagerFactory;
+        this.scheduleCache = scheduleCache;
+        this.demandPricing = demandPricing;
+        this.pricingEngine = pricingEngine;
+        this.reviewSearchIndex = reviewSearchIndex;
+        this.waitlistService = waitlistService;
+        this.ratingAggregateService = ratingAggregateService;
+        invalidationBus.subscribe(this::evict);
+    }
+
+    void evict(Invalidation invalidation) {
+        switch (invalidation.region()) {
+            case SERVICE -> entityManagerFactory.getCache().evict(Service.class, invalidation.id());
+            case USER -> {
+                entityManagerFactory.getCache().evict(User.class, invalidation.id());
+                // The email -> id mapping may have changed too
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+            }
+            case LOCATION -> entityManagerFactory.getCache().evict(Location.class, invalidation.id());
+            case SCHEDULE -> {
+                scheduleCache.invalidate(invalidation.locationId(), invalidation.day());
+                // Same day, same site: its demand buckets may have moved too
+                demandPricing.recount(invalidation.locationId(), invalidation.day());
+            }
+            case PRICING -> pricingEngine.reload();
+            case REVIEW -> reviewSearchIndex.refresh(invalidation.id());
+            case WAITLIST -> waitlistService.refresh(invalidation.id());
+            case RATING -> ratingAggregateService.load();
+            case ALL -> {
+                entityManagerFactory.getCache().evictAll();
+                scheduleCache.invalidateAll();
+                demandPricing.rebuild();
+                pricingEngine.reload();
+                reviewSearchIndex.rebuildInBackground();
+                waitlistService.reload();
+                ratingAggregateService.load();
+            }
+        }
+    }
+
+    // Runs inside the booking's transaction, so the day (and searchable text) goes out with its commit
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        boolean newText = event.getType() == BookingEvent.Type.RATED
+                || event.getType() == BookingEvent.Type.CREATED && event.getNotes() != null;
+        if (newText) {
+            invalidationBus.publish(Invalidation.review(event.getBookingId()));
+        }
+        if (event.getType() != BookingEvent.Type.RATED) {  // Ratings aren't shown on the calendar
+            invalidationBus.publish(Invalidation.schedule(event.getLocationId(),
+                    event.getBookingDateTime().toLocalDate()));
+        }
+    }
+}
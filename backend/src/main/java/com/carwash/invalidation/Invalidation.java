@@ -0,0 +1,93 @@
+package com.carwash.invalidation;
+
+import java.time.LocalDate;
+
+// One cached entry (or a whole region) other nodes should drop. Encoded as a region letter plus key,
+// e.g. "S12" (service 12) or "D1:2026-03-01" (schedule day at location 1), to keep NOTIFY payloads small.
+public record Invalidation(Region region, String key) {
+
+    public enum Region {
+        SERVICE('S'),
+        USER('U'),
+        LOCATION('L'),
+        SCHEDULE('D'),
+        PRICING('P'),
+        REVIEW('R'),
+        WAITLIST('W'),
+        RATING('T'),
+        ALL('*');
+
+        private final char code;
+
+        Region(char code) {
+            this.code = code;
+        }
+
+        static Region of(char code) {
+            for (Region region : values()) {
+                if (region.code == code) {
+                    return region;
+                }
+            }
+            throw new IllegalArgumentException("Unknown invalidation region: " + code);
+        }
+    }
+
+    // Drop every local cache, e.g. after the listener missed messages
+    public static final Invalidation FLUSH_ALL = new Invalidation(Region.ALL, "");
+
+    public static Invalidation service(Long id) {
+        return new Invalidation(Region.SERVICE, String.valueOf(id));
+    }
+
+    public static Invalidation user(Long id) {
+        return new Invalidation(Region.USER, String.valueOf(id));
+    }
+
+    public static Invalidation location(Long id) {
+        return new Invalidation(Region.LOCATION, String.valueOf(id));
+    }
+
+    public static Invalidation schedule(Long locationId, LocalDate day) {
+        return new Invalidation(Region.SCHEDULE, locationId + ":" + day);
+    }
+
+    public static Invalidation pricing() {
+        return new Invalidation(Region.PRICING, "");
+    }
+
+    // A booking's notes or review changed (review search index)
+    public static Invalidation review(Long bookingId) {
+        return new Invalidation(Region.REVIEW, String.valueOf(bookingId));
+    }
+
+    // A waitlist entry joined, left or was promoted (per-node waitlist queues)
+    public static Invalidation waitlist(Long entryId) {
+        return new Invalidation(Region.WAITLIST, String.valueOf(entryId));
+    }
+
+    // Rating totals changed (per-node rating aggregates)
+    public static Invalidation rating() {
+        return new Invalidation(Region.RATING, "");
+    }
+
+    public long id() {
+        return Long.parseLong(key);
+    }
+
+    public long locationId() {
+        return Long.parseLong(key.substring(0, key.indexOf(':')));
+    }
+
+    public LocalDate day() {
+        return LocalDate.parse(key.substring(key.indexOf(':') + 1));
+    }
+
+    public String encode() {
+        return region.code + key;
+    }
+
+    public static Invalidation decode(String encoded) {
+        return new Invalidation(Region.of(encoded.charAt(0)), encoded.substring(1));
+    }
+}
@@ -0,0 +1,14 @@
+package com.carwash.invalidation;
+
+import java.util.function.Consumer;
+
+// Tells the other instances which cached entries a change made stale.
+// Each node keeps its own caches up to date for its own changes; the bus only carries them to the rest.
+public interface InvalidationBus {
+
+    // Call inside the mutating transaction: sent once it commits, dropped on rollback
+    void publish(Invalidation invalidation);
+
+    // Invalidations published by other nodes, plus FLUSH_ALL when messages may have been missed
+    void subscribe(Consumer<Invalidation> listener);
+}
@@ -0,0 +1,35 @@
+package com.carwash.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-memory stand-in for the Postgres bus. Buses joined to the same Hub act as nodes of one cluster,
+// so tests can run several "instances" in one JVM; a single-node deployment is a hub of one.
+public class LocalInvalidationBus extends AbstractInvalidationBus {
+
+    public static class Hub {
+        private final List<LocalInvalidationBus> nodes = new CopyOnWriteArrayList<>();
+    }
+
+    private final Hub hub;
+
+    public LocalInvalidationBus(Hub hub) {
+        this.hub = hub;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    void send(Collection<Invalidation> invalidations) {
+        for (LocalInvalidationBus node : hub.nodes) {
+            if (node != this) {
+                invalidations.forEach(node::deliver);
+            }
+        }
+    }
+
+    // Simulate a dropped listener connection on this node
+    public void simulateReconnect() {
+        deliver(Invalidation.FLUSH_ALL);
+    }
+}
@@ -0,0 +1,141 @@
+package com.carwash.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Invalidation bus over PostgreSQL LISTEN/NOTIFY - no extra infrastructure.
+// Sending: one pg_notify per committed transaction, "<node>|<invalidation>\n<invalidation>...",
+// on a pooled autocommit connection (not the finished transaction's).
+// Receiving: one dedicated connection per node polled by a daemon thread. NOTIFY is not replayed,
+// so after a dropped connection the node reconnects with backoff and flushes all its caches.
+@Slf4j
+public class PostgresInvalidationBus extends AbstractInvalidationBus {
+
+    static final String CHANNEL = "carwash_invalidation";
+    private static final int MAX_PAYLOAD_BYTES = 7_900;  // Postgres caps a payload just under 8000 bytes
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final int pollMillis;
+    private final long maxBackoffMillis;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationBus(DataSource sendDataSource, String jdbcUrl, String username, String password,
+                                   int pollMillis, long maxBackoffMillis) {
+        this.jdbcTemplate = new JdbcTemplate(sendDataSource);
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.pollMillis = pollMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    void send(Collection<Invalidation> invalidations) {
+        String payload = nodeId + "|" + invalidations.stream()
+                .map(Invalidation::encode)
+                .collect(Collectors.joining("\n"));
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = nodeId + "|" + Invalidation.FLUSH_ALL.encode();
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, payload);
+        } catch (RuntimeException e) {
+            // Other nodes catch up when their cache entries expire
+            log.warn("Could not publish cache invalidations {}", invalidations, e);
+        }
+    }
+
+    private void listen() {
+        boolean missedMessages = false;
+        long backoffMillis = 500;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (missedMessages) {
+                    log.info("Cache invalidation listener reconnected; flushing local caches");
+                    deliver(Invalidation.FLUSH_ALL);
+                    missedMessages = false;
+                }
+                backoffMillis = 500;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                missedMessages = true;
+                log.warn("Cache invalidation listener lost its connection; retrying in {} ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+            }
+        }
+    }
+
+    void receive(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;  // Malformed, or our own change - already applied locally
+        }
+        for (String encoded : payload.substring(separator + 1).split("\n")) {
+            if (encoded.isEmpty()) {
+                continue;
+            }
+            // E.g. a region added by a newer node mid-deploy: skip it, keep the listener thread alive
+            Invalidation invalidation;
+            try {
+                invalidation = Invalidation.decode(encoded);
+            } catch (RuntimeException e) {
+                log.warn("Skipping unreadable cache invalidation '{}'", encoded, e);
+                continue;
+            }
+            deliver(invalidation);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.carwash.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-only view of a closed booking moved to bookings_archive by BookingArchiver
+@Entity
+@Table(name = "bookings_archive")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBooking {
+
+    @Id
+    private Long id;              // Same id it had in bookings
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User customer;
+
+    @ManyToOne
+    @JoinColumn(name = "service_id", nullable = false)
+    private Service service;
+
+    @ManyToOne
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    private Vehicle vehicle;
+
+    @ManyToOne
+    @JoinColumn(name = "location_id", nullable = false)
+    private Location location;
+
+    @Column(nullable = false)
+    private LocalDateTime bookingDateTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Booking.BookingStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    private Integer rating;
+    private String review;
+
+    @ManyToOne
+    @JoinColumn(name = "assigned_staff_id")
+    private User assignedStaff;
+
+    @Column(name = "subscription_id")
+    private Long subscriptionId;
+
+    private Integer durationMinutes;
+
+    @Column(nullable = false)
+    private Integer addOnMask;
+
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Detached Booking copy so history can share the normal booking DTO conversion
+    public Booking toBooking() {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setCustomer(customer);
+        booking.setService(service);
+        booking.setVehicle(vehicle);
+        booking.setLocation(location);
+        booking.setBookingDateTime(bookingDateTime);
+        booking.setStatus(status);
+        booking.setNotes(notes);
+        booking.setRating(rating);
+        booking.setReview(review);
+        booking.setAssignedStaff(assignedStaff);
+        booking.setSubscriptionId(subscriptionId);
+        booking.setDurationMinutes(durationMinutes);
+        booking.setAddOnMask(addOnMask);
+        booking.setPrice(price);
+        return booking;
+    }
+}
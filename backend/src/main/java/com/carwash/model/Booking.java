@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -30,6 +31,10 @@ public class Booking {
     @JoinColumn(name = "vehicle_id", nullable = false)
     private Vehicle vehicle;      // Which vehicle
 
+    @ManyToOne
+    @JoinColumn(name = "location_id", nullable = false)
+    private Location location;    // Which site
+
     @Column(nullable = false)
     private LocalDateTime bookingDateTime;  // When appointment is
 
@@ -47,6 +52,16 @@ public class Booking {
     @JoinColumn(name = "assigned_staff_id")
     private User assignedStaff;   // Staff assigned by admin
 
+    @Column(name = "subscription_id")
+    private Long subscriptionId;  // Set when generated from a recurring subscription
+
+    private Integer durationMinutes;  // Resolved for the vehicle type and add-ons
+
+    @Column(nullable = false)
+    private Integer addOnMask = 0;    // Bits of the chosen add-ons (see PricingEngine)
+
+    private BigDecimal price;         // Charged price, fixed when booked (null on older bookings)
+
     // Booking status enum
     public enum BookingStatus {
         PENDING,
@@ -0,0 +1,44 @@
+package com.carwash.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+// One recorded booking transition. Written in batches by BookingAuditTrail, never updated.
+@Entity
+@Table(name = "booking_audit")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingAuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookingId;
+
+    @Column(nullable = false)
+    private String eventType;     // CREATED, STATUS_CHANGED, ASSIGNED, RATED
+
+    @Column(nullable = false)
+    private String actor;         // Email of who made the change, or "system"
+
+    @Enumerated(EnumType.STRING)
+    private Booking.BookingStatus oldStatus;
+
+    @Enumerated(EnumType.STRING)
+    private Booking.BookingStatus newStatus;
+
+    private Long oldStaffId;
+    private Long newStaffId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,37 @@
+package com.carwash.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+// A car-wash site. Bookings, subscriptions and waitlist entries belong to one; services and staff may.
+@Entity
+@Table(name = "locations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "carwash-location")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Location {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String code;          // Short site code, e.g. WESTLANDS
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String address;
+
+    private String schemaName;    // Schema holding this site's bookings partitions; null = the shared ones
+
+    private boolean active = true;
+}
@@ -5,10 +5,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
 @Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "carwash-service")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,5 +34,9 @@ public class Service {
     @Column(nullable = false)
     private Integer durationMinutes;  // How long service takes
 
+    @ManyToOne
+    @JoinColumn(name = "location_id")
+    private Location location;        // Null = offered at every site
+
     private boolean active = true;
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.carwash.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// A recurring wash: same service, vehicle and time every intervalWeeks weeks from startDate.
+// Occurrences are generated on demand; only a rolling window is written to bookings.
+@Entity
+@Table(name = "subscriptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Subscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User customer;
+
+    @ManyToOne
+    @JoinColumn(name = "service_id", nullable = false)
+    private Service service;
+
+    @ManyToOne
+    @JoinColumn(name = "vehicle_id", nullable = false)
+    private Vehicle vehicle;
+
+    @ManyToOne
+    @JoinColumn(name = "location_id", nullable = false)
+    private Location location;
+
+    @Column(nullable = false)
+    private LocalDate startDate;     // First occurrence; also fixes the day of week
+
+    @Column(nullable = false)
+    private LocalTime timeOfDay;
+
+    @Column(nullable = false)
+    private Integer intervalWeeks;   // 1 = weekly, 2 = every two weeks, ...
+
+    private LocalDate endDate;       // Null = open-ended
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(nullable = false)
+    private LocalDate materializedUntil;  // Bookings exist for occurrences up to this date
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Occurrence times with a date in (after, until], stopping at endDate
+    public List<LocalDateTime> occurrencesBetween(LocalDate after, LocalDate until) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        long periodDays = 7L * intervalWeeks;
+        long offset = ChronoUnit.DAYS.between(startDate, after.plusDays(1));
+        long k = offset <= 0 ? 0 : (offset + periodDays - 1) / periodDays;
+
+        LocalDate last = endDate != null && endDate.isBefore(until) ? endDate : until;
+        for (LocalDate date = startDate.plusDays(k * periodDays); !date.isAfter(last);
+             date = date.plusDays(periodDays)) {
+            occurrences.add(date.atTime(timeOfDay));
+        }
+        return occurrences;
+    }
+}
@@ -4,9 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "carwash-user")
+@NaturalIdCache(region = "carwash-user-email")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +23,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -32,6 +40,10 @@ public class User {
     @Column(nullable = false)
     private UserRole role;  // CUSTOMER, STAFF, ADMIN
 
+    @ManyToOne
+    @JoinColumn(name = "location_id")
+    private Location location;  // Staff home site; null for customers and roaming staff
+
     private boolean active = true;
 
     // Enum for user roles
@@ -5,16 +5,25 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "vehicles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "carwash-vehicle")
+@NaturalIdCache(region = "carwash-vehicle-plate")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Vehicle {
 
+    // Sequence with a pooled allocation so bulk imports can use JDBC batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicles_seq")
+    @SequenceGenerator(name = "vehicles_seq", sequenceName = "vehicles_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -23,6 +32,7 @@ public class Vehicle {
     @Column(nullable = false)
     private String model;         // Camry, Civic, etc.
 
+    @NaturalId(mutable = true)
     @Column(nullable = false)
     private String licensePlate;
 
@@ -0,0 +1,14 @@
+package com.carwash.notification;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Default sink until a real gateway is configured: writes each notification to the log
+@Slf4j
+public class LoggingNotificationSink implements NotificationSink {
+
+    @Override
+    public void send(Notification notification) {
+        log.info("Notify {} <{}> [{}]: {}", notification.fullName(), notification.email(),
+                notification.type(), notification.message());
+    }
+}
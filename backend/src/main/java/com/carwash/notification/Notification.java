@@ -0,0 +1,27 @@
+package com.carwash.notification;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// One customer notification as handed to a NotificationSink. id is stable across retries.
+public record Notification(Long id, Long bookingId, Type type, LocalDateTime bookingDateTime,
+                           String email, String phoneNumber, String fullName) {
+
+    private static final DateTimeFormatter WHEN = DateTimeFormatter.ofPattern("EEE d MMM HH:mm");
+
+    public enum Type {
+        BOOKING_CONFIRMED,
+        WASH_STARTED,
+        WASH_COMPLETED
+    }
+
+    // Short text suitable for SMS or push
+    public String message() {
+        return switch (type) {
+            case BOOKING_CONFIRMED -> "Hi " + fullName + ", your car wash on "
+                    + bookingDateTime.format(WHEN) + " is confirmed (booking #" + bookingId + ").";
+            case WASH_STARTED -> "Hi " + fullName + ", we've started on your car (booking #" + bookingId + ").";
+            case WASH_COMPLETED -> "Hi " + fullName + ", your car is ready for pick-up (booking #" + bookingId + ").";
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.carwash.notification;
+
+// Delivers notifications to customers (SMS, email, push gateway...).
+// Delivery is at-least-once: a notification can arrive again after a crash or timeout, with the same id.
+public interface NotificationSink {
+
+    // Throw to have the dispatcher retry later with backoff
+    void send(Notification notification) throws Exception;
+}
@@ -0,0 +1,28 @@
+package com.carwash.repository;
+
+import com.carwash.model.ArchivedBooking;
+import com.carwash.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Archived (closed, older than the horizon) bookings - only for explicit history queries
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Customer's booking history
+    List<ArchivedBooking> findByCustomer(User customer);
+
+    // Archived bookings between dates
+    List<ArchivedBooking> findByBookingDateTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT SUM(COALESCE(b.price, s.price)) FROM ArchivedBooking b JOIN b.service s WHERE b.status = 'COMPLETED'")
+    Double findTotalRevenue();
+
+    @Query("SELECT SUM(COALESCE(b.price, s.price)) FROM ArchivedBooking b JOIN b.service s WHERE b.status = 'COMPLETED' AND b.bookingDateTime BETWEEN :start AND :end")
+    Double findRevenueBetweenDates(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
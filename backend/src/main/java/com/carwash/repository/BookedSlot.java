@@ -0,0 +1,8 @@
+package com.carwash.repository;
+
+import java.time.LocalDateTime;
+
+// A slot-holding booking as slot checks see it: when it starts and how long it holds the bay
+// (its snapshotted duration, else the service's)
+public record BookedSlot(LocalDateTime start, int durationMinutes) {
+}
@@ -0,0 +1,13 @@
+package com.carwash.repository;
+
+import com.carwash.model.BookingAuditEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface BookingAuditEntryRepository extends JpaRepository<BookingAuditEntry, Long> {
+
+    // A booking's history, oldest first
+    List<BookingAuditEntry> findByBookingIdOrderByOccurredAtAscIdAsc(Long bookingId);
+}
@@ -2,13 +2,18 @@ package com.carwash.repository;
 
 import com.carwash.model.Booking;
 import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -19,6 +24,11 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // REMOVE OR FIX THIS LINE - Booking doesn't have userId field
     // List<Booking> findByUserId(Long userId);  // REMOVE THIS
 
+    // Load a booking and row-lock it until the transaction ends (SELECT ... FOR UPDATE)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
     // Find bookings by assigned staff
     List<Booking> findByAssignedStaff(User staff);
 
@@ -32,11 +42,40 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByBookingDateTimeAfterAndBookingDateTimeBefore(
             LocalDateTime startOfDay, LocalDateTime endOfDay);
 
+    // Find a site's bookings in a half-open range [start, end), ordered by time (calendar buckets)
+    List<Booking> findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+            Long locationId, LocalDateTime start, LocalDateTime endExclusive);
+
+    // Find a vehicle's bookings in a time range (gate check-in)
+    List<Booking> findByVehicleAndBookingDateTimeBetweenOrderByBookingDateTime(
+            Vehicle vehicle, LocalDateTime start, LocalDateTime end);
+
+    // Find a subscription's bookings from a time on, in the given statuses
+    List<Booking> findBySubscriptionIdAndBookingDateTimeAfterAndStatusIn(
+            Long subscriptionId, LocalDateTime after, Collection<Booking.BookingStatus> statuses);
+
+    // A site's slot-holding bookings starting in [start, end), with their resolved durations (slot checks)
+    @Query("SELECT new com.carwash.repository.BookedSlot(b.bookingDateTime, COALESCE(b.durationMinutes, s.durationMinutes))"
+            + " FROM Booking b JOIN b.service s WHERE b.location.id = :locationId AND b.status <> 'CANCELLED'"
+            + " AND b.bookingDateTime >= :start AND b.bookingDateTime < :end")
+    List<BookedSlot> findBookedSlots(@Param("locationId") Long locationId,
+                                     @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Longest resolved duration among a site's slot-holding bookings starting in [start, end) -
+    // how far back a slot check has to look
+    @Query("SELECT MAX(COALESCE(b.durationMinutes, s.durationMinutes)) FROM Booking b JOIN b.service s"
+            + " WHERE b.location.id = :locationId AND b.status <> 'CANCELLED'"
+            + " AND b.bookingDateTime >= :start AND b.bookingDateTime < :end")
+    Integer findLongestDurationMinutes(@Param("locationId") Long locationId,
+                                       @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     Long countByStatus(Booking.BookingStatus status);
 
-    @Query("SELECT SUM(s.price) FROM Booking b JOIN b.service s WHERE b.status = 'COMPLETED'")
+    Long countByCustomerAndStatus(User customer, Booking.BookingStatus status);
+
+    @Query("SELECT SUM(COALESCE(b.price, s.price)) FROM Booking b JOIN b.service s WHERE b.status = 'COMPLETED'")
     Double findTotalRevenue();
 
-    @Query("SELECT SUM(s.price) FROM Booking b JOIN b.service s WHERE b.status = 'COMPLETED' AND b.bookingDateTime BETWEEN :start AND :end")
+    @Query("SELECT SUM(COALESCE(b.price, s.price)) FROM Booking b JOIN b.service s WHERE b.status = 'COMPLETED' AND b.bookingDateTime BETWEEN :start AND :end")
     Double findRevenueBetweenDates(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.carwash.repository;
+
+import com.carwash.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface LocationRepository extends JpaRepository<Location, Long> {
+
+    // Active sites, by name
+    List<Location> findByActiveTrueOrderByName();
+
+    boolean existsByCode(String code);
+
+    boolean existsBySchemaName(String schemaName);
+}
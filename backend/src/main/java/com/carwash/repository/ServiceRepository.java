@@ -2,6 +2,8 @@ package com.carwash.repository;
 
 import com.carwash.model.Service;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,6 +13,10 @@ public interface ServiceRepository extends JpaRepository<Service, Long> {
     // Find active services only
     List<Service> findByActiveTrue();
 
+    // Find active services offered at a location, including the ones offered everywhere
+    @Query("SELECT s FROM Service s WHERE s.active = true AND (s.location IS NULL OR s.location.id = :locationId)")
+    List<Service> findActiveAtLocation(@Param("locationId") Long locationId);
+
     // Find by name containing (search)
     List<Service> findByNameContainingIgnoreCase(String name);
 }
\ No newline at end of file
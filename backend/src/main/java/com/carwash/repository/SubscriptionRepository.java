@@ -0,0 +1,31 @@
+package com.carwash.repository;
+
+import com.carwash.model.Subscription;
+import com.carwash.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+
+    // Find subscriptions by customer
+    List<Subscription> findByCustomerOrderByCreatedAtDesc(User customer);
+
+    // Next page of active subscriptions whose window is behind the horizon (keyset on id)
+    List<Subscription> findByActiveTrueAndMaterializedUntilBeforeAndIdGreaterThanOrderById(
+            LocalDate horizon, Long afterId, Pageable page);
+
+    // Move the window forward only if nobody else already did (claims the occurrences in between)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Subscription s SET s.materializedUntil = :newUntil"
+            + " WHERE s.id = :id AND s.materializedUntil = :oldUntil")
+    int advanceMaterializedUntil(@Param("id") Long id,
+                                 @Param("oldUntil") LocalDate oldUntil,
+                                 @Param("newUntil") LocalDate newUntil);
+}
@@ -0,0 +1,10 @@
+package com.carwash.repository;
+
+import com.carwash.model.User;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Find user by email through the natural-id cache (no SQL when cached)
+    Optional<User> loadByEmail(String email);
+}
@@ -3,16 +3,34 @@ package com.carwash.repository;
 import com.carwash.model.User;
 import com.carwash.model.Vehicle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, VehicleRepositoryCustom {
 
     // Find all vehicles for a specific user
     List<Vehicle> findByUser(User user);
 
     // Find vehicle by license plate
     Optional<Vehicle> findByLicensePlate(String licensePlate);
+
+    // Find vehicle by normalized plate (uses ux_vehicles_license_plate_normalized)
+    @Query(value = "SELECT * FROM vehicles WHERE UPPER(REGEXP_REPLACE(license_plate, '[^A-Za-z0-9]', '', 'g')) = :plate",
+            nativeQuery = true)
+    Optional<Vehicle> findByNormalizedPlate(@Param("plate") String normalizedPlate);
+
+    // Which of these normalized plates are already registered (bulk import)
+    @Query(value = "SELECT UPPER(REGEXP_REPLACE(license_plate, '[^A-Za-z0-9]', '', 'g')) FROM vehicles "
+            + "WHERE UPPER(REGEXP_REPLACE(license_plate, '[^A-Za-z0-9]', '', 'g')) IN (:plates)",
+            nativeQuery = true)
+    List<String> findExistingNormalizedPlates(@Param("plates") Collection<String> normalizedPlates);
+
+    // Id and plate of every vehicle, for the in-memory plate index
+    @Query("SELECT v.id, v.licensePlate FROM Vehicle v")
+    List<Object[]> findAllIdsAndPlates();
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.carwash.repository;
+
+import com.carwash.model.Vehicle;
+import java.util.Optional;
+
+public interface VehicleRepositoryCustom {
+
+    // Find vehicle by exact license plate through the natural-id cache
+    Optional<Vehicle> loadByLicensePlate(String licensePlate);
+}
@@ -0,0 +1,22 @@
+package com.carwash.repository;
+
+import com.carwash.model.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+public class VehicleRepositoryCustomImpl implements VehicleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Vehicle> loadByLicensePlate(String licensePlate) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Vehicle.class)
+                .loadOptional(licensePlate);
+    }
+}
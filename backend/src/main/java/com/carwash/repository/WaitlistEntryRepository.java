@@ -0,0 +1,39 @@
+package com.carwash.repository;
+
+import com.carwash.model.User;
+import com.carwash.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Find waitlist entries by customer
+    List<WaitlistEntry> findByCustomerOrderByCreatedAtDesc(User customer);
+
+    // Entries still waiting for a window that hasn't passed (startup load)
+    List<WaitlistEntry> findByStatusAndWindowEndAfter(WaitlistEntry.WaitlistStatus status, LocalDateTime now);
+
+    Long countByCustomerAndStatus(User customer, WaitlistEntry.WaitlistStatus status);
+
+    // Promote only if still waiting - the row lock and status check make one promotion win
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.status = 'PROMOTED', w.bookingId = :bookingId"
+            + " WHERE w.id = :id AND w.status = 'WAITING'")
+    int markPromoted(@Param("id") Long id, @Param("bookingId") Long bookingId);
+
+    // Withdraw only if still waiting
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED' WHERE w.id = :id AND w.status = 'WAITING'")
+    int markCancelled(@Param("id") Long id);
+
+    // Expire entries whose window has passed
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED' WHERE w.status = 'WAITING' AND w.windowEnd < :now")
+    int expireBefore(@Param("now") LocalDateTime now);
+}
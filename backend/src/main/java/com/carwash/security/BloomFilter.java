@@ -0,0 +1,62 @@
+package com.carwash.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size Bloom filter over strings, safe for concurrent adds and lookups.
+// A key is hashed once (64-bit FNV-1a + murmur finalizer) and k bit positions are derived by double hashing.
+// The seed lets different kinds of key (token ids, subjects) share one filter without building new strings.
+public class BloomFilter {
+
+    private static final int HASHES = 5;
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+
+    // About 10 bits per expected key (~1% false positives at capacity), rounded up to a power of two
+    public BloomFilter(int expectedKeys) {
+        long bits = Long.highestOneBit(Math.max(1 << 16, expectedKeys * 10L) - 1) << 1;
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+    }
+
+    public void put(long seed, CharSequence key) {
+        long h1 = hash(seed, key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            words.getAndAccumulate(word, mask, (current, m) -> current | m);
+        }
+    }
+
+    public boolean mightContain(long seed, CharSequence key) {
+        long h1 = hash(seed, key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(long seed, CharSequence key) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,126 @@
+package com.carwash.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets per endpoint class and client, implemented as GCRA: each bucket is a single AtomicLong
+// holding its "theoretical arrival time", updated with one CAS per request - no locks, no refill thread.
+// A bucket whose arrival time has passed is full again and carries no information, so idle buckets
+// are simply removed. When a class is at max-keys, new clients share one overflow bucket.
+@Slf4j
+@Component
+public class RateLimiter {
+
+    // Endpoint classes with their own limits
+    public enum EndpointClass {
+        AUTH,
+        MUTATION,
+        READ
+    }
+
+    // Rate and burst for one class, in nanoseconds
+    private record Limit(long intervalNanos, long burstNanos) {
+
+        static Limit of(int perMinute, int burst) {
+            long interval = 60_000_000_000L / Math.max(1, perMinute);
+            return new Limit(interval, interval * Math.max(1, burst));
+        }
+    }
+
+    private static final String OVERFLOW_KEY = "";
+
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, ConcurrentHashMap<String, AtomicLong>> buckets = new EnumMap<>(EndpointClass.class);
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimiter(@Value("${app.rate-limit.auth.per-minute:10}") int authPerMinute,
+                       @Value("${app.rate-limit.auth.burst:5}") int authBurst,
+                       @Value("${app.rate-limit.mutation.per-minute:30}") int mutationPerMinute,
+                       @Value("${app.rate-limit.mutation.burst:10}") int mutationBurst,
+                       @Value("${app.rate-limit.read.per-minute:300}") int readPerMinute,
+                       @Value("${app.rate-limit.read.burst:60}") int readBurst,
+                       @Value("${app.rate-limit.max-keys:100000}") int maxKeys) {
+        this(Map.of(
+                EndpointClass.AUTH, Limit.of(authPerMinute, authBurst),
+                EndpointClass.MUTATION, Limit.of(mutationPerMinute, mutationBurst),
+                EndpointClass.READ, Limit.of(readPerMinute, readBurst)), maxKeys, System::nanoTime);
+    }
+
+    private RateLimiter(Map<EndpointClass, Limit> limits, int maxKeys, LongSupplier clock) {
+        this.limits.putAll(limits);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            buckets.put(endpointClass, new ConcurrentHashMap<>());
+        }
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    // Same limit for every class, with a controllable clock (tests)
+    static RateLimiter forTesting(int perMinute, int burst, int maxKeys, LongSupplier clock) {
+        Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limits.put(endpointClass, Limit.of(perMinute, burst));
+        }
+        return new RateLimiter(limits, maxKeys, clock);
+    }
+
+    // 0 if the request may go ahead, otherwise nanoseconds until it would be allowed
+    public long tryAcquire(EndpointClass endpointClass, String clientKey) {
+        Limit limit = limits.get(endpointClass);
+        long now = clock.getAsLong();
+        AtomicLong arrival = bucket(endpointClass, clientKey, now);
+
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long wait = next - now - limit.burstNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucket(EndpointClass endpointClass, String clientKey, long now) {
+        ConcurrentHashMap<String, AtomicLong> classBuckets = buckets.get(endpointClass);
+        AtomicLong arrival = classBuckets.get(clientKey);
+        if (arrival != null) {
+            return arrival;
+        }
+        if (classBuckets.size() >= maxKeys) {
+            return classBuckets.computeIfAbsent(OVERFLOW_KEY, k -> new AtomicLong(now));
+        }
+        return classBuckets.computeIfAbsent(clientKey, k -> new AtomicLong(now));
+    }
+
+    // Drop buckets that have refilled completely - they are indistinguishable from new ones
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:30000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (ConcurrentHashMap<String, AtomicLong> classBuckets : buckets.values()) {
+            int before = classBuckets.size();
+            classBuckets.values().removeIf(arrival -> arrival.get() <= now);
+            evicted += before - classBuckets.size();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+
+    int bucketCount(EndpointClass endpointClass) {
+        return buckets.get(endpointClass).size();
+    }
+}
@@ -0,0 +1,151 @@
+package com.carwash.security;
+
+import com.carwash.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked tokens, checked by JwtFilter on every request without touching the DB.
+// A Bloom filter answers "definitely not revoked" for almost every request; only on a hit is the exact
+// set of revoked token ids (or per-user not-before cut-offs) consulted. Everything is rebuilt from the
+// revocation tables at startup and on a schedule, which also drops entries for tokens that have expired
+// and picks up revocations made by other instances.
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final long TOKEN_ID_SEED = 0x1L;
+    private static final long SUBJECT_SEED = 0x2L;
+
+    private static final String INSERT_TOKEN_SQL =
+            "INSERT INTO revoked_tokens (jti, subject, expires_at, revoked_at) VALUES (?, ?, ?, ?)"
+                    + " ON CONFLICT (jti) DO NOTHING";
+
+    private static final String UPSERT_NOT_BEFORE_SQL =
+            "INSERT INTO token_not_before (subject, not_before) VALUES (?, ?)"
+                    + " ON CONFLICT (subject) DO UPDATE SET not_before = GREATEST(token_not_before.not_before,"
+                    + " EXCLUDED.not_before)";
+
+    // One generation of the in-memory state, swapped whole on rebuild; revocations add to it in place
+    private record Snapshot(BloomFilter bloom, Set<String> revokedTokenIds, Map<String, Long> notBeforeBySubject) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long tokenLifetimeMillis;
+    private volatile Snapshot snapshot = new Snapshot(new BloomFilter(0), ConcurrentHashMap.newKeySet(),
+            new ConcurrentHashMap<>());
+
+    public TokenRevocationList(JdbcTemplate jdbcTemplate, JwtUtil jwtUtil) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenLifetimeMillis = jwtUtil.getExpirationMillis();
+    }
+
+    // Hot path: usually two Bloom probes and no map lookup
+    public boolean isRevoked(String tokenId, String subject, Long issuedAtMillis) {
+        Snapshot current = snapshot;
+        if (tokenId != null && current.bloom().mightContain(TOKEN_ID_SEED, tokenId)
+                && current.revokedTokenIds().contains(tokenId)) {
+            return true;
+        }
+        if (subject != null && current.bloom().mightContain(SUBJECT_SEED, subject)) {
+            Long notBefore = current.notBeforeBySubject().get(subject);
+            return notBefore != null && (issuedAtMillis == null || issuedAtMillis < notBefore);
+        }
+        return false;
+    }
+
+    // Revoke a single token (logout)
+    public void revokeToken(String tokenId, String subject, Date expiresAt) {
+        jdbcTemplate.update(INSERT_TOKEN_SQL, tokenId, subject, new Timestamp(expiresAt.getTime()),
+                Timestamp.valueOf(LocalDateTime.now()));
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            current.revokedTokenIds().add(tokenId);
+            current.bloom().put(TOKEN_ID_SEED, tokenId);
+        });
+    }
+
+    // Revoke every token issued to subject before now (password change, deactivation).
+    // Compared against the token's millisecond issue time, so logging in again right away works.
+    public void revokeAllForUser(String subject) {
+        long notBeforeMillis = System.currentTimeMillis();
+        jdbcTemplate.update(UPSERT_NOT_BEFORE_SQL, subject, new Timestamp(notBeforeMillis));
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            current.notBeforeBySubject().merge(subject, notBeforeMillis, Math::max);
+            current.bloom().put(SUBJECT_SEED, subject);
+        });
+    }
+
+    // The row is written in the caller's transaction; memory follows only once it commits, so a
+    // rolled-back password change or deactivation doesn't sign anyone out
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    // Synchronized with rebuild, so a change can't land in a snapshot that is being replaced
+    private synchronized void apply(Runnable change) {
+        change.run();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    // Reload from the tables into a fresh filter and clear out rows for expired tokens.
+    // A revocation committed while this runs is either read from the tables or applied to the new snapshot.
+    @Scheduled(fixedDelayString = "${app.token-revocation.refresh-ms:60000}",
+            initialDelayString = "${app.token-revocation.refresh-ms:60000}")
+    public synchronized void rebuild() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime oldestLiveToken = now.minusNanos(tokenLifetimeMillis * 1_000_000);
+
+            jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < ?", Timestamp.valueOf(now));
+            jdbcTemplate.update("DELETE FROM token_not_before WHERE not_before < ?", Timestamp.valueOf(oldestLiveToken));
+
+            List<String> tokenIds = jdbcTemplate.queryForList("SELECT jti FROM revoked_tokens", String.class);
+            Map<String, Long> notBefore = new ConcurrentHashMap<>();
+            jdbcTemplate.query("SELECT subject, not_before FROM token_not_before", rs -> {
+                notBefore.put(rs.getString("subject"), rs.getTimestamp("not_before").getTime());
+            });
+
+            BloomFilter bloom = new BloomFilter(tokenIds.size() + notBefore.size());
+            Set<String> revoked = ConcurrentHashMap.newKeySet();
+            for (String tokenId : tokenIds) {
+                revoked.add(tokenId);
+                bloom.put(TOKEN_ID_SEED, tokenId);
+            }
+            for (String subject : notBefore.keySet()) {
+                bloom.put(SUBJECT_SEED, subject);
+            }
+
+            snapshot = new Snapshot(bloom, revoked, notBefore);
+            log.debug("Token revocation list rebuilt: {} tokens, {} users", tokenIds.size(), notBefore.size());
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the token revocation list; keeping the current one", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.carwash.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Cluster-wide slot locks: transaction-scoped PostgreSQL advisory locks keyed (location, bucket).
+// They live on the booking transaction's own connection, so every instance on the database sees them,
+// they are released by commit or rollback, and Postgres reports any lock-order deadlock as an error.
+public class AdvisorySlotLockManager extends BucketSlotLocks {
+
+    // generate_series yields the buckets in ascending order, so each is locked in that order in one round trip
+    private static final String LOCK_SQL =
+            "SELECT COUNT(pg_advisory_xact_lock(?, bucket)) FROM generate_series(?, ?) AS bucket";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdvisorySlotLockManager(JdbcTemplate jdbcTemplate, int bucketMinutes) {
+        super(bucketMinutes);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    void lockBuckets(int locationId, int firstBucket, int lastBucket) {
+        jdbcTemplate.queryForObject(LOCK_SQL, Long.class, locationId, firstBucket, lastBucket);
+    }
+}
@@ -0,0 +1,73 @@
+package com.carwash.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded lock-free multi-producer, single-consumer ring buffer.
+// Producers claim a sequence with one CAS and publish into its slot; when the buffer is full
+// the item is dropped and counted instead of blocking the caller.
+// The single consumer drains in sequence order and stops at a claimed-but-unpublished slot.
+public class AuditRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();   // Next sequence to claim
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long head;                         // Next sequence to consume (consumer-owned)
+
+    public AuditRingBuffer(int requestedCapacity) {
+        int size = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;  // Next power of two
+        this.slots = new AtomicReferenceArray<>(size);
+        this.capacity = size;
+        this.mask = size - 1;
+    }
+
+    // Never blocks; false (and counted) when full
+    public boolean offer(T item) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), item);
+                return true;
+            }
+        }
+    }
+
+    // Move up to max published items into out, oldest first. One consumer thread at a time.
+    public int drainTo(List<T> out, int max) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (sequence & mask);
+            T item = slots.get(index);
+            if (item == null) {
+                break;  // Empty, or claimed and not yet published
+            }
+            slots.set(index, null);
+            out.add(item);
+            sequence++;
+            drained++;
+        }
+        head = sequence;  // Frees the drained slots for producers
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    // Items dropped since the last call
+    public long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
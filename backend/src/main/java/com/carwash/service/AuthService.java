@@ -4,12 +4,16 @@ package com.carwash.service;
 import com.carwash.dto.LoginRequestDTO;
 import com.carwash.dto.LoginResponseDTO;
 import com.carwash.dto.RegisterRequestDTO;
+import com.carwash.exception.AuthenticationFailedException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.User;
 import com.carwash.repository.UserRepository;
 import com.carwash.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +24,11 @@ public class AuthService {
     private final JwtUtil jwtUtil;
 
     // Register new user
+    @Transactional
     public User register(RegisterRequestDTO registerDTO) {
         // Check if email already exists
         if (userRepository.existsByEmail(registerDTO.getEmail())) {
-            throw new RuntimeException("Email already registered");
+            throw new ConflictException("Email already registered");
         }
 
         // Create new user
@@ -41,11 +46,16 @@ public class AuthService {
     public LoginResponseDTO login(LoginRequestDTO loginDTO) {
         // Find user by email
         User user = userRepository.findByEmail(loginDTO.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new AuthenticationFailedException("User not found"));
 
         // Check password
         if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid password");
+            throw new AuthenticationFailedException("Invalid password");
+        }
+
+        // Check account is active
+        if (!user.isActive()) {
+            throw new PermissionDeniedException("Account is deactivated");
         }
 
         // Generate JWT token
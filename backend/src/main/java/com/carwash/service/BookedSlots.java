@@ -0,0 +1,32 @@
+package com.carwash.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// A site's bookings for a slot check, by start time. Two bookings clash when each starts before the
+// other's end plus the buffer, so a long wash blocks the slots after its start, not just around it.
+final class BookedSlots {
+
+    private final NavigableMap<LocalDateTime, Integer> minutesByStart = new TreeMap<>();
+    private int longestMinutes;
+
+    void add(LocalDateTime start, int durationMinutes) {
+        minutesByStart.merge(start, durationMinutes, Math::max);
+        longestMinutes = Math.max(longestMinutes, durationMinutes);
+    }
+
+    boolean clashes(LocalDateTime start, int durationMinutes) {
+        int buffer = BookingService.SLOT_BUFFER_MINUTES;
+        LocalDateTime end = start.plusMinutes(durationMinutes + buffer);
+        // Nothing that started before (start - longest - buffer) can still be running
+        LocalDateTime earliest = start.minusMinutes(longestMinutes + buffer);
+        for (Map.Entry<LocalDateTime, Integer> booked : minutesByStart.subMap(earliest, false, end, false).entrySet()) {
+            if (booked.getKey().plusMinutes(booked.getValue() + buffer).isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
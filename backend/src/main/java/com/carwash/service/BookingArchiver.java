@@ -0,0 +1,75 @@
+package com.carwash.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+
+// Moves closed bookings older than the horizon from bookings to bookings_archive in small batches
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    // One statement per batch: delete from the hot table and insert what was deleted into the archive.
+    // SKIP LOCKED keeps it from waiting on rows a request is touching.
+    private static final String MOVE_BATCH_SQL =
+            "WITH moved AS ("
+                    + " DELETE FROM bookings WHERE id IN ("
+                    + "  SELECT id FROM bookings"
+                    + "  WHERE status IN ('COMPLETED', 'CANCELLED') AND booking_date_time < ?"
+                    + "  ORDER BY booking_date_time LIMIT ? FOR UPDATE SKIP LOCKED)"
+                    + " RETURNING id, user_id, service_id, vehicle_id, location_id, booking_date_time, status,"
+                    + "  notes, rating, review, assigned_staff_id, subscription_id, duration_minutes, add_on_mask, price)"
+                    + " INSERT INTO bookings_archive (id, user_id, service_id, vehicle_id, location_id, booking_date_time, status,"
+                    + "  notes, rating, review, assigned_staff_id, subscription_id, duration_minutes, add_on_mask, price)"
+                    + " SELECT id, user_id, service_id, vehicle_id, location_id, booking_date_time, status,"
+                    + "  notes, rating, review, assigned_staff_id, subscription_id, duration_minutes, add_on_mask, price FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduleCache scheduleCache;
+    private final int horizonDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public BookingArchiver(JdbcTemplate jdbcTemplate,
+                           ScheduleCache scheduleCache,
+                           @Value("${app.archive.horizon-days:180}") int horizonDays,
+                           @Value("${app.archive.batch-size:1000}") int batchSize,
+                           @Value("${app.archive.batch-pause-ms:200}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduleCache = scheduleCache;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    // Nightly, off-peak
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void archiveClosedBookings() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(horizonDays);
+        long total = 0;
+
+        try {
+            int moved;
+            do {
+                moved = jdbcTemplate.update(MOVE_BATCH_SQL, cutoff, batchSize);
+                total += moved;
+                if (moved == batchSize && pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            } while (moved == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Booking archiving stopped after {} rows", total, e);
+        }
+
+        if (total > 0) {
+            // Archived rows leave the calendar's source table
+            scheduleCache.invalidateBefore(cutoff.toLocalDate().plusDays(1));
+            log.info("Archived {} bookings closed before {}", total, cutoff);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Booking;
+import com.carwash.model.BookingAuditEntry;
+import com.carwash.repository.BookingAuditEntryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Audit trail of booking transitions. The mutation path only drops a record into a lock-free ring
+// buffer after commit; a background flush writes batches to the append-only booking_audit table.
+// Loss is bounded: if the flusher falls behind by more than the buffer's capacity, new records are
+// dropped and counted (logged on the next flush), and a crash loses at most what was still buffered.
+@Slf4j
+@Component
+public class BookingAuditTrail {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO booking_audit (booking_id, event_type, actor, old_status, new_status,"
+                    + " old_staff_id, new_staff_id, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // One captured transition
+    private record AuditRecord(Long bookingId, String eventType, String actor,
+                               Booking.BookingStatus oldStatus, Booking.BookingStatus newStatus,
+                               Long oldStaffId, Long newStaffId, LocalDateTime occurredAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingAuditEntryRepository bookingAuditEntryRepository;
+    private final AuditRingBuffer<AuditRecord> buffer;
+    private final int batchSize;
+
+    public BookingAuditTrail(JdbcTemplate jdbcTemplate,
+                             BookingAuditEntryRepository bookingAuditEntryRepository,
+                             @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity,
+                             @Value("${app.audit.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingAuditEntryRepository = bookingAuditEntryRepository;
+        this.buffer = new AuditRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+    }
+
+    // After commit, so only transitions that happened are recorded; no DB work here
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        Booking.BookingStatus oldStatus = event.getType() == BookingEvent.Type.STATUS_CHANGED
+                ? event.getOldStatus() : null;
+        Long oldStaffId = event.getType() == BookingEvent.Type.ASSIGNED ? event.getOldStaffId() : null;
+
+        buffer.offer(new AuditRecord(event.getBookingId(), event.getType().name(),
+                event.getActor() == null ? "system" : event.getActor(),
+                oldStatus, event.getStatus(), oldStaffId, event.getStaffId(), LocalDateTime.now()));
+    }
+
+    // Write everything buffered, a batch at a time. Synchronized so shutdown and the schedule
+    // never drain concurrently (the buffer has a single consumer).
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long dropped = buffer.takeDropped();
+        if (dropped > 0) {
+            log.warn("Audit buffer full: {} booking audit records dropped", dropped);
+        }
+
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+                    ps.setLong(1, record.bookingId());
+                    ps.setString(2, record.eventType());
+                    ps.setString(3, record.actor());
+                    ps.setString(4, record.oldStatus() == null ? null : record.oldStatus().name());
+                    ps.setString(5, record.newStatus() == null ? null : record.newStatus().name());
+                    ps.setObject(6, record.oldStaffId());
+                    ps.setObject(7, record.newStaffId());
+                    ps.setTimestamp(8, Timestamp.valueOf(record.occurredAt()));
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} booking audit records", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // A booking's recorded history, oldest first (new transitions show up after the next flush)
+    @Transactional(readOnly = true)
+    public List<BookingAuditEntry> getHistory(Long bookingId) {
+        return bookingAuditEntryRepository.findByBookingIdOrderByOccurredAtAscIdAsc(bookingId);
+    }
+}
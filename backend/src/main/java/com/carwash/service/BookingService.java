@@ -1,133 +1,376 @@
 package com.carwash.service;
 
 
+import com.carwash.config.ReadYourWritesTracker;
+import com.carwash.event.BookingEvent;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.ArchivedBooking;
 import com.carwash.model.Booking;
+import com.carwash.model.Location;
 import com.carwash.model.Service;
 import com.carwash.model.User;
 import com.carwash.model.Vehicle;
+import com.carwash.repository.ArchivedBookingRepository;
+import com.carwash.repository.BookedSlot;
 import com.carwash.repository.BookingRepository;
 import com.carwash.repository.ServiceRepository;
 import com.carwash.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class BookingService {
 
+    // Clearance kept around a booking when checking whether a slot is free
+    public static final int SLOT_BUFFER_MINUTES = 30;
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ServiceService serviceService;
+    private final LocationService locationService;
     private final VehicleRepository vehicleRepository;
     private final VehicleService vehicleService;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final RatingAggregateService ratingAggregateService;
+    private final PricingEngine pricingEngine;
+    private final DemandPricing demandPricing;
+    private final SlotLockManager slotLockManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // Create new booking
-    public Booking createBooking(User customer, Long serviceId, Long vehicleId,
-                                 LocalDateTime bookingDateTime, String notes) {
+    // Create new booking (locationId null = default location)
+    @Transactional
+    public Booking createBooking(User customer, Long locationId, Long serviceId, Long vehicleId,
+                                 LocalDateTime bookingDateTime, String notes, int addOnMask) {
 
-        // Get service
+        // Get location and service
+        Location location = locationService.resolve(locationId);
         Service service = serviceService.getServiceById(serviceId);
+        if (!serviceService.isOfferedAt(service, location.getId())) {
+            throw new BusinessRuleException("Service is not offered at " + location.getName());
+        }
 
         // Get vehicle
         Vehicle vehicle = vehicleRepository.findById(vehicleId)
-                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+                .orElseThrow(() -> new NotFoundException("Vehicle not found"));
 
         // Check if vehicle belongs to customer
         if (!vehicleService.vehicleBelongsToUser(vehicleId, customer)) {
-            throw new RuntimeException("Vehicle does not belong to you");
+            throw new PermissionDeniedException("Vehicle does not belong to you");
         }
 
         // Check if booking time is in future
         if (bookingDateTime.isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Booking time must be in the future");
+            throw new BusinessRuleException("Booking time must be in the future");
         }
 
-        // Check for overlapping bookings (simple check - can be improved)
-        List<Booking> existingBookings = bookingRepository
-                .findByBookingDateTimeBetween(
-                        bookingDateTime.minusMinutes(30),
-                        bookingDateTime.plusMinutes(service.getDurationMinutes() + 30)
-                );
-
-        if (!existingBookings.isEmpty()) {
-            throw new RuntimeException("Time slot not available");
-        }
+        // Price and duration for this vehicle type and add-ons, with the demand multiplier for the slot
+        PricingEngine.Quote quote = demandPricing.apply(
+                pricingEngine.quote(serviceId, vehicle.getType(), addOnMask), location.getId(), bookingDateTime);
 
         // Create booking
         Booking booking = new Booking();
         booking.setCustomer(customer);
         booking.setService(service);
         booking.setVehicle(vehicle);
+        booking.setLocation(location);
         booking.setBookingDateTime(bookingDateTime);
         booking.setNotes(notes);
         booking.setStatus(Booking.BookingStatus.PENDING);
+        booking.setDurationMinutes(quote.durationMinutes());
+        booking.setAddOnMask(addOnMask);
+        booking.setPrice(quote.price());
+
+        // Check for clashing bookings at this site under the slot locks (cancelled ones no longer hold their slot)
+        BookedSlots booked = lockAndLoadSlots(location.getId(), List.of(booking));
+        if (booked.clashes(bookingDateTime, quote.durationMinutes())) {
+            throw new ConflictException("Time slot not available");
+        }
+
+        readYourWritesTracker.recordWrite(customer.getEmail());
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(event(BookingEvent.Type.CREATED, saved).build());
+        return saved;
+    }
+
+    // Save bookings generated from subscriptions. Each site's occurrences take the same slot locks as
+    // createBooking, in time order, and are re-checked under them; an occurrence whose slot is taken
+    // (by an existing booking or an earlier occurrence) is left unsaved. Returns the saved ones.
+    @Transactional
+    public List<Booking> saveGeneratedBookings(List<Booking> bookings) {
+        Map<Long, List<Booking>> bySite = bookings.stream().collect(Collectors.groupingBy(
+                booking -> booking.getLocation().getId(), TreeMap::new, Collectors.toList()));
 
-        return bookingRepository.save(booking);
+        List<Booking> accepted = new ArrayList<>();
+        for (Map.Entry<Long, List<Booking>> site : bySite.entrySet()) {
+            List<Booking> siteBookings = site.getValue();
+            siteBookings.sort(Comparator.comparing(Booking::getBookingDateTime));
+            BookedSlots booked = lockAndLoadSlots(site.getKey(), siteBookings);
+
+            for (Booking booking : siteBookings) {
+                if (booked.clashes(booking.getBookingDateTime(), booking.getDurationMinutes())) {
+                    continue;
+                }
+                booked.add(booking.getBookingDateTime(), booking.getDurationMinutes());
+                accepted.add(booking);
+            }
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        for (Booking booking : saved) {
+            readYourWritesTracker.recordWrite(booking.getCustomer().getEmail());
+            eventPublisher.publishEvent(event(BookingEvent.Type.CREATED, booking).build());
+        }
+        return saved;
+    }
+
+    // Lock each new booking's slot (time order) until commit, so another request on any instance can't pass
+    // the same check, then load the site's bookings the check has to see. Both reach back by the longest
+    // booking at the site: a 2-hour wash at 09:00 still holds 10:00.
+    private BookedSlots lockAndLoadSlots(long locationId, List<Booking> ordered) {
+        LocalDateTime first = ordered.get(0).getBookingDateTime();
+        LocalDateTime last = ordered.get(ordered.size() - 1).getBookingDateTime();
+        LocalDateTime end = ordered.stream()
+                .map(booking -> booking.getBookingDateTime()
+                        .plusMinutes(resolvedMinutes(booking) + SLOT_BUFFER_MINUTES))
+                .max(Comparator.naturalOrder())
+                .orElseThrow();
+
+        int longest = longestDurationBefore(locationId, first, last);
+        for (Booking booking : ordered) {
+            LocalDateTime time = booking.getBookingDateTime();
+            slotLockManager.lockSlots(locationId, time.minusMinutes(longest + SLOT_BUFFER_MINUTES),
+                    time.plusMinutes(resolvedMinutes(booking) + SLOT_BUFFER_MINUTES));
+        }
+        // Again under the locks: a longer booking may have committed while we waited
+        longest = Math.max(longest, longestDurationBefore(locationId, first, last));
+
+        BookedSlots booked = new BookedSlots();
+        for (BookedSlot slot : bookingRepository.findBookedSlots(
+                locationId, first.minusMinutes(longest + SLOT_BUFFER_MINUTES), end)) {
+            booked.add(slot.start(), slot.durationMinutes());
+        }
+        return booked;
+    }
+
+    // Snapshotted duration, else the service's (bookings made before durations were stored)
+    private static int resolvedMinutes(Booking booking) {
+        return booking.getDurationMinutes() != null
+                ? booking.getDurationMinutes() : booking.getService().getDurationMinutes();
+    }
+
+    // Longest booking at a site that could still be running between first and last (no wash lasts a day)
+    private int longestDurationBefore(long locationId, LocalDateTime first, LocalDateTime last) {
+        Integer longest = bookingRepository.findLongestDurationMinutes(locationId, first.minusDays(1), last);
+        return longest == null ? 0 : longest;
+    }
+
+    // Get a location's bookings in [start, end), ordered by time (schedule buckets)
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingsInRange(Long locationId, LocalDateTime start, LocalDateTime endExclusive) {
+        return bookingRepository
+                .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                        locationId, start, endExclusive);
     }
 
     // Get bookings for customer
+    @Transactional(readOnly = true)
     public List<Booking> getCustomerBookings(User customer) {
         return bookingRepository.findByCustomer(customer);
     }
 
+    // Get a vehicle's bookings for one day (gate check-in)
+    @Transactional(readOnly = true)
+    public List<Booking> getVehicleBookingsForDay(Vehicle vehicle, LocalDate day) {
+        return bookingRepository.findByVehicleAndBookingDateTimeBetweenOrderByBookingDateTime(
+                vehicle, day.atStartOfDay(), day.plusDays(1).atStartOfDay().minusNanos(1));
+    }
+
+    // Get full booking history for customer, including archived bookings (newest first)
+    @Transactional(readOnly = true)
+    public List<Booking> getCustomerBookingHistory(User customer) {
+        List<Booking> history = new ArrayList<>(bookingRepository.findByCustomer(customer));
+        for (ArchivedBooking archived : archivedBookingRepository.findByCustomer(customer)) {
+            history.add(archived.toBooking());
+        }
+        history.sort(Comparator.comparing(Booking::getBookingDateTime).reversed());
+        return history;
+    }
+
+    // Get all bookings between dates, including archived ones (for staff/admin history)
+    @Transactional(readOnly = true)
+    public List<Booking> getBookingHistory(LocalDateTime start, LocalDateTime end) {
+        List<Booking> history = new ArrayList<>(bookingRepository.findByBookingDateTimeBetween(start, end));
+        for (ArchivedBooking archived : archivedBookingRepository.findByBookingDateTimeBetween(start, end)) {
+            history.add(archived.toBooking());
+        }
+        history.sort(Comparator.comparing(Booking::getBookingDateTime));
+        return history;
+    }
+
+    // Revenue from completed bookings between dates, hot and archived
+    @Transactional(readOnly = true)
+    public double getRevenueBetweenDates(LocalDateTime start, LocalDateTime end) {
+        Double hot = bookingRepository.findRevenueBetweenDates(start, end);
+        Double archived = archivedBookingRepository.findRevenueBetweenDates(start, end);
+        return (hot == null ? 0 : hot) + (archived == null ? 0 : archived);
+    }
+
     // Get booking by ID
+    @Transactional(readOnly = true)
     public Booking getBookingById(Long id) {
         return bookingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
+    }
+
+    // Get bookings by IDs from the hot table and the archive, keyed by ID
+    @Transactional(readOnly = true)
+    public Map<Long, Booking> getBookingsIncludingArchive(Collection<Long> ids) {
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllById(ids)) {
+            bookings.put(booking.getId(), booking);
+        }
+        if (bookings.size() < ids.size()) {
+            for (ArchivedBooking archived : archivedBookingRepository.findAllById(ids)) {
+                bookings.putIfAbsent(archived.getId(), archived.toBooking());
+            }
+        }
+        return bookings;
+    }
+
+    // Get booking by ID, falling back to the archive (read-only views)
+    @Transactional(readOnly = true)
+    public Booking getBookingIncludingArchive(Long id) {
+        return bookingRepository.findById(id)
+                .or(() -> archivedBookingRepository.findById(id).map(ArchivedBooking::toBooking))
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
     }
 
     // Update booking status (for staff)
+    @Transactional
     public Booking updateBookingStatus(Long bookingId, Booking.BookingStatus status) {
         Booking booking = getBookingById(bookingId);
+        Booking.BookingStatus oldStatus = booking.getStatus();
+
+        // A cancelled booking gave up its slot (possibly to a waitlisted customer): taking it back
+        // goes through the same locked check as a new booking. Checked before the status changes,
+        // so the query's auto-flush doesn't count the booking against itself.
+        if (oldStatus == Booking.BookingStatus.CANCELLED && status != Booking.BookingStatus.CANCELLED) {
+            BookedSlots booked = lockAndLoadSlots(booking.getLocation().getId(), List.of(booking));
+            if (booked.clashes(booking.getBookingDateTime(), resolvedMinutes(booking))) {
+                throw new ConflictException("Time slot is no longer available");
+            }
+        }
+
         booking.setStatus(status);
-        return bookingRepository.save(booking);
+        readYourWritesTracker.recordWrite(booking.getCustomer().getEmail());
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(event(BookingEvent.Type.STATUS_CHANGED, saved)
+                .oldStatus(oldStatus)
+                .build());
+        return saved;
     }
 
     // Assign booking to staff (for admin)
+    @Transactional
     public Booking assignBookingToStaff(Long bookingId, User staff) {
         Booking booking = getBookingById(bookingId);
 
         // Check if user is staff
         if (!staff.getRole().equals(User.UserRole.STAFF)) {
-            throw new RuntimeException("User is not a staff member");
+            throw new BusinessRuleException("User is not a staff member");
+        }
+
+        // Staff with a home site only work bookings there
+        if (staff.getLocation() != null && !staff.getLocation().getId().equals(booking.getLocation().getId())) {
+            throw new BusinessRuleException("Staff member works at another location");
         }
 
+        Long oldStaffId = booking.getAssignedStaff() == null ? null : booking.getAssignedStaff().getId();
         booking.setAssignedStaff(staff);
-        return bookingRepository.save(booking);
+        readYourWritesTracker.recordWrite(booking.getCustomer().getEmail());
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(event(BookingEvent.Type.ASSIGNED, saved)
+                .oldStaffId(oldStaffId)
+                .build());
+        return saved;
     }
 
     // Rate booking (for customer after completion)
+    @Transactional
     public Booking rateBooking(Long bookingId, Integer rating, String review, User customer) {
-        Booking booking = getBookingById(bookingId);
+        // Locked, so two concurrent rates of the same booking see each other's rating as the old one
+        // and the totals count it once
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking not found"));
 
         // Check if booking belongs to customer
         if (!booking.getCustomer().getId().equals(customer.getId())) {
-            throw new RuntimeException("You can only rate your own bookings");
+            throw new PermissionDeniedException("You can only rate your own bookings");
         }
 
         // Check if booking is completed
         if (!booking.getStatus().equals(Booking.BookingStatus.COMPLETED)) {
-            throw new RuntimeException("You can only rate completed bookings");
+            throw new BusinessRuleException("You can only rate completed bookings");
         }
 
         // Check rating range
         if (rating < 1 || rating > 5) {
-            throw new RuntimeException("Rating must be between 1 and 5");
+            throw new BusinessRuleException("Rating must be between 1 and 5");
         }
 
+        Integer oldRating = booking.getRating();
         booking.setRating(rating);
         booking.setReview(review);
+        readYourWritesTracker.recordWrite(customer.getEmail());
+
+        // Keep the per-service/per-staff totals in step, in the same transaction
+        Long staffId = booking.getAssignedStaff() == null ? null : booking.getAssignedStaff().getId();
+        ratingAggregateService.recordRating(booking.getService().getId(), staffId, oldRating, rating);
 
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(event(BookingEvent.Type.RATED, saved)
+                .oldRating(oldRating)
+                .build());
+        return saved;
     }
 
     // Get all bookings (for staff/admin)
+    @Transactional(readOnly = true)
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
     }
 
     // Get bookings by status
+    @Transactional(readOnly = true)
     public List<Booking> getBookingsByStatus(Booking.BookingStatus status) {
         return bookingRepository.findByStatus(status);
     }
+
+    // Event builder for a booking change, stamped with who made it
+    private static BookingEvent.BookingEventBuilder event(BookingEvent.Type type, Booking booking) {
+        return BookingEvent.from(type, booking).actor(currentActor());
+    }
+
+    // Email of the signed-in user, or "system" for scheduled jobs
+    private static String currentActor() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth.getName() == null ? "system" : auth.getName();
+    }
 }
\ No newline at end of file
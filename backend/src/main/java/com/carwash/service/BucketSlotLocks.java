@@ -0,0 +1,53 @@
+package com.carwash.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bucket arithmetic and wait-time accounting shared by the slot lock implementations
+abstract class BucketSlotLocks implements SlotLockManager {
+
+    private final long bucketMinutes;
+    private final LongAdder acquisitions = new LongAdder();
+    private final AtomicLong totalWaitMicros = new AtomicLong();
+    private final LongAccumulator maxWaitMicros = new LongAccumulator(Math::max, 0);
+
+    BucketSlotLocks(int bucketMinutes) {
+        if (bucketMinutes <= 0) {
+            throw new IllegalArgumentException("Slot lock bucket minutes must be positive");
+        }
+        this.bucketMinutes = bucketMinutes;
+    }
+
+    @Override
+    public void lockSlots(long locationId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Slot locks are held until commit, so they need a transaction");
+        }
+        long first = bucket(start);
+        long last = Math.max(first, bucket(end.minusNanos(1)));
+
+        long began = System.nanoTime();
+        lockBuckets(Math.toIntExact(locationId), Math.toIntExact(first), Math.toIntExact(last));
+        long waitedMicros = (System.nanoTime() - began) / 1_000;
+
+        acquisitions.increment();
+        totalWaitMicros.addAndGet(waitedMicros);
+        maxWaitMicros.accumulate(waitedMicros);
+    }
+
+    // Lock buckets first..last (inclusive, ascending) at a location until the transaction completes
+    abstract void lockBuckets(int locationId, int firstBucket, int lastBucket);
+
+    @Override
+    public LockStats stats() {
+        return new LockStats(acquisitions.sum(), totalWaitMicros.get(), maxWaitMicros.get());
+    }
+
+    private long bucket(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC) / 60, bucketMinutes);
+    }
+}
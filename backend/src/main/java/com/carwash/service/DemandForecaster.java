@@ -0,0 +1,255 @@
+package com.carwash.service;
+
+import com.carwash.model.Location;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Capacity forecasts per site for the coming week, by hour.
+// History lives in booking_hourly_rollups: the first run rolls up all of bookings + bookings_archive
+// in one streaming pass, and each night only the last few days are re-rolled (late cancellations,
+// status changes). Forecasts are fitted from the rollups with exponential smoothing and a weekly
+// (hour-of-week) season, then kept in memory so the admin view is a map lookup.
+@Slf4j
+@Component
+public class DemandForecaster {
+
+    static final int HOURS_PER_WEEK = 168;
+
+    // Non-cancelled bookings with their duration (snapshotted, else the service's), live and archived
+    private static final String HISTORY_SQL =
+            "SELECT b.location_id, b.booking_date_time, COALESCE(b.duration_minutes, s.duration_minutes) AS minutes"
+                    + " FROM bookings b JOIN service s ON s.id = b.service_id"
+                    + " WHERE b.status <> 'CANCELLED' AND b.booking_date_time >= ? AND b.booking_date_time < ?"
+                    + " UNION ALL"
+                    + " SELECT a.location_id, a.booking_date_time, COALESCE(a.duration_minutes, s.duration_minutes)"
+                    + " FROM bookings_archive a JOIN service s ON s.id = a.service_id"
+                    + " WHERE a.status <> 'CANCELLED' AND a.booking_date_time >= ? AND a.booking_date_time < ?";
+
+    // Advisory lock key for the rollup (single-key space, apart from the (location, bucket) slot locks)
+    private static final long ROLLUP_LOCK = 0x526F6C6C5570L;  // "RollUp"
+
+    public record HourForecast(LocalDateTime hourStart, double bookings, double serviceMinutes, int staff) {
+    }
+
+    public record LocationForecast(Long locationId, LocalDateTime generatedAt, List<HourForecast> hours) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LocationService locationService;
+    private final int historyWeeks;
+    private final int rerollDays;
+    private final double alpha;
+    private final double gamma;
+    private final double targetUtilization;
+
+    private volatile Map<Long, LocationForecast> forecasts = Map.of();
+
+    public DemandForecaster(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            LocationService locationService,
+                            @Value("${app.forecast.history-weeks:12}") int historyWeeks,
+                            @Value("${app.forecast.reroll-days:7}") int rerollDays,
+                            @Value("${app.forecast.alpha:0.2}") double alpha,
+                            @Value("${app.forecast.gamma:0.3}") double gamma,
+                            @Value("${app.forecast.target-utilization:0.8}") double targetUtilization) {
+        if (alpha <= 0 || alpha > 1 || gamma <= 0 || gamma > 1 || targetUtilization <= 0 || targetUtilization > 1) {
+            throw new IllegalArgumentException("Forecast smoothing factors and utilization must be in (0, 1]");
+        }
+        // Streams the history instead of loading it: Postgres only uses a cursor with a fetch size
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(1_000);
+        this.transactionTemplate = transactionTemplate;
+        this.locationService = locationService;
+        this.historyWeeks = historyWeeks;
+        this.rerollDays = rerollDays;
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.targetUtilization = targetUtilization;
+    }
+
+    // The latest forecast for a site; empty hours until the first run finishes
+    public LocationForecast getForecast(long locationId) {
+        LocationForecast forecast = forecasts.get(locationId);
+        return forecast != null ? forecast : new LocationForecast(locationId, null, List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    // Nightly, after the archiver
+    @Scheduled(cron = "${app.forecast.cron:0 0 4 * * *}")
+    public void refresh() {
+        try {
+            LocalDateTime today = LocalDate.now().atStartOfDay();
+            rollUp(today);
+            forecasts = fit(today);
+            log.info("Demand forecasts refreshed for {} locations", forecasts.size());
+        } catch (RuntimeException e) {
+            log.error("Demand forecast refresh failed; keeping the previous forecasts", e);
+        }
+    }
+
+    // Re-roll [last rolled-up hour - reroll days, today): everything on the first run.
+    // Every instance runs this on the same schedule, so they take turns under a transaction-scoped advisory
+    // lock; the next one in reads the last rolled-up hour after the previous commits and only re-rolls the tail.
+    void rollUp(LocalDateTime until) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, ROLLUP_LOCK);
+            LocalDateTime latest = jdbcTemplate.queryForObject(
+                    "SELECT MAX(hour_start) FROM booking_hourly_rollups", LocalDateTime.class);
+            LocalDateTime from = latest == null
+                    ? LocalDateTime.of(1970, 1, 1, 0, 0)
+                    : latest.truncatedTo(ChronoUnit.DAYS).minusDays(rerollDays);
+            if (!from.isBefore(until)) {
+                return;
+            }
+
+            // Key: location id in the high 32 bits, hours since "from" in the low 32; value: {bookings, minutes}
+            Map<Long, int[]> hours = new HashMap<>();
+            long fromEpochHour = epochHour(from);
+            long untilEpochHour = epochHour(until);
+
+            // A day earlier so long services that started before "from" still count in its first hours
+            Timestamp scanFrom = Timestamp.valueOf(from.minusDays(1));
+            Timestamp scanUntil = Timestamp.valueOf(until);
+            jdbcTemplate.query(HISTORY_SQL, rs -> {
+                long locationId = rs.getLong("location_id");
+                LocalDateTime start = rs.getTimestamp("booking_date_time").toLocalDateTime();
+                int minutes = rs.getInt("minutes");
+
+                long startHour = epochHour(start);
+                if (startHour >= fromEpochHour) {
+                    hours.computeIfAbsent(key(locationId, startHour - fromEpochHour), k -> new int[2])[0]++;
+                }
+                // Spread the service time over the hours it covers
+                int offset = start.getMinute();
+                for (long hour = startHour; minutes > 0 && hour < untilEpochHour; hour++) {
+                    int inHour = Math.min(minutes, 60 - offset);
+                    if (hour >= fromEpochHour) {
+                        hours.computeIfAbsent(key(locationId, hour - fromEpochHour), k -> new int[2])[1] += inHour;
+                    }
+                    minutes -= inHour;
+                    offset = 0;
+                }
+            }, scanFrom, scanUntil, scanFrom, scanUntil);
+
+            jdbcTemplate.update("DELETE FROM booking_hourly_rollups WHERE hour_start >= ? AND hour_start < ?",
+                    Timestamp.valueOf(from), scanUntil);
+            List<Object[]> rows = new ArrayList<>(hours.size());
+            hours.forEach((key, counts) -> rows.add(new Object[]{
+                    key >>> 32, Timestamp.valueOf(from.plusHours(key & 0xFFFF_FFFFL)), counts[0], counts[1]}));
+            jdbcTemplate.batchUpdate("INSERT INTO booking_hourly_rollups (location_id, hour_start, bookings,"
+                    + " service_minutes) VALUES (?, ?, ?, ?)", rows);
+            log.info("Rolled up booking history from {} to {}: {} busy hours", from, until, hours.size());
+        });
+    }
+
+    // Fit each active site's last history-weeks of rollups and forecast the week starting "from"
+    Map<Long, LocationForecast> fit(LocalDateTime from) {
+        // Series start on a Monday at midnight, so index % 168 is the hour of the week
+        LocalDateTime seriesStart = from.toLocalDate().minusWeeks(historyWeeks)
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        int length = (int) ChronoUnit.HOURS.between(seriesStart, from);
+
+        Map<Long, double[][]> series = new HashMap<>();
+        for (Location location : locationService.getActiveLocations()) {
+            series.put(location.getId(), new double[][]{new double[length], new double[length]});
+        }
+        jdbcTemplate.query("SELECT location_id, hour_start, bookings, service_minutes FROM booking_hourly_rollups"
+                        + " WHERE hour_start >= ? AND hour_start < ?",
+                rs -> {
+                    double[][] site = series.get(rs.getLong("location_id"));
+                    if (site != null) {
+                        int index = (int) ChronoUnit.HOURS.between(seriesStart,
+                                rs.getTimestamp("hour_start").toLocalDateTime());
+                        site[0][index] = rs.getInt("bookings");
+                        site[1][index] = rs.getInt("service_minutes");
+                    }
+                },
+                Timestamp.valueOf(seriesStart), Timestamp.valueOf(from));
+
+        LocalDateTime generatedAt = LocalDateTime.now();
+        Map<Long, LocationForecast> fitted = new HashMap<>();
+        series.forEach((locationId, site) -> {
+            double[] bookings = smooth(site[0], HOURS_PER_WEEK, alpha, gamma, HOURS_PER_WEEK);
+            double[] minutes = smooth(site[1], HOURS_PER_WEEK, alpha, gamma, HOURS_PER_WEEK);
+            List<HourForecast> hours = new ArrayList<>(HOURS_PER_WEEK);
+            for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                hours.add(new HourForecast(from.plusHours(h), round(bookings[h]), round(minutes[h]),
+                        staffFor(minutes[h], targetUtilization)));
+            }
+            fitted.put(locationId, new LocationForecast(locationId, generatedAt, List.copyOf(hours)));
+        });
+        return Map.copyOf(fitted);
+    }
+
+    // Exponential smoothing with an additive season (level + seasonal terms, no trend).
+    // Needs a full season to start; a shorter history forecasts its mean.
+    static double[] smooth(double[] series, int period, double alpha, double gamma, int horizon) {
+        double[] forecast = new double[horizon];
+        if (series.length < period) {
+            double mean = 0;
+            for (double value : series) {
+                mean += value / series.length;
+            }
+            Arrays.fill(forecast, mean);
+            return forecast;
+        }
+
+        double level = 0;
+        for (int t = 0; t < period; t++) {
+            level += series[t] / period;
+        }
+        double[] season = new double[period];
+        for (int t = 0; t < period; t++) {
+            season[t] = series[t] - level;
+        }
+        for (int t = period; t < series.length; t++) {
+            int s = t % period;
+            double newLevel = alpha * (series[t] - season[s]) + (1 - alpha) * level;
+            season[s] = gamma * (series[t] - newLevel) + (1 - gamma) * season[s];
+            level = newLevel;
+        }
+        for (int h = 0; h < horizon; h++) {
+            forecast[h] = Math.max(0, level + season[(series.length + h) % period]);
+        }
+        return forecast;
+    }
+
+    // Staff needed to cover an hour's expected service minutes at the target utilization
+    static int staffFor(double serviceMinutes, double targetUtilization) {
+        return (int) Math.ceil(serviceMinutes / (60 * targetUtilization) - 1e-9);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return ChronoUnit.HOURS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time.truncatedTo(ChronoUnit.HOURS));
+    }
+
+    private static long key(long locationId, long hour) {
+        return locationId << 32 | hour;
+    }
+}
@@ -0,0 +1,223 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Booking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Surge and off-peak pricing from how full a time bucket is at a site. Slot-holding bookings are counted
+// per (location, bucket) in memory: seeded by one grouped query, then moved by booking events after commit,
+// so a quote is a map lookup plus a curve interpolation - no query per request. Other instances' changes arrive
+// as schedule-day invalidations and re-count that day's buckets; a periodic rebuild corrects what's left
+// (events that land while a rebuild or re-count is running).
+@Slf4j
+@Component
+public class DemandPricing {
+
+    private static final int NO_CHANGE = 10_000;  // x1 in basis points
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long bucketMinutes;
+    private final int bucketCapacity;
+    private final int horizonDays;
+
+    // Piecewise-linear curve: occupancy points (ascending) and the multiplier at each, in basis points
+    private final double[] curveOccupancy;
+    private final int[] curveBasisPoints;
+
+    // Key: location id in the high 32 bits, bucket number in the low 32
+    private volatile ConcurrentHashMap<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    public DemandPricing(JdbcTemplate jdbcTemplate,
+                         @Value("${app.dynamic-pricing.enabled:true}") boolean enabled,
+                         @Value("${app.dynamic-pricing.bucket-minutes:60}") int bucketMinutes,
+                         @Value("${app.dynamic-pricing.bucket-capacity:2}") int bucketCapacity,
+                         @Value("${app.dynamic-pricing.horizon-days:90}") int horizonDays,
+                         @Value("${app.dynamic-pricing.curve:0:0.90,0.5:1.00,0.8:1.15,1:1.30}") String curve) {
+        if (bucketMinutes <= 0 || bucketCapacity <= 0) {
+            throw new IllegalArgumentException("Bucket minutes and capacity must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.bucketMinutes = bucketMinutes;
+        this.bucketCapacity = bucketCapacity;
+        this.horizonDays = horizonDays;
+
+        // "occupancy:multiplier,..." e.g. 0:0.90,1:1.30
+        String[] points = curve.split(",");
+        this.curveOccupancy = new double[points.length];
+        this.curveBasisPoints = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            String[] point = points[i].trim().split(":");
+            if (point.length != 2) {
+                throw new IllegalArgumentException("Bad dynamic pricing curve point: " + points[i]);
+            }
+            curveOccupancy[i] = Double.parseDouble(point[0]);
+            curveBasisPoints[i] = (int) Math.round(Double.parseDouble(point[1]) * NO_CHANGE);
+            if (curveBasisPoints[i] <= 0 || (i > 0 && curveOccupancy[i] <= curveOccupancy[i - 1])) {
+                throw new IllegalArgumentException("Dynamic pricing curve must have ascending occupancy"
+                        + " and positive multipliers: " + curve);
+            }
+        }
+    }
+
+    // Without the database, for tests that only exercise the counters and the curve
+    static DemandPricing forTesting(int bucketMinutes, int bucketCapacity, String curve) {
+        return new DemandPricing(null, true, bucketMinutes, bucketCapacity, 90, curve);
+    }
+
+    // The quote with the demand multiplier for its site and start time applied
+    public PricingEngine.Quote apply(PricingEngine.Quote quote, long locationId, LocalDateTime bookingDateTime) {
+        return quote.withMultiplier(multiplierBasisPoints(locationId, bookingDateTime));
+    }
+
+    // Multiplier for a start time at a site, in basis points
+    public int multiplierBasisPoints(long locationId, LocalDateTime bookingDateTime) {
+        if (!enabled) {
+            return NO_CHANGE;
+        }
+        return interpolate(bookedInBucket(locationId, bookingDateTime) / (double) bucketCapacity);
+    }
+
+    // Slot-holding bookings at a site in the bucket containing a start time
+    public int bookedInBucket(long locationId, LocalDateTime bookingDateTime) {
+        AtomicInteger count = counts.get(key(locationId, bucket(bookingDateTime)));
+        return count == null ? 0 : count.get();
+    }
+
+    int interpolate(double occupancy) {
+        int last = curveOccupancy.length - 1;
+        if (occupancy <= curveOccupancy[0]) {
+            return curveBasisPoints[0];
+        }
+        if (occupancy >= curveOccupancy[last]) {
+            return curveBasisPoints[last];
+        }
+        int i = 1;
+        while (curveOccupancy[i] < occupancy) {
+            i++;
+        }
+        double t = (occupancy - curveOccupancy[i - 1]) / (curveOccupancy[i] - curveOccupancy[i - 1]);
+        return (int) Math.round(curveBasisPoints[i - 1] + t * (curveBasisPoints[i] - curveBasisPoints[i - 1]));
+    }
+
+    // Keep the counters in step with committed bookings; cancelling frees the slot, un-cancelling takes it back
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        boolean holds = event.getStatus() != Booking.BookingStatus.CANCELLED;
+        if (event.getType() == BookingEvent.Type.CREATED) {
+            if (holds) {
+                adjust(event.getLocationId(), event.getBookingDateTime(), 1);
+            }
+        } else if (event.getType() == BookingEvent.Type.STATUS_CHANGED) {
+            boolean held = event.getOldStatus() != Booking.BookingStatus.CANCELLED;
+            if (held != holds) {
+                adjust(event.getLocationId(), event.getBookingDateTime(), holds ? 1 : -1);
+            }
+        }
+    }
+
+    void adjust(Long locationId, LocalDateTime bookingDateTime, int delta) {
+        if (locationId == null || bookingDateTime == null) {
+            return;
+        }
+        AtomicInteger count = counts.computeIfAbsent(key(locationId, bucket(bookingDateTime)),
+                k -> new AtomicInteger());
+        count.updateAndGet(c -> Math.max(0, c + delta));
+    }
+
+    // Re-count a site's buckets overlapping a day from the database; another instance changed a booking there
+    public void recount(long locationId, LocalDate day) {
+        if (!enabled) {
+            return;
+        }
+        long first = bucket(day.atStartOfDay());
+        long last = bucket(day.plusDays(1).atStartOfDay()) - 1;
+        // Whole buckets, in case one straddles midnight
+        LocalDateTime from = bucketStart(first);
+        LocalDateTime until = bucketStart(last + 1);
+        try {
+            Map<Long, Integer> booked = new HashMap<>();
+            jdbcTemplate.query("SELECT FLOOR(EXTRACT(EPOCH FROM booking_date_time) / 60 / ?) AS bucket,"
+                            + " COUNT(*) AS booked FROM bookings"
+                            + " WHERE location_id = ? AND status <> 'CANCELLED'"
+                            + " AND booking_date_time >= ? AND booking_date_time < ?"
+                            + " GROUP BY 1",
+                    rs -> {
+                        booked.put(rs.getLong("bucket"), rs.getInt("booked"));
+                    },
+                    bucketMinutes, locationId, Timestamp.valueOf(from), Timestamp.valueOf(until));
+            ConcurrentHashMap<Long, AtomicInteger> current = counts;
+            for (long bucket = first; bucket <= last; bucket++) {
+                Integer n = booked.get(bucket);
+                if (n == null) {
+                    current.remove(key(locationId, bucket));
+                } else {
+                    current.computeIfAbsent(key(locationId, bucket), k -> new AtomicInteger()).set(n);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Demand re-count for location {} on {} failed; the next rebuild catches up", locationId, day, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    // Recount upcoming buckets from the database and swap the counters in; past buckets drop out here
+    @Scheduled(fixedDelayString = "${app.dynamic-pricing.rebuild-ms:300000}",
+            initialDelayString = "${app.dynamic-pricing.rebuild-ms:300000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now().withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime until = from.plusDays(horizonDays);
+        try {
+            ConcurrentHashMap<Long, AtomicInteger> fresh = new ConcurrentHashMap<>();
+            jdbcTemplate.query("SELECT location_id, FLOOR(EXTRACT(EPOCH FROM booking_date_time) / 60 / ?) AS bucket,"
+                            + " COUNT(*) AS booked FROM bookings"
+                            + " WHERE status <> 'CANCELLED' AND booking_date_time >= ? AND booking_date_time < ?"
+                            + " GROUP BY 1, 2",
+                    rs -> {
+                        fresh.put(key(rs.getLong("location_id"), rs.getLong("bucket")),
+                                new AtomicInteger(rs.getInt("booked")));
+                    },
+                    bucketMinutes, Timestamp.valueOf(from), Timestamp.valueOf(until));
+            counts = fresh;
+            log.debug("Demand counters rebuilt: {} busy buckets up to {}", fresh.size(), until);
+        } catch (RuntimeException e) {
+            log.warn("Demand counter rebuild failed; keeping the current counters", e);
+        }
+    }
+
+    private long bucket(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC) / 60, bucketMinutes);
+    }
+
+    private LocalDateTime bucketStart(long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * bucketMinutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static long key(long locationId, long bucket) {
+        return locationId << 32 | (bucket & 0xFFFF_FFFFL);
+    }
+}
@@ -0,0 +1,90 @@
+package com.carwash.service;
+
+import com.carwash.model.Vehicle;
+import com.carwash.repository.VehicleRepository;
+import com.carwash.util.PlateNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory plate -> vehicle id index for the drive-up check-in
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LicensePlateIndex {
+
+    private final VehicleRepository vehicleRepository;
+
+    // Normalized plate -> vehicle id
+    private final Map<String, Long> exact = new ConcurrentHashMap<>();
+    // Folded plate (O->0, I->1, B->8) -> vehicle ids
+    private final Map<String, Set<Long>> folded = new ConcurrentHashMap<>();
+    // Vehicle id -> normalized plate, so updates and deletes can find the old keys
+    private final Map<Long, String> platesById = new ConcurrentHashMap<>();
+
+    // Load every plate once the app is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        exact.clear();
+        folded.clear();
+        platesById.clear();
+
+        List<Object[]> rows = vehicleRepository.findAllIdsAndPlates();
+        for (Object[] row : rows) {
+            put((Long) row[0], (String) row[1]);
+        }
+        log.info("License plate index loaded with {} vehicles", platesById.size());
+    }
+
+    // Add or re-key a vehicle
+    public void put(Vehicle vehicle) {
+        put(vehicle.getId(), vehicle.getLicensePlate());
+    }
+
+    public void put(Long vehicleId, String licensePlate) {
+        remove(vehicleId);
+
+        String normalized = PlateNormalizer.normalize(licensePlate);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        exact.put(normalized, vehicleId);
+        folded.computeIfAbsent(PlateNormalizer.fold(normalized), k -> ConcurrentHashMap.newKeySet())
+                .add(vehicleId);
+        platesById.put(vehicleId, normalized);
+    }
+
+    // Forget a vehicle
+    public void remove(Long vehicleId) {
+        String normalized = platesById.remove(vehicleId);
+        if (normalized == null) {
+            return;
+        }
+        exact.remove(normalized, vehicleId);
+        folded.computeIfPresent(PlateNormalizer.fold(normalized), (k, ids) -> {
+            ids.remove(vehicleId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Exact match on the normalized plate, or null
+    public Long findExact(String normalizedPlate) {
+        return exact.get(normalizedPlate);
+    }
+
+    // Vehicles whose plate only differs by confusable characters
+    public Set<Long> findTolerant(String normalizedPlate) {
+        Set<Long> ids = folded.get(PlateNormalizer.fold(normalizedPlate));
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    public int size() {
+        return platesById.size();
+    }
+}
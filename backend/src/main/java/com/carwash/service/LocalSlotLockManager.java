@@ -0,0 +1,71 @@
+package com.carwash.service;
+
+import com.carwash.exception.ConflictException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Single-node slot locks: a fixed array of JVM locks striped by (location, bucket), released when the
+// transaction completes. Only safe with one instance; also what tests run against H2 use.
+public class LocalSlotLockManager extends BucketSlotLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public LocalSlotLockManager(int bucketMinutes, int stripeCount, long timeoutMillis) {
+        super(bucketMinutes);
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    void lockBuckets(int locationId, int firstBucket, int lastBucket) {
+        // Distinct stripes in ascending index order, so two callers can't take them in opposite orders
+        int[] indexes = new int[lastBucket - firstBucket + 1];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = stripe(locationId, firstBucket + i);
+        }
+        indexes = Arrays.stream(indexes).sorted().distinct().toArray();
+
+        int held = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new ConflictException("Time slot is busy, please try again");
+                }
+                held++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the time slot", e);
+        } finally {
+            if (held < indexes.length) {
+                unlock(indexes, held);
+            }
+        }
+
+        int[] locked = indexes;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(locked, locked.length);
+            }
+        });
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripe(int locationId, int bucket) {
+        int hash = 31 * locationId + bucket;
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+}
@@ -0,0 +1,68 @@
+package com.carwash.service;
+
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Per-site database schemas. bookings and bookings_archive are partitioned by location_id (V14); sites
+// without a schema share the DEFAULT partitions in public, a site with one gets its own partitions there.
+// Everything else keeps querying the parent tables, and Postgres routes each row to its site's partition.
+@Slf4j
+@Component
+public class LocationSchemas {
+
+    // Schema names end up in SQL as identifiers, so only plain lowercase names are accepted
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private static final List<String> PARTITIONED_TABLES = List.of("bookings", "bookings_archive");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LocationSchemas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Blank means no schema of its own
+    public static String validName(String schemaName) {
+        if (schemaName == null || schemaName.isBlank()) {
+            return null;
+        }
+        if (!SCHEMA_NAME.matcher(schemaName).matches()) {
+            throw new BusinessRuleException("Schema name must be lowercase letters, digits and underscores");
+        }
+        if (schemaName.equals("public") || schemaName.startsWith("pg_") || schemaName.equals("information_schema")) {
+            throw new BusinessRuleException("Schema " + schemaName + " is reserved");
+        }
+        return schemaName;
+    }
+
+    // Create the site's partitions in schema and move its existing rows out of the shared ones.
+    // Runs in the caller's transaction, so a failure leaves the site where it was. The shared partitions
+    // are locked while rows move: bookings at sites without their own schema wait until it commits.
+    public void createPartitions(long locationId, String schema) {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        for (String table : PARTITIONED_TABLES) {
+            String partition = schema + "." + table;
+            String shared = table + "_shared";
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+            if (Boolean.TRUE.equals(exists)) {
+                throw new ConflictException("Schema " + schema + " already has a " + table + " table");
+            }
+
+            jdbcTemplate.execute("LOCK TABLE " + shared + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS)");
+            jdbcTemplate.execute("ALTER TABLE " + partition + " ADD PRIMARY KEY (id)");
+            int moved = jdbcTemplate.update(
+                    "INSERT INTO " + partition + " SELECT * FROM " + shared + " WHERE location_id = ?", locationId);
+            jdbcTemplate.update("DELETE FROM " + shared + " WHERE location_id = ?", locationId);
+            // Indexes and foreign keys come from the parent
+            jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition
+                    + " FOR VALUES IN (" + locationId + ")");
+            log.info("Location {}: {} now in schema {} ({} rows moved)", locationId, table, schema, moved);
+        }
+    }
+}
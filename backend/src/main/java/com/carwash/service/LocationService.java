@@ -0,0 +1,127 @@
+package com.carwash.service;
+
+import com.carwash.dto.LocationDTO;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
+import com.carwash.model.Location;
+import com.carwash.repository.LocationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class LocationService {
+
+    private final LocationRepository locationRepository;
+    private final LocationSchemas locationSchemas;
+    private final InvalidationBus invalidationBus;
+    private final long defaultLocationId;
+
+    public LocationService(LocationRepository locationRepository,
+                           LocationSchemas locationSchemas,
+                           InvalidationBus invalidationBus,
+                           @Value("${app.locations.default-id:1}") long defaultLocationId) {
+        this.locationRepository = locationRepository;
+        this.locationSchemas = locationSchemas;
+        this.invalidationBus = invalidationBus;
+        this.defaultLocationId = defaultLocationId;
+    }
+
+    // Site used when a request doesn't name one (single-site clients)
+    public long getDefaultLocationId() {
+        return defaultLocationId;
+    }
+
+    // Get all active locations
+    @Transactional(readOnly = true)
+    public List<Location> getActiveLocations() {
+        return locationRepository.findByActiveTrueOrderByName();
+    }
+
+    // Get location by ID
+    @Transactional(readOnly = true)
+    public Location getLocationById(Long id) {
+        return locationRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Location not found with ID: " + id));
+    }
+
+    // Location to book at: the given one, or the default; must be open
+    @Transactional(readOnly = true)
+    public Location resolve(Long id) {
+        Location location = getLocationById(id != null ? id : defaultLocationId);
+        if (!location.isActive()) {
+            throw new BusinessRuleException("Location " + location.getName() + " is closed");
+        }
+        return location;
+    }
+
+    // Create new location (ADMIN)
+    @Transactional
+    public Location createLocation(LocationDTO locationDTO) {
+        if (locationDTO.getCode() == null || locationDTO.getCode().isBlank()
+                || locationDTO.getName() == null || locationDTO.getName().isBlank()) {
+            throw new BusinessRuleException("Location code and name are required");
+        }
+        String code = locationDTO.getCode().trim().toUpperCase(Locale.ROOT);
+        if (locationRepository.existsByCode(code)) {
+            throw new ConflictException("Location code already in use: " + code);
+        }
+        String schemaName = unusedSchemaName(locationDTO.getSchemaName());
+
+        Location location = new Location();
+        location.setCode(code);
+        location.setName(locationDTO.getName());
+        location.setAddress(locationDTO.getAddress());
+        location.setSchemaName(schemaName);
+        location.setActive(locationDTO.getActive() == null || locationDTO.getActive());
+        Location saved = locationRepository.save(location);
+        if (schemaName != null) {
+            locationSchemas.createPartitions(saved.getId(), schemaName);
+        }
+        return saved;
+    }
+
+    // Update existing location (ADMIN)
+    @Transactional
+    public Location updateLocation(Long id, LocationDTO locationDTO) {
+        Location location = getLocationById(id);
+
+        if (locationDTO.getName() != null) {
+            location.setName(locationDTO.getName());
+        }
+        if (locationDTO.getAddress() != null) {
+            location.setAddress(locationDTO.getAddress());
+        }
+        // A site can move into its own schema once; moving it again or back isn't supported
+        String schemaName = LocationSchemas.validName(locationDTO.getSchemaName());
+        if (schemaName != null && !schemaName.equals(location.getSchemaName())) {
+            if (location.getSchemaName() != null) {
+                throw new BusinessRuleException("Location " + location.getName() + " already has schema "
+                        + location.getSchemaName());
+            }
+            locationSchemas.createPartitions(location.getId(), unusedSchemaName(schemaName));
+            location.setSchemaName(schemaName);
+        }
+        if (locationDTO.getActive() != null) {
+            if (!locationDTO.getActive() && location.getId() == defaultLocationId) {
+                throw new BusinessRuleException("The default location can't be closed");
+            }
+            location.setActive(locationDTO.getActive());
+        }
+        invalidationBus.publish(Invalidation.location(id));
+        return locationRepository.save(location);
+    }
+
+    private String unusedSchemaName(String schemaName) {
+        String name = LocationSchemas.validName(schemaName);
+        if (name != null && locationRepository.existsBySchemaName(name)) {
+            throw new ConflictException("Schema already used by another location: " + name);
+        }
+        return name;
+    }
+}
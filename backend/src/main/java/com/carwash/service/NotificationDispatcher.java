@@ -0,0 +1,163 @@
+package com.carwash.service;
+
+import com.carwash.notification.Notification;
+import com.carwash.notification.NotificationSink;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Drains notification_outbox in batches. Each batch locks its rows with SKIP LOCKED (so several
+// instances can run side by side), hands them to the sink, and records sent/retry/dead in the same
+// transaction. A crash between send and commit means a resend: delivery is at-least-once.
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, booking_id, customer_id, type, booking_date_time, attempts FROM notification_outbox"
+                    + " WHERE status = 'PENDING' AND next_attempt_at <= ?"
+                    + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE notification_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ? WHERE id = ?";
+
+    private static final String MARK_RETRY_SQL =
+            "UPDATE notification_outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private static final String MARK_DEAD_SQL =
+            "UPDATE notification_outbox SET status = 'DEAD', attempts = ?, last_error = ? WHERE id = ?";
+
+    // One locked outbox row
+    private record OutboxRow(long id, long bookingId, long customerId, String type,
+                             LocalDateTime bookingDateTime, int attempts) {
+    }
+
+    // Contact details resolved at send time
+    private record Contact(String email, String phoneNumber, String fullName) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationSink sink;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  NotificationSink sink,
+                                  @Value("${app.outbox.batch-size:100}") int batchSize,
+                                  @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                                  @Value("${app.outbox.base-backoff-ms:5000}") long baseBackoffMillis,
+                                  @Value("${app.outbox.max-backoff-ms:3600000}") long maxBackoffMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    // Keep draining while batches come back full
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            int handled;
+            do {
+                handled = dispatchBatch();
+            } while (handled == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Notification dispatch failed", e);
+        }
+    }
+
+    // Lock, deliver and record one batch; returns the number of rows handled
+    public int dispatchBatch() {
+        Integer handled = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH_SQL, (rs, i) -> new OutboxRow(
+                    rs.getLong("id"),
+                    rs.getLong("booking_id"),
+                    rs.getLong("customer_id"),
+                    rs.getString("type"),
+                    rs.getTimestamp("booking_date_time").toLocalDateTime(),
+                    rs.getInt("attempts")), now, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            Map<Long, Contact> contacts = loadContacts(rows);
+            List<Object[]> sent = new ArrayList<>();
+            List<Object[]> retry = new ArrayList<>();
+            List<Object[]> dead = new ArrayList<>();
+
+            for (OutboxRow row : rows) {
+                int attempts = row.attempts() + 1;
+                Contact contact = contacts.get(row.customerId());
+                if (contact == null) {
+                    dead.add(new Object[]{attempts, "Customer not found", row.id()});
+                    continue;
+                }
+                Notification notification = new Notification(row.id(), row.bookingId(),
+                        Notification.Type.valueOf(row.type()), row.bookingDateTime(),
+                        contact.email(), contact.phoneNumber(), contact.fullName());
+                try {
+                    sink.send(notification);
+                    sent.add(new Object[]{now, row.id()});
+                } catch (Exception e) {
+                    String error = truncate(String.valueOf(e.getMessage()));
+                    if (attempts >= maxAttempts) {
+                        log.warn("Giving up on notification {} after {} attempts: {}", row.id(), attempts, error);
+                        dead.add(new Object[]{attempts, error, row.id()});
+                    } else {
+                        retry.add(new Object[]{attempts, now.plusNanos(backoffMillis(attempts) * 1_000_000), error,
+                                row.id()});
+                    }
+                }
+            }
+
+            jdbcTemplate.batchUpdate(MARK_SENT_SQL, sent);
+            jdbcTemplate.batchUpdate(MARK_RETRY_SQL, retry);
+            jdbcTemplate.batchUpdate(MARK_DEAD_SQL, dead);
+            return rows.size();
+        });
+        return handled == null ? 0 : handled;
+    }
+
+    // Exponential backoff with up to 20% jitter, capped
+    long backoffMillis(int attempts) {
+        long delay = baseBackoffMillis << Math.min(attempts - 1, 30);
+        delay = Math.min(delay, maxBackoffMillis);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private Map<Long, Contact> loadContacts(List<OutboxRow> rows) {
+        List<Long> ids = rows.stream().map(OutboxRow::customerId).distinct().toList();
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, Contact> contacts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email, phone_number, full_name FROM users WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    contacts.put(rs.getLong("id"), new Contact(
+                            rs.getString("email"), rs.getString("phone_number"), rs.getString("full_name")));
+                },
+                ids.toArray());
+        return contacts;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
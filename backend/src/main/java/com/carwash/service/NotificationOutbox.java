@@ -0,0 +1,50 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Booking;
+import com.carwash.notification.Notification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDateTime;
+
+// Writes customer notifications to notification_outbox inside the booking's own transaction:
+// one insert on the request path, nothing external. NotificationDispatcher sends them later.
+@Component
+public class NotificationOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_outbox (booking_id, customer_id, type, booking_date_time, status,"
+                    + " attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // BEFORE_COMMIT: still in the booking's transaction, so the row commits or rolls back with it
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() != BookingEvent.Type.STATUS_CHANGED || event.getStatus() == event.getOldStatus()) {
+            return;
+        }
+        Notification.Type type = typeFor(event.getStatus());
+        if (type == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(INSERT_SQL, event.getBookingId(), event.getCustomerId(), type.name(),
+                event.getBookingDateTime(), now, now);
+    }
+
+    private static Notification.Type typeFor(Booking.BookingStatus status) {
+        return switch (status) {
+            case CONFIRMED -> Notification.Type.BOOKING_CONFIRMED;
+            case IN_PROGRESS -> Notification.Type.WASH_STARTED;
+            case COMPLETED -> Notification.Type.WASH_COMPLETED;
+            default -> null;
+        };
+    }
+}
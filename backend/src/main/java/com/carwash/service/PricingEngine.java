@@ -0,0 +1,309 @@
+package com.carwash.service;
+
+import com.carwash.dto.AddOnDTO;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
+import com.carwash.model.Vehicle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Prices and durations per service x vehicle type x add-ons. The rules in the DB are compiled into a flat,
+// immutable matrix of primitive arrays; a quote is a binary search plus array reads, and an admin edit
+// compiles a new matrix and swaps it in with one volatile write after commit.
+@Slf4j
+@Component
+public class PricingEngine {
+
+    public static final int MAX_ADD_ONS = 31;  // Bits of bookings.add_on_mask
+
+    private static final Vehicle.VehicleType[] TYPES = Vehicle.VehicleType.values();
+    private static final BigDecimal NO_MULTIPLIER = BigDecimal.ONE;
+
+    // A priced combination. multiplier is the demand factor already applied to price (1 from the matrix alone).
+    public record Quote(Long serviceId, Vehicle.VehicleType vehicleType, int addOnMask,
+                        long priceCents, BigDecimal price, int durationMinutes, BigDecimal multiplier) {
+
+        // Same combination with a demand multiplier in basis points (10000 = x1), rounded half-up to the cent
+        public Quote withMultiplier(int basisPoints) {
+            if (basisPoints == 10_000) {
+                return this;
+            }
+            long cents = (priceCents * basisPoints + 5_000) / 10_000;
+            return new Quote(serviceId, vehicleType, addOnMask, cents, BigDecimal.valueOf(cents, 2),
+                    durationMinutes, BigDecimal.valueOf(basisPoints, 4));
+        }
+    }
+
+    // Compiled rules. Cell for (service s, type t) is s * TYPES.length + t; add-on cell is t * MAX_ADD_ONS + bit.
+    private record Matrix(long[] serviceIds, long[] priceCents, int[] minutes,
+                          long[] addOnPriceCents, int[] addOnMinutes, int activeAddOnMask,
+                          Map<String, Integer> bitByCode, String[] codeByBit) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+    private volatile Matrix matrix = new Matrix(new long[0], new long[0], new int[0],
+            new long[TYPES.length * MAX_ADD_ONS], new int[TYPES.length * MAX_ADD_ONS], 0, Map.of(),
+            new String[MAX_ADD_ONS]);
+
+    public PricingEngine(JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+    }
+
+    // Price and duration for a combination; nothing allocated but the returned quote
+    public Quote quote(long serviceId, Vehicle.VehicleType vehicleType, int addOnMask) {
+        Matrix m = matrix;
+        int s = Arrays.binarySearch(m.serviceIds(), serviceId);
+        if (s < 0) {
+            throw new NotFoundException("Service not found with ID: " + serviceId);
+        }
+        if ((addOnMask & ~m.activeAddOnMask()) != 0) {
+            throw new BusinessRuleException("Unknown or inactive add-on");
+        }
+
+        int t = vehicleType.ordinal();
+        int cell = s * TYPES.length + t;
+        long price = m.priceCents()[cell];
+        int minutes = m.minutes()[cell];
+
+        int bits = addOnMask;
+        int addOnBase = t * MAX_ADD_ONS;
+        while (bits != 0) {
+            int bit = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            price += m.addOnPriceCents()[addOnBase + bit];
+            minutes += m.addOnMinutes()[addOnBase + bit];
+        }
+        return new Quote(serviceId, vehicleType, addOnMask, price, BigDecimal.valueOf(price, 2), minutes, NO_MULTIPLIER);
+    }
+
+    // Add-on codes to a mask (case-insensitive)
+    public int addOnMask(Collection<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return 0;
+        }
+        Map<String, Integer> bitByCode = matrix.bitByCode();
+        int mask = 0;
+        for (String code : codes) {
+            Integer bit = bitByCode.get(code.trim().toUpperCase(Locale.ROOT));
+            if (bit == null) {
+                throw new BusinessRuleException("Unknown add-on: " + code);
+            }
+            mask |= 1 << bit;
+        }
+        return mask;
+    }
+
+    // Mask back to add-on codes (booking views)
+    public List<String> addOnCodes(int mask) {
+        String[] codeByBit = matrix.codeByBit();
+        List<String> codes = new ArrayList<>(Integer.bitCount(mask));
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            String code = codeByBit[Integer.numberOfTrailingZeros(bits)];
+            if (code != null) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    // Compile the current rules and swap them in
+    public void reload() {
+        List<long[]> services = jdbcTemplate.query(
+                "SELECT id, price, duration_minutes FROM service ORDER BY id",
+                (rs, i) -> new long[]{rs.getLong("id"), cents(rs.getBigDecimal("price")), rs.getInt("duration_minutes")});
+
+        long[] serviceIds = new long[services.size()];
+        long[] priceCents = new long[services.size() * TYPES.length];
+        int[] minutes = new int[services.size() * TYPES.length];
+        for (int s = 0; s < services.size(); s++) {
+            long[] row = services.get(s);
+            serviceIds[s] = row[0];
+            for (int t = 0; t < TYPES.length; t++) {
+                priceCents[s * TYPES.length + t] = row[1];
+                minutes[s * TYPES.length + t] = (int) row[2];
+            }
+        }
+
+        jdbcTemplate.query("SELECT service_id, vehicle_type, price, duration_minutes FROM service_vehicle_pricing", rs -> {
+            int s = Arrays.binarySearch(serviceIds, rs.getLong("service_id"));
+            if (s >= 0) {
+                int cell = s * TYPES.length + Vehicle.VehicleType.valueOf(rs.getString("vehicle_type")).ordinal();
+                priceCents[cell] = cents(rs.getBigDecimal("price"));
+                minutes[cell] = rs.getInt("duration_minutes");
+            }
+        });
+
+        long[] addOnPriceCents = new long[TYPES.length * MAX_ADD_ONS];
+        int[] addOnMinutes = new int[TYPES.length * MAX_ADD_ONS];
+        Map<String, Integer> bitByCode = new HashMap<>();
+        String[] codeByBit = new String[MAX_ADD_ONS];
+        Map<Long, Integer> bitById = new HashMap<>();
+        int[] activeMask = {0};
+
+        jdbcTemplate.query("SELECT id, code, price, extra_minutes, flag_bit, active FROM add_ons", rs -> {
+            int bit = rs.getInt("flag_bit");
+            String code = rs.getString("code");
+            codeByBit[bit] = code;
+            bitById.put(rs.getLong("id"), bit);
+            if (rs.getBoolean("active")) {
+                bitByCode.put(code, bit);
+                activeMask[0] |= 1 << bit;
+            }
+            long price = cents(rs.getBigDecimal("price"));
+            int extra = rs.getInt("extra_minutes");
+            for (int t = 0; t < TYPES.length; t++) {
+                addOnPriceCents[t * MAX_ADD_ONS + bit] = price;
+                addOnMinutes[t * MAX_ADD_ONS + bit] = extra;
+            }
+        });
+
+        jdbcTemplate.query("SELECT add_on_id, vehicle_type, price, extra_minutes FROM add_on_vehicle_pricing", rs -> {
+            Integer bit = bitById.get(rs.getLong("add_on_id"));
+            if (bit != null) {
+                int cell = Vehicle.VehicleType.valueOf(rs.getString("vehicle_type")).ordinal() * MAX_ADD_ONS + bit;
+                addOnPriceCents[cell] = cents(rs.getBigDecimal("price"));
+                addOnMinutes[cell] = rs.getInt("extra_minutes");
+            }
+        });
+
+        matrix = new Matrix(serviceIds, priceCents, minutes, addOnPriceCents, addOnMinutes, activeMask[0],
+                Map.copyOf(bitByCode), codeByBit);
+        log.info("Pricing matrix compiled: {} services x {} vehicle types, {} active add-ons",
+                serviceIds.length, TYPES.length, Integer.bitCount(activeMask[0]));
+    }
+
+    // Recompile once the current transaction commits (right away if there is none), here and on the other nodes
+    public void reloadAfterCommit() {
+        invalidationBus.publish(Invalidation.pricing());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    // Set the price and duration of a service for one vehicle type (ADMIN)
+    @Transactional
+    public void setServiceVehiclePrice(Long serviceId, Vehicle.VehicleType vehicleType,
+                                       BigDecimal price, Integer durationMinutes) {
+        validate(price, durationMinutes);
+        jdbcTemplate.update("INSERT INTO service_vehicle_pricing (service_id, vehicle_type, price, duration_minutes)"
+                        + " VALUES (?, ?, ?, ?) ON CONFLICT (service_id, vehicle_type)"
+                        + " DO UPDATE SET price = EXCLUDED.price, duration_minutes = EXCLUDED.duration_minutes",
+                serviceId, vehicleType.name(), price, durationMinutes);
+        reloadAfterCommit();
+    }
+
+    // Go back to the service's flat price for one vehicle type (ADMIN)
+    @Transactional
+    public void clearServiceVehiclePrice(Long serviceId, Vehicle.VehicleType vehicleType) {
+        jdbcTemplate.update("DELETE FROM service_vehicle_pricing WHERE service_id = ? AND vehicle_type = ?",
+                serviceId, vehicleType.name());
+        reloadAfterCommit();
+    }
+
+    // Create an add-on on the next free bit (ADMIN)
+    @Transactional
+    public void createAddOn(AddOnDTO addOn) {
+        if (addOn.getCode() == null || addOn.getCode().isBlank() || addOn.getName() == null) {
+            throw new BusinessRuleException("Add-on code and name are required");
+        }
+        int extraMinutes = addOn.getExtraMinutes() == null ? 0 : addOn.getExtraMinutes();
+        validate(addOn.getPrice(), extraMinutes);
+
+        Integer bit = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(flag_bit) + 1, 0) FROM add_ons", Integer.class);
+        if (bit == null || bit >= MAX_ADD_ONS) {
+            throw new BusinessRuleException("No more than " + MAX_ADD_ONS + " add-ons are supported");
+        }
+        jdbcTemplate.update("INSERT INTO add_ons (code, name, price, extra_minutes, flag_bit, active)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)",
+                addOn.getCode().trim().toUpperCase(Locale.ROOT), addOn.getName(), addOn.getPrice(), extraMinutes, bit,
+                addOn.getActive() == null || addOn.getActive());
+        reloadAfterCommit();
+    }
+
+    // Update an add-on's defaults or switch it on/off (ADMIN)
+    @Transactional
+    public void updateAddOn(String code, AddOnDTO addOn) {
+        int updated = jdbcTemplate.update("UPDATE add_ons SET name = COALESCE(?, name), price = COALESCE(?, price),"
+                        + " extra_minutes = COALESCE(?, extra_minutes), active = COALESCE(?, active) WHERE code = ?",
+                addOn.getName(), addOn.getPrice(), addOn.getExtraMinutes(), addOn.getActive(),
+                code.toUpperCase(Locale.ROOT));
+        if (updated == 0) {
+            throw new NotFoundException("Add-on not found: " + code);
+        }
+        reloadAfterCommit();
+    }
+
+    // Set an add-on's price and extra time for one vehicle type (ADMIN)
+    @Transactional
+    public void setAddOnVehiclePrice(String code, Vehicle.VehicleType vehicleType,
+                                     BigDecimal price, Integer extraMinutes) {
+        validate(price, extraMinutes);
+        int updated = jdbcTemplate.update("INSERT INTO add_on_vehicle_pricing (add_on_id, vehicle_type, price, extra_minutes)"
+                        + " SELECT id, ?, ?, ? FROM add_ons WHERE code = ? ON CONFLICT (add_on_id, vehicle_type)"
+                        + " DO UPDATE SET price = EXCLUDED.price, extra_minutes = EXCLUDED.extra_minutes",
+                vehicleType.name(), price, extraMinutes, code.toUpperCase(Locale.ROOT));
+        if (updated == 0) {
+            throw new NotFoundException("Add-on not found: " + code);
+        }
+        reloadAfterCommit();
+    }
+
+    // All add-ons, active or not
+    @Transactional(readOnly = true)
+    public List<AddOnDTO> getAddOns() {
+        return jdbcTemplate.query("SELECT code, name, price, extra_minutes, active FROM add_ons ORDER BY flag_bit",
+                (rs, i) -> {
+                    AddOnDTO dto = new AddOnDTO();
+                    dto.setCode(rs.getString("code"));
+                    dto.setName(rs.getString("name"));
+                    dto.setPrice(rs.getBigDecimal("price"));
+                    dto.setExtraMinutes(rs.getInt("extra_minutes"));
+                    dto.setActive(rs.getBoolean("active"));
+                    return dto;
+                });
+    }
+
+    private static void validate(BigDecimal price, Integer minutes) {
+        if (price == null || price.signum() < 0) {
+            throw new BusinessRuleException("Price must be zero or more");
+        }
+        if (minutes == null || minutes < 0) {
+            throw new BusinessRuleException("Minutes must be zero or more");
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
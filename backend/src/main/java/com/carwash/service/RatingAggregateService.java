@@ -0,0 +1,138 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Running rating sum/count per service and per staff member, in the DB and mirrored in memory.
+// Other nodes reload their copy when a rating invalidation arrives.
+@Slf4j
+@Service
+public class RatingAggregateService {
+
+    private static final String UPSERT_SERVICE_SQL =
+            "INSERT INTO service_rating_stats (service_id, rating_sum, rating_count) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (service_id) DO UPDATE SET "
+                    + "rating_sum = service_rating_stats.rating_sum + EXCLUDED.rating_sum, "
+                    + "rating_count = service_rating_stats.rating_count + EXCLUDED.rating_count";
+
+    private static final String UPSERT_STAFF_SQL =
+            "INSERT INTO staff_rating_stats (staff_id, rating_sum, rating_count) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (staff_id) DO UPDATE SET "
+                    + "rating_sum = staff_rating_stats.rating_sum + EXCLUDED.rating_sum, "
+                    + "rating_count = staff_rating_stats.rating_count + EXCLUDED.rating_count";
+
+    private static final String RATED_BOOKINGS =
+            "(SELECT service_id, assigned_staff_id, rating FROM bookings WHERE rating IS NOT NULL "
+                    + "UNION ALL "
+                    + "SELECT service_id, assigned_staff_id, rating FROM bookings_archive WHERE rating IS NOT NULL) r";
+
+    // Immutable sum/count pair
+    public record RatingSummary(long sum, long count) {
+
+        static final RatingSummary EMPTY = new RatingSummary(0, 0);
+
+        public Double average() {
+            return count == 0 ? null : (double) sum / count;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+    private final Map<Long, RatingSummary> byService = new ConcurrentHashMap<>();
+    private final Map<Long, RatingSummary> byStaff = new ConcurrentHashMap<>();
+
+    public RatingAggregateService(JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+    }
+
+    // Rating summary for a service (never null)
+    public RatingSummary getServiceRating(Long serviceId) {
+        return byService.getOrDefault(serviceId, RatingSummary.EMPTY);
+    }
+
+    // Rating summary for a staff member (never null)
+    public RatingSummary getStaffRating(Long staffId) {
+        return byStaff.getOrDefault(staffId, RatingSummary.EMPTY);
+    }
+
+    public Map<Long, RatingSummary> getAllStaffRatings() {
+        return Map.copyOf(byStaff);
+    }
+
+    // Apply a new or changed rating to the DB totals - must run inside the rating transaction
+    @Transactional
+    public void recordRating(Long serviceId, Long staffId, Integer oldRating, int newRating) {
+        long sumDelta = newRating - (oldRating == null ? 0 : oldRating);
+        long countDelta = oldRating == null ? 1 : 0;
+
+        jdbcTemplate.update(UPSERT_SERVICE_SQL, serviceId, sumDelta, countDelta);
+        if (staffId != null) {
+            jdbcTemplate.update(UPSERT_STAFF_SQL, staffId, sumDelta, countDelta);
+        }
+        invalidationBus.publish(Invalidation.rating());
+    }
+
+    // Re-read the committed totals. Not a delta: reloads for other nodes' ratings run concurrently,
+    // and a delta on top of a snapshot that already has it would count the rating twice.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() == BookingEvent.Type.RATED) {
+            load();
+        }
+    }
+
+    // Load the totals once the app is up, after a rating here or on another node, and after a rebuild.
+    // One at a time, so an older read can't overwrite a newer one.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<Long, RatingSummary> services = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT service_id, rating_sum, rating_count FROM service_rating_stats",
+                rs -> {
+                    services.put(rs.getLong(1), new RatingSummary(rs.getLong(2), rs.getLong(3)));
+                });
+        Map<Long, RatingSummary> staff = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT staff_id, rating_sum, rating_count FROM staff_rating_stats",
+                rs -> {
+                    staff.put(rs.getLong(1), new RatingSummary(rs.getLong(2), rs.getLong(3)));
+                });
+
+        byService.keySet().retainAll(services.keySet());
+        byService.putAll(services);
+        byStaff.keySet().retainAll(staff.keySet());
+        byStaff.putAll(staff);
+    }
+
+    // Recompute the totals from every rated booking (hot and archived), then reload memory.
+    // The table locks make concurrent rateBooking calls wait, so none are counted twice or lost.
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE service_rating_stats, staff_rating_stats IN EXCLUSIVE MODE");
+
+        jdbcTemplate.update("DELETE FROM service_rating_stats");
+        int services = jdbcTemplate.update(
+                "INSERT INTO service_rating_stats (service_id, rating_sum, rating_count) "
+                        + "SELECT service_id, SUM(rating), COUNT(rating) FROM " + RATED_BOOKINGS
+                        + " GROUP BY service_id");
+
+        jdbcTemplate.update("DELETE FROM staff_rating_stats");
+        int staff = jdbcTemplate.update(
+                "INSERT INTO staff_rating_stats (staff_id, rating_sum, rating_count) "
+                        + "SELECT assigned_staff_id, SUM(rating), COUNT(rating) FROM " + RATED_BOOKINGS
+                        + " WHERE assigned_staff_id IS NOT NULL GROUP BY assigned_staff_id");
+
+        invalidationBus.publish(Invalidation.rating());
+        log.info("Rebuilt rating totals for {} services and {} staff", services, staff);
+    }
+}
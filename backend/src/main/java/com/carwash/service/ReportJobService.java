@@ -0,0 +1,273 @@
+package com.carwash.service;
+
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.ServiceUnavailableException;
+import com.carwash.model.Booking;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admin analytics run as background jobs: submit returns a job id at once, the work runs on a small
+// bounded pool with its own connection pool (reportsDataSource), and callers poll for progress.
+// Jobs are keyed by their normalized request, so identical dashboard requests share one computation
+// and a finished result is served again until it expires.
+@Slf4j
+@Component
+public class ReportJobService {
+
+    public enum ReportType {
+        REVENUE_BY_SERVICE,
+        REVENUE_BY_STAFF,
+        REVENUE_BY_DAY,
+        STATUS_FUNNEL,
+        RATING_BREAKDOWN
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    // Normalized parameters: whole days, both inclusive; null location = every site
+    public record ReportRequest(ReportType type, LocalDate from, LocalDate to, Long locationId) {
+    }
+
+    // id: the service or staff member a row is for (null for unassigned, and for day/status/rating rows)
+    public record ReportRow(Long id, String label, long bookings, BigDecimal amount) {
+    }
+
+    // Rows merge across slices by id and label, so two services or staff members sharing a name stay apart
+    private record Group(Long id, String label) {
+    }
+
+    // What a poll sees
+    public record JobView(String id, ReportRequest request, JobStatus status, int progressPercent,
+                          LocalDateTime submittedAt, LocalDateTime finishedAt, List<ReportRow> rows, String error) {
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final ReportRequest request;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile int progressPercent;
+        volatile LocalDateTime finishedAt;
+        volatile List<ReportRow> rows;
+        volatile String error;
+
+        Job(ReportRequest request) {
+            this.request = request;
+        }
+
+        JobView view() {
+            return new JobView(id, request, status, progressPercent, submittedAt, finishedAt, rows, error);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int maxRangeDays;
+    private final int sliceDays;
+    private final long resultTtlMillis;
+
+    private final Map<String, Job> jobsById = new ConcurrentHashMap<>();
+    private final Map<ReportRequest, Job> jobsByRequest = new ConcurrentHashMap<>();
+
+    public ReportJobService(@Qualifier("reportsDataSource") HikariDataSource reportsDataSource,
+                            @Value("${app.reports.threads:2}") int threads,
+                            @Value("${app.reports.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.reports.max-range-days:731}") int maxRangeDays,
+                            @Value("${app.reports.slice-days:31}") int sliceDays,
+                            @Value("${app.reports.result-ttl-ms:600000}") long resultTtlMillis) {
+        this.jdbcTemplate = new JdbcTemplate(reportsDataSource);
+        this.maxRangeDays = maxRangeDays;
+        this.sliceDays = sliceDays;
+        this.resultTtlMillis = resultTtlMillis;
+
+        // Threads match the reports pool size, so a running job never waits for a connection
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Start a report (or join an identical one that is running or recently finished)
+    public JobView submit(ReportType type, LocalDate from, LocalDate to, Long locationId) {
+        if (type == null || from == null || to == null) {
+            throw new BusinessRuleException("type, from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new BusinessRuleException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BusinessRuleException("Report range is limited to " + maxRangeDays + " days");
+        }
+        ReportRequest request = new ReportRequest(type, from, to, locationId);
+
+        Job[] created = new Job[1];
+        Job job = jobsByRequest.compute(request, (key, existing) -> {
+            if (existing != null && existing.status != JobStatus.FAILED && !isExpired(existing)) {
+                return existing;
+            }
+            created[0] = new Job(key);
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            jobsById.put(job.id, job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobsById.remove(job.id);
+                jobsByRequest.remove(request, job);
+                throw new ServiceUnavailableException("Too many reports running, please try again shortly");
+            }
+        }
+        return job.view();
+    }
+
+    public JobView getJob(String id) {
+        Job job = jobsById.get(id);
+        if (job == null) {
+            throw new NotFoundException("Report job not found (results expire after "
+                    + resultTtlMillis / 60_000 + " minutes)");
+        }
+        return job.view();
+    }
+
+    // Drop finished jobs past their time to live
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-ms:60000}")
+    public void evictExpired() {
+        jobsById.values().removeIf(job -> {
+            if (isExpired(job)) {
+                jobsByRequest.remove(job.request, job);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private boolean isExpired(Job job) {
+        LocalDateTime finishedAt = job.finishedAt;
+        return finishedAt != null
+                && finishedAt.plus(resultTtlMillis, ChronoUnit.MILLIS).isBefore(LocalDateTime.now());
+    }
+
+    // Works through the range a slice at a time (short queries, real progress) and merges the sums
+    private void run(Job job) {
+        job.status = JobStatus.RUNNING;
+        ReportRequest request = job.request;
+        try {
+            LocalDate end = request.to().plusDays(1);
+            long totalDays = ChronoUnit.DAYS.between(request.from(), end);
+            Map<Group, long[]> counts = new LinkedHashMap<>();
+            Map<Group, BigDecimal> amounts = new LinkedHashMap<>();
+
+            for (LocalDate sliceStart = request.from(); sliceStart.isBefore(end); sliceStart = sliceStart.plusDays(sliceDays)) {
+                LocalDate sliceEnd = sliceStart.plusDays(sliceDays).isBefore(end) ? sliceStart.plusDays(sliceDays) : end;
+                jdbcTemplate.query(sql(request), rs -> {
+                    long id = rs.getLong("id");
+                    Group group = new Group(rs.wasNull() ? null : id, rs.getString("label"));
+                    counts.computeIfAbsent(group, k -> new long[1])[0] += rs.getLong("bookings");
+                    BigDecimal amount = rs.getBigDecimal("amount");
+                    amounts.merge(group, amount == null ? BigDecimal.ZERO : amount, BigDecimal::add);
+                }, parameters(request, sliceStart, sliceEnd));
+                job.progressPercent = (int) (100 * ChronoUnit.DAYS.between(request.from(), sliceEnd) / totalDays);
+            }
+
+            List<ReportRow> rows = new ArrayList<>(counts.size());
+            counts.forEach((group, count) -> rows.add(new ReportRow(group.id(), group.label(), count[0],
+                    request.type() == ReportType.STATUS_FUNNEL || request.type() == ReportType.RATING_BREAKDOWN
+                            ? null : amounts.get(group))));
+            rows.sort(order(request.type()));
+
+            job.rows = List.copyOf(rows);
+            job.status = JobStatus.DONE;
+        } catch (RuntimeException e) {
+            log.warn("Report job {} ({}) failed", job.id, request, e);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    // One grouped query over live and archived bookings for a slice; services and staff group by id
+    private static String sql(ReportRequest request) {
+        String id = switch (request.type()) {
+            case REVENUE_BY_SERVICE -> "s.id";
+            case REVENUE_BY_STAFF -> "u.id";
+            case REVENUE_BY_DAY, STATUS_FUNNEL, RATING_BREAKDOWN -> "CAST(NULL AS BIGINT)";
+        };
+        String label = switch (request.type()) {
+            case REVENUE_BY_SERVICE -> "s.name";
+            case REVENUE_BY_STAFF -> "COALESCE(u.full_name, 'Unassigned')";
+            case REVENUE_BY_DAY -> "CAST(CAST(b.booking_date_time AS DATE) AS VARCHAR)";
+            case STATUS_FUNNEL -> "b.status";
+            case RATING_BREAKDOWN -> "CAST(b.rating AS VARCHAR)";
+        };
+        String filter = switch (request.type()) {
+            case REVENUE_BY_SERVICE, REVENUE_BY_STAFF, REVENUE_BY_DAY -> "b.status = 'COMPLETED'";
+            case STATUS_FUNNEL -> "1 = 1";
+            case RATING_BREAKDOWN -> "b.rating IS NOT NULL";
+        };
+        String site = request.locationId() == null ? "" : " AND b.location_id = ?";
+
+        String select = "SELECT " + id + " AS id, " + label + " AS label, COALESCE(b.price, s.price) AS amount FROM %s b"
+                + " JOIN service s ON s.id = b.service_id LEFT JOIN users u ON u.id = b.assigned_staff_id"
+                + " WHERE " + filter + " AND b.booking_date_time >= ? AND b.booking_date_time < ?" + site;
+        return "SELECT id, label, COUNT(*) AS bookings, SUM(amount) AS amount FROM ("
+                + select.formatted("bookings") + " UNION ALL " + select.formatted("bookings_archive")
+                + ") x GROUP BY id, label";
+    }
+
+    private static Object[] parameters(ReportRequest request, LocalDate from, LocalDate to) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        return request.locationId() == null
+                ? new Object[]{start, end, start, end}
+                : new Object[]{start, end, request.locationId(), start, end, request.locationId()};
+    }
+
+    private static Comparator<ReportRow> order(ReportType type) {
+        return switch (type) {
+            case REVENUE_BY_DAY -> Comparator.comparing(ReportRow::label);
+            case STATUS_FUNNEL -> Comparator.comparingInt(row -> Booking.BookingStatus.valueOf(row.label()).ordinal());
+            case RATING_BREAKDOWN -> Comparator.comparing(ReportRow::label).reversed();
+            default -> Comparator.comparing(ReportRow::amount, Comparator.nullsLast(Comparator.reverseOrder()));
+        };
+    }
+}
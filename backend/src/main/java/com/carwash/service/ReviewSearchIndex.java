@@ -0,0 +1,773 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process inverted index over Booking.notes and Booking.review for the admin review search.
+//
+// Kept current from BookingEvents (create/rate) on this node and review invalidations from the others.
+// Persisted as a compact segment file (varint, delta-coded postings) plus an append-only journal of
+// changes since the last segment, so a restart loads the segment, replays the journal and only reads
+// bookings newer than the segment from the DB. A nightly rebuild (and one after missed invalidations)
+// picks up ratings other nodes made while this one was down.
+@Slf4j
+@Component
+public class ReviewSearchIndex {
+
+    private static final int SEGMENT_MAGIC = 0x43575249;  // "CWRI"
+    private static final int SEGMENT_VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "is", "it",
+            "my", "no", "not", "of", "on", "or", "so", "the", "to", "was", "we", "were", "with", "very");
+
+    private static final String SOURCE_SQL =
+            "SELECT id, service_id, rating, booking_date_time, notes, review FROM bookings "
+                    + "WHERE id > ? AND (notes IS NOT NULL OR review IS NOT NULL) "
+                    + "UNION ALL "
+                    + "SELECT id, service_id, rating, booking_date_time, notes, review FROM bookings_archive "
+                    + "WHERE id > ? AND (notes IS NOT NULL OR review IS NOT NULL)";
+
+    private static final String ROW_SQL =
+            "SELECT id, service_id, rating, booking_date_time, notes, review FROM bookings WHERE id = ? "
+                    + "UNION ALL "
+                    + "SELECT id, service_id, rating, booking_date_time, notes, review FROM bookings_archive WHERE id = ?";
+
+    // Sorted booking ids with their term frequencies for one term
+    private static final class PostingList {
+        long[] ids = new long[4];
+        int[] tfs = new int[4];
+        int size;
+
+        void put(long id, int tf) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                tfs[pos] = tf;
+                return;
+            }
+            int insertAt = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(tfs, insertAt, tfs, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            tfs[insertAt] = tf;
+            size++;
+        }
+
+        void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(tfs, pos + 1, tfs, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    // Per-booking data needed for filtering, scoring and removal
+    private static final class DocInfo {
+        final long serviceId;
+        final int rating;       // 0 = not rated
+        final int epochDay;
+        final int length;       // Token count
+        final String[] terms;   // Distinct terms
+
+        DocInfo(long serviceId, int rating, int epochDay, int length, String[] terms) {
+            this.serviceId = serviceId;
+            this.rating = rating;
+            this.epochDay = epochDay;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    // Everything a search reads. A rebuild fills a fresh one without the lock and swaps it in.
+    private static final class State {
+        final Map<String, PostingList> postings = new HashMap<>();
+        final Map<Long, DocInfo> docs = new HashMap<>();
+        long totalLength;
+        long highWaterBookingId;
+
+        void put(long bookingId, long serviceId, int rating, int epochDay, String notes, String review) {
+            removeDoc(bookingId);
+
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            int length = tokenize(notes, termFrequencies) + tokenize(review, termFrequencies);
+            if (length > 0) {
+                for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), k -> new PostingList()).put(bookingId, entry.getValue());
+                }
+                docs.put(bookingId, new DocInfo(serviceId, rating, epochDay, length,
+                        termFrequencies.keySet().toArray(new String[0])));
+                totalLength += length;
+            }
+            highWaterBookingId = Math.max(highWaterBookingId, bookingId);
+        }
+
+        private void removeDoc(long bookingId) {
+            DocInfo old = docs.remove(bookingId);
+            if (old == null) {
+                return;
+            }
+            totalLength -= old.length;
+            for (String term : old.terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    list.remove(bookingId);
+                    if (list.size == 0) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    // A booking's text waiting to be applied
+    private record Change(long bookingId, long serviceId, int rating, int epochDay, String notes, String review) {
+    }
+
+    // One result
+    public record Hit(long bookingId, double score) {
+    }
+
+    // One page of results, best first
+    public record SearchPage(long total, List<Hit> hits) {
+    }
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path segmentFile;
+    private final Path journalFile;
+
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();  // Package-private for tests
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private State state = new State();
+    private DataOutputStream journal;
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "review-index-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean ready;
+
+    public ReviewSearchIndex(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.review-index.dir:data/review-index}") String directory) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.segmentFile = Paths.get(directory, "reviews.seg");
+        this.journalFile = Paths.get(directory, "reviews.journal");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ---- Indexing ----
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() != BookingEvent.Type.CREATED && event.getType() != BookingEvent.Type.RATED) {
+            return;
+        }
+        index(event.getBookingId(), event.getServiceId(), event.getNewRating(),
+                event.getBookingDateTime().toLocalDate(), event.getNotes(), event.getReview());
+    }
+
+    // Add or replace one booking's text. The change is queued and applied on the drain thread (or by
+    // the loader while loading or rebuilding), so request threads never wait on the lock, a snapshot
+    // or the journal.
+    public void index(long bookingId, long serviceId, Integer rating, LocalDate day, String notes, String review) {
+        pending.add(new Change(bookingId, serviceId, rating == null ? 0 : rating, (int) day.toEpochDay(),
+                notes, review));
+        if (ready && !rebuilding.get() && drainScheduled.compareAndSet(false, true)) {
+            drainer.execute(this::drainInBackground);
+        }
+    }
+
+    // One drain at a time; a change queued after the flag is cleared schedules the next one
+    private void drainInBackground() {
+        drainScheduled.set(false);
+        lock.writeLock().lock();
+        try {
+            drainPending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Waits until the changes queued so far are searchable, for tests
+    void awaitPendingChanges() throws InterruptedException, ExecutionException {
+        drainer.submit(() -> { }).get();
+    }
+
+    // Caller holds the write lock
+    private void drainPending() {
+        Change change;
+        while ((change = pending.poll()) != null) {
+            state.put(change.bookingId(), change.serviceId(), change.rating(), change.epochDay(),
+                    change.notes(), change.review());
+            appendToJournal(change.bookingId(), change.serviceId(), change.rating(), change.epochDay(),
+                    change.notes(), change.review());
+        }
+    }
+
+    // Re-read one booking another node changed; gone or without text drops it from the index
+    public void refresh(long bookingId) {
+        List<Change> rows = streamingJdbcTemplate.query(ROW_SQL, (rs, i) -> new Change(rs.getLong("id"),
+                rs.getLong("service_id"), rs.getInt("rating"),
+                (int) rs.getTimestamp("booking_date_time").toLocalDateTime().toLocalDate().toEpochDay(),
+                rs.getString("notes"), rs.getString("review")), bookingId, bookingId);
+        Change row = rows.isEmpty() ? new Change(bookingId, 0, 0, 0, null, null) : rows.get(0);
+        index(row.bookingId(), row.serviceId(), row.rating(), LocalDate.ofEpochDay(row.epochDay()),
+                row.notes(), row.review());
+    }
+
+    // Lowercase word tokens without stop words; returns the token count
+    private static int tokenize(String text, Map<String, Integer> termFrequencies) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            termFrequencies.merge(token, 1, Integer::sum);
+            count++;
+        }
+        return count;
+    }
+
+    // ---- Search ----
+
+    // BM25-ranked search with optional filters; all terms are OR-ed, more matching terms score higher
+    public SearchPage search(String query, Long serviceId, Integer minRating, Integer maxRating,
+                             LocalDate from, LocalDate to, int page, int size) {
+        Map<String, Integer> queryTerms = new HashMap<>();
+        tokenize(query, queryTerms);
+        if (queryTerms.isEmpty()) {
+            return new SearchPage(0, List.of());
+        }
+
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            Map<String, PostingList> postings = state.postings;
+            Map<Long, DocInfo> docs = state.docs;
+            int docCount = docs.size();
+            double averageLength = docCount == 0 ? 1 : (double) state.totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (String term : queryTerms.keySet()) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    long bookingId = list.ids[i];
+                    DocInfo doc = docs.get(bookingId);
+                    if (!matches(doc, serviceId, minRating, maxRating, fromDay, toDay)) {
+                        continue;
+                    }
+                    int tf = list.tfs[i];
+                    double score = idf * (tf * (K1 + 1))
+                            / (tf + K1 * (1 - B + B * doc.length / averageLength));
+                    scores.merge(bookingId, score, Double::sum);
+                }
+            }
+
+            // Keep only the top (page + 1) * size; in longs, so a huge page number can't overflow
+            long limit = ((long) page + 1) * size;
+            PriorityQueue<Hit> top = new PriorityQueue<>(
+                    (a, b) -> a.score() != b.score()
+                            ? Double.compare(a.score(), b.score())
+                            : Long.compare(a.bookingId(), b.bookingId()));
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                top.offer(new Hit(entry.getKey(), entry.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort((a, b) -> a.score() != b.score()
+                    ? Double.compare(b.score(), a.score())
+                    : Long.compare(b.bookingId(), a.bookingId()));
+            int start = (int) Math.min((long) page * size, ranked.size());
+            return new SearchPage(scores.size(), List.copyOf(ranked.subList(start, ranked.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(DocInfo doc, Long serviceId, Integer minRating, Integer maxRating,
+                                   int fromDay, int toDay) {
+        if (doc == null) {
+            return false;
+        }
+        if (serviceId != null && doc.serviceId != serviceId) {
+            return false;
+        }
+        if (minRating != null && (doc.rating == 0 || doc.rating < minRating)) {
+            return false;
+        }
+        if (maxRating != null && (doc.rating == 0 || doc.rating > maxRating)) {
+            return false;
+        }
+        return doc.epochDay >= fromDay && doc.epochDay <= toDay;
+    }
+
+    // ---- Startup ----
+
+    // Load in the background so a large index doesn't hold up startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        Thread loader = new Thread(this::loadUntilReady, "review-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Retry with backoff (up to a minute) while the database is unreachable; searches answer 503 meanwhile
+    private void loadUntilReady() {
+        long backoffMillis = 1_000;
+        while (!load()) {
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, 60_000);
+        }
+    }
+
+    // True once the index is ready
+    boolean load() {
+        lock.writeLock().lock();
+        try {
+            State loaded = new State();
+            try {
+                Files.createDirectories(segmentFile.getParent());
+                if (Files.exists(segmentFile)) {
+                    readSegment(loaded);
+                }
+                if (Files.exists(journalFile)) {
+                    replayJournal(loaded);
+                }
+                catchUpFromDatabase(loaded, loaded.highWaterBookingId);
+            } catch (IOException | RuntimeException e) {
+                log.error("Review index could not be loaded, rebuilding from the database", e);
+                loaded = new State();
+                try {
+                    catchUpFromDatabase(loaded, 0);
+                } catch (RuntimeException rebuildFailed) {
+                    log.error("Review index could not be rebuilt from the database, retrying", rebuildFailed);
+                    return false;
+                }
+            }
+            state = loaded;
+
+            try {
+                openJournal();
+            } catch (IOException e) {
+                log.error("Review index journal unavailable, changes will only be saved with segments", e);
+            }
+
+            // From here on index() applies changes itself; pick up whatever queued meanwhile
+            ready = true;
+            drainPending();
+            log.info("Review index ready: {} bookings, {} terms", state.docs.size(), state.postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshot();
+        return true;
+    }
+
+    // Re-read every booking: ratings other nodes made while this one was down or missed their invalidations.
+    // Searches keep using the current index meanwhile; changes arriving during the scan queue up.
+    @Scheduled(cron = "${app.review-index.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!ready || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        State rebuilt = new State();
+        try {
+            catchUpFromDatabase(rebuilt, 0);
+        } catch (RuntimeException e) {
+            log.warn("Review index rebuild failed; keeping the current index", e);
+            rebuilt = null;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                state = rebuilt;
+            }
+            rebuilding.set(false);
+            drainPending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rebuilt != null) {
+            log.info("Review index rebuilt: {} bookings, {} terms", rebuilt.docs.size(), rebuilt.postings.size());
+            snapshot();
+        }
+    }
+
+    // For the invalidation listener thread, which must not block on a full scan
+    public void rebuildInBackground() {
+        Thread rebuilder = new Thread(this::rebuild, "review-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+    }
+
+    // Index bookings newer than the segment (created while we were down or on other instances)
+    private void catchUpFromDatabase(State target, long afterBookingId) {
+        readOnlyTransaction.executeWithoutResult(status ->
+                streamingJdbcTemplate.query(SOURCE_SQL, (ResultSet rs) -> {
+                    indexRow(target, rs);
+                }, afterBookingId, afterBookingId));
+    }
+
+    private static void indexRow(State target, ResultSet rs) throws SQLException {
+        int rating = rs.getInt("rating");
+        Timestamp dateTime = rs.getTimestamp("booking_date_time");
+        target.put(rs.getLong("id"), rs.getLong("service_id"), rating,
+                (int) dateTime.toLocalDateTime().toLocalDate().toEpochDay(),
+                rs.getString("notes"), rs.getString("review"));
+    }
+
+    // ---- Segment file ----
+
+    // Write the whole index to a new segment and start an empty journal
+    @Scheduled(fixedDelayString = "${app.review-index.snapshot-interval-ms:600000}",
+            initialDelayString = "${app.review-index.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!ready) {
+            return;  // Don't replace a good segment with a half-loaded index
+        }
+        // One snapshot at a time (the timer, a rebuild, shutdown). Read lock: searches carry on,
+        // queued changes wait on the drain thread so segment and journal stay consistent.
+        snapshotLock.lock();
+        lock.readLock().lock();
+        try {
+            Path tmp = segmentFile.resolveSibling("reviews.seg.tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                writeSegment(out);
+            }
+            Files.move(tmp, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            truncateJournal();
+        } catch (IOException e) {
+            log.error("Could not write review index segment", e);
+        } finally {
+            lock.readLock().unlock();
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        drainer.shutdown();
+        try {
+            drainer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                drainPending();  // Anything queued after the last drain goes into the final segment
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshot();
+        lock.writeLock().lock();
+        try {
+            closeJournal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeSegment(DataOutputStream out) throws IOException {
+        Map<String, PostingList> postings = state.postings;
+        Map<Long, DocInfo> docs = state.docs;
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeInt(SEGMENT_VERSION);
+        out.writeLong(state.highWaterBookingId);
+
+        // Docs, ascending id, delta-coded
+        long[] ids = docs.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        writeVarLong(out, ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            DocInfo doc = docs.get(id);
+            writeVarLong(out, id - previous);
+            writeVarLong(out, doc.serviceId);
+            out.writeByte(doc.rating);
+            writeVarLong(out, doc.epochDay);
+            writeVarLong(out, doc.length);
+            previous = id;
+        }
+
+        // Terms with delta-coded postings
+        writeVarLong(out, postings.size());
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            writeString(out, entry.getKey());
+            PostingList list = entry.getValue();
+            writeVarLong(out, list.size);
+            long previousId = 0;
+            for (int i = 0; i < list.size; i++) {
+                writeVarLong(out, list.ids[i] - previousId);
+                writeVarLong(out, list.tfs[i]);
+                previousId = list.ids[i];
+            }
+        }
+    }
+
+    private void readSegment(State target) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(segmentFile), 1 << 16))) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != SEGMENT_VERSION) {
+                throw new IOException("Unrecognised review index segment");
+            }
+            target.highWaterBookingId = in.readLong();
+
+            int docCount = (int) readVarLong(in);
+            long[] docIds = new long[docCount];
+            long[] serviceIds = new long[docCount];
+            int[] ratings = new int[docCount];
+            int[] days = new int[docCount];
+            int[] lengths = new int[docCount];
+            long previous = 0;
+            for (int i = 0; i < docCount; i++) {
+                previous += readVarLong(in);
+                docIds[i] = previous;
+                serviceIds[i] = readVarLong(in);
+                ratings[i] = in.readUnsignedByte();
+                days[i] = (int) readVarLong(in);
+                lengths[i] = (int) readVarLong(in);
+            }
+
+            // Rebuild each doc's term list from the postings
+            Map<Long, List<String>> termsByDoc = new HashMap<>(docCount * 2);
+            int termCount = (int) readVarLong(in);
+            for (int t = 0; t < termCount; t++) {
+                String term = readString(in);
+                int size = (int) readVarLong(in);
+                PostingList list = new PostingList();
+                list.ids = new long[Math.max(size, 4)];
+                list.tfs = new int[Math.max(size, 4)];
+                long previousId = 0;
+                for (int i = 0; i < size; i++) {
+                    previousId += readVarLong(in);
+                    list.ids[i] = previousId;
+                    list.tfs[i] = (int) readVarLong(in);
+                    termsByDoc.computeIfAbsent(previousId, k -> new ArrayList<>(8)).add(term);
+                }
+                list.size = size;
+                target.postings.put(term, list);
+            }
+
+            for (int i = 0; i < docCount; i++) {
+                List<String> terms = termsByDoc.getOrDefault(docIds[i], List.of());
+                target.docs.put(docIds[i], new DocInfo(serviceIds[i], ratings[i], days[i], lengths[i],
+                        terms.toArray(new String[0])));
+                target.totalLength += lengths[i];
+            }
+        }
+    }
+
+    // ---- Journal ----
+
+    private void openJournal() throws IOException {
+        closeJournal();
+        journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private void truncateJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        closeJournal();
+        journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Could not close review index journal", e);
+            }
+            journal = null;
+        }
+    }
+
+    // Caller holds the write lock
+    private void appendToJournal(long bookingId, long serviceId, int rating, int epochDay,
+                                 String notes, String review) {
+        if (journal == null) {
+            return;  // Still loading; the segment written after loading covers it
+        }
+        try {
+            writeVarLong(journal, bookingId);
+            writeVarLong(journal, serviceId);
+            journal.writeByte(rating);
+            writeVarLong(journal, epochDay);
+            writeNullableString(journal, notes);
+            writeNullableString(journal, review);
+            journal.flush();
+        } catch (IOException e) {
+            log.warn("Could not append to review index journal, change kept in memory only", e);
+        }
+    }
+
+    private void replayJournal(State target) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                long bookingId;
+                try {
+                    bookingId = readVarLong(in);
+                } catch (EOFException end) {
+                    return;
+                }
+                try {
+                    long serviceId = readVarLong(in);
+                    int rating = in.readUnsignedByte();
+                    int epochDay = (int) readVarLong(in);
+                    String notes = readNullableString(in);
+                    String review = readNullableString(in);
+                    target.put(bookingId, serviceId, rating, epochDay, notes, review);
+                } catch (EOFException tornWrite) {
+                    log.warn("Review index journal ends with a partial record, ignoring it");
+                    return;
+                }
+            }
+        }
+    }
+
+    // ---- Encoding ----
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,176 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Booking;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Immutable per-location, per-day schedule buckets for the staff calendar.
+// A week or month view is assembled from cached days; missing days are loaded with one
+// range query, and concurrent viewers wait on the same in-flight load instead of repeating it.
+// A booking change only drops the bucket for the site and day it touches.
+@Slf4j
+@Component
+public class ScheduleCache {
+
+    // Compact view of one booking on the calendar
+    public record BookingSummary(Long id, LocalDateTime bookingDateTime, Integer durationMinutes,
+                                 String serviceName, Booking.BookingStatus status, String licensePlate,
+                                 String customerName, Long assignedStaffId, String assignedStaffName) {
+    }
+
+    // One day's bookings at a location, ordered by time
+    public record DaySchedule(Long locationId, LocalDate day, List<BookingSummary> bookings) {
+    }
+
+    private record DayKey(Long locationId, LocalDate day) {
+    }
+
+    // A location's bookings in [start, end), ordered by time
+    interface BookingSource {
+        List<Booking> bookingsInRange(Long locationId, LocalDateTime start, LocalDateTime endExclusive);
+    }
+
+    private final BookingSource bookingSource;
+    private final int maxCachedDays;
+    private final Map<DayKey, CompletableFuture<DaySchedule>> days = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ScheduleCache(BookingService bookingService,
+                         @Value("${app.schedule-cache.max-days:400}") int maxCachedDays) {
+        this(bookingService::getBookingsInRange, maxCachedDays);
+    }
+
+    ScheduleCache(BookingSource bookingSource, int maxCachedDays) {
+        this.bookingSource = bookingSource;
+        this.maxCachedDays = maxCachedDays;
+    }
+
+    // Schedules for every day in [from, to] at a location
+    public List<DaySchedule> getDays(Long locationId, LocalDate from, LocalDate to) {
+        Map<LocalDate, CompletableFuture<DaySchedule>> requested = new HashMap<>();
+        List<LocalDate> toLoad = new ArrayList<>();
+        Map<LocalDate, CompletableFuture<DaySchedule>> owned = new HashMap<>();
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            CompletableFuture<DaySchedule> mine = new CompletableFuture<>();
+            CompletableFuture<DaySchedule> existing = days.putIfAbsent(new DayKey(locationId, day), mine);
+            if (existing == null) {
+                toLoad.add(day);
+                owned.put(day, mine);
+                requested.put(day, mine);
+            } else {
+                requested.put(day, existing);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            load(locationId, toLoad, owned);
+            evictIfFull();
+        }
+
+        List<DaySchedule> result = new ArrayList<>(requested.size());
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            try {
+                result.add(requested.get(day).join());
+            } catch (CompletionException e) {
+                throw new RuntimeException("Could not load schedule for " + day, e.getCause());
+            }
+        }
+        return result;
+    }
+
+    // One query for the span of days this caller owns, split into buckets
+    private void load(Long locationId, List<LocalDate> toLoad, Map<LocalDate, CompletableFuture<DaySchedule>> owned) {
+        LocalDate first = toLoad.get(0);
+        LocalDate last = toLoad.get(toLoad.size() - 1);
+        try {
+            Map<LocalDate, List<BookingSummary>> byDay = new HashMap<>();
+            for (Booking booking : bookingSource.bookingsInRange(locationId, first.atStartOfDay(),
+                    last.plusDays(1).atStartOfDay())) {
+                LocalDate day = booking.getBookingDateTime().toLocalDate();
+                if (owned.containsKey(day)) {
+                    byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(summarize(booking));
+                }
+            }
+            // Rows arrive ordered by time, so each day's list is already in order
+            for (LocalDate day : toLoad) {
+                List<BookingSummary> bookings = byDay.getOrDefault(day, List.of());
+                owned.get(day).complete(new DaySchedule(locationId, day, List.copyOf(bookings)));
+            }
+        } catch (RuntimeException e) {
+            // Don't cache failures - drop the buckets so the next viewer retries
+            for (LocalDate day : toLoad) {
+                days.remove(new DayKey(locationId, day), owned.get(day));
+                owned.get(day).completeExceptionally(e);
+            }
+        }
+    }
+
+    private static BookingSummary summarize(Booking booking) {
+        return new BookingSummary(
+                booking.getId(),
+                booking.getBookingDateTime(),
+                booking.getDurationMinutes() != null
+                        ? booking.getDurationMinutes() : booking.getService().getDurationMinutes(),
+                booking.getService().getName(),
+                booking.getStatus(),
+                booking.getVehicle().getLicensePlate(),
+                booking.getCustomer().getFullName(),
+                booking.getAssignedStaff() == null ? null : booking.getAssignedStaff().getId(),
+                booking.getAssignedStaff() == null ? null : booking.getAssignedStaff().getFullName());
+    }
+
+    // Keep the cache bounded by dropping the days furthest from today
+    private void evictIfFull() {
+        int excess = days.size() - maxCachedDays;
+        if (excess <= 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        days.keySet().stream()
+                .sorted(Comparator.comparingLong((DayKey key) -> Math.abs(ChronoUnit.DAYS.between(today, key.day())))
+                        .reversed())
+                .limit(excess)
+                .forEach(days::remove);
+    }
+
+    // Drop one day's bucket at a location; the next viewer reloads it
+    public void invalidate(Long locationId, LocalDate day) {
+        days.remove(new DayKey(locationId, day));
+    }
+
+    // Drop every bucket before a day, at every location (archived bookings)
+    public void invalidateBefore(LocalDate day) {
+        days.keySet().removeIf(key -> key.day().isBefore(day));
+    }
+
+    // Drop everything (another node's changes may have been missed)
+    public void invalidateAll() {
+        days.clear();
+    }
+
+    // After commit, so a reload always sees the change
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() == BookingEvent.Type.RATED) {
+            return;  // Not shown on the calendar
+        }
+        invalidate(event.getLocationId(), event.getBookingDateTime().toLocalDate());
+    }
+}
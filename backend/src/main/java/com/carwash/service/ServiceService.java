@@ -1,9 +1,14 @@
 package com.carwash.service;
 
 
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
 import com.carwash.model.Service;
 import com.carwash.repository.ServiceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,33 +17,52 @@ import java.util.List;
 public class ServiceService {
 
     private final ServiceRepository serviceRepository;
+    private final PricingEngine pricingEngine;
+    private final InvalidationBus invalidationBus;
 
     // Get all active services
+    @Transactional(readOnly = true)
     public List<Service> getAllActiveServices() {
         return serviceRepository.findByActiveTrue();
     }
 
+    // Get active services offered at a location (its own plus the ones offered everywhere)
+    @Transactional(readOnly = true)
+    public List<Service> getActiveServicesAt(Long locationId) {
+        return serviceRepository.findActiveAtLocation(locationId);
+    }
+
+    // Whether a service can be booked at a location
+    public boolean isOfferedAt(Service service, Long locationId) {
+        return service.getLocation() == null || service.getLocation().getId().equals(locationId);
+    }
+
     // Get service by ID
+    @Transactional(readOnly = true)
     public Service getServiceById(Long id) {
         return serviceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service not found with ID: " + id));
+                .orElseThrow(() -> new NotFoundException("Service not found with ID: " + id));
     }
 
     // Create new service
+    @Transactional
     public Service createService(Service service) {
         // Validate service
         if (service.getName() == null || service.getName().trim().isEmpty()) {
-            throw new RuntimeException("Service name is required");
+            throw new BusinessRuleException("Service name is required");
         }
         if (service.getPrice() == null || service.getPrice().doubleValue() <= 0) {
-            throw new RuntimeException("Service price must be greater than 0");
+            throw new BusinessRuleException("Service price must be greater than 0");
         }
 
         service.setActive(true);
-        return serviceRepository.save(service);
+        Service saved = serviceRepository.save(service);
+        pricingEngine.reloadAfterCommit();
+        return saved;
     }
 
     // Update existing service
+    @Transactional
     public Service updateService(Long id, Service updatedService) {
         Service existingService = getServiceById(id);
 
@@ -55,18 +79,27 @@ public class ServiceService {
         if (updatedService.getDurationMinutes() != null) {
             existingService.setDurationMinutes(updatedService.getDurationMinutes());
         }
+        if (updatedService.getLocation() != null) {
+            existingService.setLocation(updatedService.getLocation());
+        }
 
-        return serviceRepository.save(existingService);
+        Service saved = serviceRepository.save(existingService);
+        pricingEngine.reloadAfterCommit();
+        invalidationBus.publish(Invalidation.service(id));
+        return saved;
     }
 
     // Deactivate service (soft delete)
+    @Transactional
     public void deactivateService(Long id) {
         Service service = getServiceById(id);
         service.setActive(false);
         serviceRepository.save(service);
+        invalidationBus.publish(Invalidation.service(id));
     }
 
     // Search services by name
+    @Transactional(readOnly = true)
     public List<Service> searchServices(String keyword) {
         return serviceRepository.findByNameContainingIgnoreCase(keyword);
     }
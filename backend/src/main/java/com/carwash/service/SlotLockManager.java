@@ -0,0 +1,22 @@
+package com.carwash.service;
+
+import java.time.LocalDateTime;
+
+// Serializes slot checks across everything that can book the same time at a site.
+// Slot time is cut into fixed buckets per location; a caller locks every bucket its window touches,
+// in ascending order, and holds them until its transaction ends. Two bookings that would overlap
+// share at least one bucket, so their check-then-insert runs one after the other.
+public interface SlotLockManager {
+
+    // Blocks until the current transaction holds the buckets covering [start, end) at the location
+    void lockSlots(long locationId, LocalDateTime start, LocalDateTime end);
+
+    LockStats stats();
+
+    record LockStats(long acquisitions, long totalWaitMicros, long maxWaitMicros) {
+
+        public long averageWaitMicros() {
+            return acquisitions == 0 ? 0 : totalWaitMicros / acquisitions;
+        }
+    }
+}
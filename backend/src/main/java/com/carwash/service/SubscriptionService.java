@@ -0,0 +1,280 @@
+package com.carwash.service;
+
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.model.Booking;
+import com.carwash.model.Location;
+import com.carwash.model.Service;
+import com.carwash.model.Subscription;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.BookingRepository;
+import com.carwash.repository.SubscriptionRepository;
+import com.carwash.repository.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+// Recurring washes. Occurrences are generated lazily: a subscription only ever has bookings
+// up to today + window-days, and a nightly job moves every window forward by a day.
+// Each batch of subscriptions is slot-checked with one query per site instead of one per occurrence.
+@Slf4j
+@org.springframework.stereotype.Service
+public class SubscriptionService {
+
+    public static final int MAX_INTERVAL_WEEKS = 8;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final ServiceService serviceService;
+    private final LocationService locationService;
+    private final VehicleRepository vehicleRepository;
+    private final VehicleService vehicleService;
+    private final PricingEngine pricingEngine;
+    private final DemandPricing demandPricing;
+    private final TransactionTemplate transactionTemplate;
+    private final int windowDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    public SubscriptionService(SubscriptionRepository subscriptionRepository,
+                               BookingRepository bookingRepository,
+                               BookingService bookingService,
+                               ServiceService serviceService,
+                               LocationService locationService,
+                               VehicleRepository vehicleRepository,
+                               VehicleService vehicleService,
+                               PricingEngine pricingEngine,
+                               DemandPricing demandPricing,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.subscriptions.window-days:28}") int windowDays,
+                               @Value("${app.subscriptions.batch-size:200}") int batchSize,
+                               @Value("${app.subscriptions.batch-pause-ms:100}") long pauseMillis) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.serviceService = serviceService;
+        this.locationService = locationService;
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleService = vehicleService;
+        this.pricingEngine = pricingEngine;
+        this.demandPricing = demandPricing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowDays = windowDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    // One occurrence waiting for its slot check
+    private record Candidate(Subscription subscription, LocalDateTime bookingDateTime, PricingEngine.Quote quote) {
+
+        int durationMinutes() {
+            return quote.durationMinutes();
+        }
+    }
+
+    // Outcome of materializing a batch
+    private record MaterializeResult(int created, List<LocalDateTime> skipped) {
+    }
+
+    // One page of the nightly run
+    private record Page(Long lastId, MaterializeResult result) {
+    }
+
+    // Create subscription and book its first window straight away (locationId null = default location)
+    @Transactional
+    public Subscription createSubscription(User customer, Long locationId, Long serviceId, Long vehicleId,
+                                           LocalDateTime firstBookingDateTime, Integer intervalWeeks,
+                                           LocalDate endDate, String notes) {
+
+        Location location = locationService.resolve(locationId);
+        Service service = serviceService.getServiceById(serviceId);
+        if (!serviceService.isOfferedAt(service, location.getId())) {
+            throw new BusinessRuleException("Service is not offered at " + location.getName());
+        }
+
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new NotFoundException("Vehicle not found"));
+
+        if (!vehicleService.vehicleBelongsToUser(vehicleId, customer)) {
+            throw new PermissionDeniedException("Vehicle does not belong to you");
+        }
+
+        if (firstBookingDateTime == null || firstBookingDateTime.isBefore(LocalDateTime.now())) {
+            throw new BusinessRuleException("Booking time must be in the future");
+        }
+
+        if (intervalWeeks == null || intervalWeeks < 1 || intervalWeeks > MAX_INTERVAL_WEEKS) {
+            throw new BusinessRuleException("Interval must be between 1 and " + MAX_INTERVAL_WEEKS + " weeks");
+        }
+
+        if (endDate != null && endDate.isBefore(firstBookingDateTime.toLocalDate())) {
+            throw new BusinessRuleException("End date must not be before the first booking");
+        }
+
+        Subscription subscription = new Subscription();
+        subscription.setCustomer(customer);
+        subscription.setService(service);
+        subscription.setVehicle(vehicle);
+        subscription.setLocation(location);
+        subscription.setStartDate(firstBookingDateTime.toLocalDate());
+        subscription.setTimeOfDay(firstBookingDateTime.toLocalTime());
+        subscription.setIntervalWeeks(intervalWeeks);
+        subscription.setEndDate(endDate);
+        subscription.setNotes(notes);
+        subscription.setMaterializedUntil(subscription.getStartDate().minusDays(1));
+        Subscription saved = subscriptionRepository.save(subscription);
+
+        // The first wash is the one the customer picked, so it must fit; later clashes are skipped
+        LocalDate horizon = LocalDate.now().plusDays(windowDays);
+        if (horizon.isBefore(saved.getStartDate())) {
+            horizon = saved.getStartDate();
+        }
+        MaterializeResult result = materialize(List.of(saved), horizon);
+        if (result.skipped().contains(firstBookingDateTime)) {
+            throw new ConflictException("Time slot not available");
+        }
+        return saved;
+    }
+
+    // Get subscriptions for customer
+    @Transactional(readOnly = true)
+    public List<Subscription> getCustomerSubscriptions(User customer) {
+        return subscriptionRepository.findByCustomerOrderByCreatedAtDesc(customer);
+    }
+
+    // Stop a subscription and cancel its upcoming bookings
+    @Transactional
+    public Subscription cancelSubscription(Long subscriptionId, User customer) {
+        Subscription subscription = subscriptionRepository.findById(subscriptionId)
+                .orElseThrow(() -> new NotFoundException("Subscription not found"));
+
+        if (!subscription.getCustomer().getId().equals(customer.getId())) {
+            throw new PermissionDeniedException("You can only cancel your own subscriptions");
+        }
+
+        subscription.setActive(false);
+        List<Booking> upcoming = bookingRepository.findBySubscriptionIdAndBookingDateTimeAfterAndStatusIn(
+                subscriptionId, LocalDateTime.now(),
+                EnumSet.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED));
+        for (Booking booking : upcoming) {
+            bookingService.updateBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED);
+        }
+        return subscriptionRepository.save(subscription);
+    }
+
+    // Nightly: move every active window up to today + window-days, a batch per transaction
+    @Scheduled(cron = "${app.subscriptions.cron:0 15 2 * * *}")
+    public void extendWindows() {
+        LocalDate horizon = LocalDate.now().plusDays(windowDays);
+        long lastId = 0;
+        int created = 0;
+        int skipped = 0;
+
+        try {
+            while (true) {
+                long afterId = lastId;
+                Page page = transactionTemplate.execute(status -> {
+                    List<Subscription> batch = subscriptionRepository
+                            .findByActiveTrueAndMaterializedUntilBeforeAndIdGreaterThanOrderById(
+                                    horizon, afterId, PageRequest.of(0, batchSize));
+                    if (batch.isEmpty()) {
+                        return null;
+                    }
+                    return new Page(batch.get(batch.size() - 1).getId(), materialize(batch, horizon));
+                });
+                if (page == null) {
+                    break;
+                }
+                lastId = page.lastId();
+                created += page.result().created();
+                skipped += page.result().skipped().size();
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Subscription window extension stopped after subscription {}", lastId, e);
+        }
+
+        if (created > 0 || skipped > 0) {
+            log.info("Subscriptions extended to {}: {} bookings created, {} occurrences skipped (slot taken)",
+                    horizon, created, skipped);
+        }
+    }
+
+    // Claim each subscription's missing occurrences up to the horizon and book the ones whose slot is free.
+    // Runs inside the caller's transaction.
+    private MaterializeResult materialize(List<Subscription> subscriptions, LocalDate horizon) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Candidate> candidates = new ArrayList<>();
+
+        for (Subscription subscription : subscriptions) {
+            LocalDate from = subscription.getMaterializedUntil();
+            if (!from.isBefore(horizon)) {
+                continue;
+            }
+            // Conditional update: if another run already moved this window, leave its occurrences alone
+            if (subscriptionRepository.advanceMaterializedUntil(subscription.getId(), from, horizon) == 0) {
+                continue;
+            }
+            subscription.setMaterializedUntil(horizon);
+            if (subscription.getEndDate() != null && !subscription.getEndDate().isAfter(horizon)) {
+                subscription.setActive(false);  // Every occurrence is now booked
+            }
+            PricingEngine.Quote quote = pricingEngine.quote(subscription.getService().getId(),
+                    subscription.getVehicle().getType(), 0);
+            for (LocalDateTime occurrence : subscription.occurrencesBetween(from, horizon)) {
+                if (occurrence.isAfter(now)) {
+                    candidates.add(new Candidate(subscription, occurrence, quote));
+                }
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return new MaterializeResult(0, List.of());
+        }
+
+        // The slot check runs in saveGeneratedBookings, under the same locks createBooking takes
+        List<Booking> generated = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            LocalDateTime time = candidate.bookingDateTime();
+            Subscription subscription = candidate.subscription();
+
+            Booking booking = new Booking();
+            booking.setCustomer(subscription.getCustomer());
+            booking.setService(subscription.getService());
+            booking.setVehicle(subscription.getVehicle());
+            booking.setLocation(subscription.getLocation());
+            booking.setBookingDateTime(time);
+            booking.setNotes(subscription.getNotes());
+            booking.setStatus(Booking.BookingStatus.PENDING);
+            booking.setSubscriptionId(subscription.getId());
+            booking.setDurationMinutes(candidate.durationMinutes());
+            booking.setPrice(demandPricing.apply(candidate.quote(), subscription.getLocation().getId(), time).price());
+            generated.add(booking);
+        }
+
+        List<Booking> saved = bookingService.saveGeneratedBookings(generated);
+        // Occurrences that lost their slot were never persisted, so they have no id
+        List<LocalDateTime> skipped = generated.stream()
+                .filter(booking -> booking.getId() == null)
+                .map(Booking::getBookingDateTime)
+                .toList();
+        return new MaterializeResult(saved.size(), skipped);
+    }
+}
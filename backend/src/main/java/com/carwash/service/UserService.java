@@ -1,11 +1,18 @@
 package com.carwash.service;
 
 import com.carwash.dto.RegisterRequestDTO;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
 import com.carwash.model.User;
 import com.carwash.repository.UserRepository;
+import com.carwash.security.TokenRevocationList;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,12 +23,16 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationList tokenRevocationList;
+    private final LocationService locationService;
+    private final InvalidationBus invalidationBus;
 
     // Register new user
+    @Transactional
     public User registerUser(RegisterRequestDTO registerDTO) {
         // Check if email already exists
         if (userRepository.existsByEmail(registerDTO.getEmail())) {
-            throw new RuntimeException("Email already registered");
+            throw new ConflictException("Email already registered");
         }
 
         // Create new user
@@ -36,22 +47,65 @@ public class UserService {
     }
 
     // Find user by email
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userRepository.loadByEmail(email);
     }
 
     // Find user by ID
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
     // Get all staff members
+    @Transactional(readOnly = true)
     public List<User> getAllStaff() {
         return userRepository.findByRole(User.UserRole.STAFF);
     }
 
+    @Transactional
     public void updateUser(User user) {
         userRepository.save(user);
+        invalidationBus.publish(Invalidation.user(user.getId()));
 
     }
+
+    // Activate or deactivate a user; deactivation signs them out everywhere
+    @Transactional
+    public User setUserActive(Long userId, boolean active) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        user.setActive(active);
+        User saved = userRepository.save(user);
+        invalidationBus.publish(Invalidation.user(userId));
+        if (!active) {
+            tokenRevocationList.revokeAllForUser(saved.getEmail());
+        }
+        return saved;
+    }
+
+    // Set a staff member's home site; null clears it
+    @Transactional
+    public User setUserLocation(Long userId, Long locationId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        if (!user.getRole().equals(User.UserRole.STAFF)) {
+            throw new BusinessRuleException("Only staff have a home location");
+        }
+        user.setLocation(locationId == null ? null : locationService.resolve(locationId));
+        invalidationBus.publish(Invalidation.user(userId));
+        return userRepository.save(user);
+    }
+
+    // Change password and sign out every existing session
+    @Transactional
+    public void changePassword(User user, String newPassword) {
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+        invalidationBus.publish(Invalidation.user(user.getId()));
+        tokenRevocationList.revokeAllForUser(user.getEmail());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package com.carwash.service;
+
+import com.carwash.dto.VehicleImportResultDTO;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.VehicleRepository;
+import com.carwash.util.PlateNormalizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Streams a fleet's vehicles in from CSV or NDJSON and saves them in batches.
+// Only one batch is held in memory at a time; bad rows are reported, not fatal.
+@Slf4j
+@Service
+public class VehicleImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String[] CSV_COLUMNS = {"make", "model", "licenseplate", "color", "type"};
+
+    private final VehicleRepository vehicleRepository;
+    private final LicensePlateIndex licensePlateIndex;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public VehicleImportService(VehicleRepository vehicleRepository,
+                                LicensePlateIndex licensePlateIndex,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.vehicle-import.batch-size:500}") int batchSize,
+                                @Value("${app.vehicle-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.vehicleRepository = vehicleRepository;
+        this.licensePlateIndex = licensePlateIndex;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // One parsed line waiting for its batch
+    private static class Row {
+        final long line;
+        final Vehicle vehicle;
+        final String normalizedPlate;
+
+        Row(long line, Vehicle vehicle, String normalizedPlate) {
+            this.line = line;
+            this.vehicle = vehicle;
+            this.normalizedPlate = normalizedPlate;
+        }
+    }
+
+    // Import vehicles for a user from a CSV (with header) or NDJSON stream
+    public VehicleImportResultDTO importVehicles(InputStream input, Format format, User owner) throws IOException {
+        VehicleImportResultDTO result = new VehicleImportResultDTO();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int[] columnIndexes = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            // First CSV line is the header
+            if (format == Format.CSV && columnIndexes == null) {
+                columnIndexes = readCsvHeader(line);
+                continue;
+            }
+
+            result.setTotalRows(result.getTotalRows() + 1);
+            try {
+                Map<String, String> fields = format == Format.CSV
+                        ? readCsvRow(line, columnIndexes)
+                        : readJsonRow(line);
+                batch.add(toRow(lineNumber, fields, owner));
+            } catch (RuntimeException e) {
+                reject(result, lineNumber, null, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                saveBatch(batch, result);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            saveBatch(batch, result);
+        }
+
+        log.info("Vehicle import for {}: {} rows, {} imported, {} failed",
+                owner.getEmail(), result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private int[] readCsvHeader(String line) {
+        List<String> header = splitCsv(line);
+        int[] indexes = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                String name = header.get(j).trim().replace("_", "").toLowerCase(Locale.ROOT);
+                if (name.equals(CSV_COLUMNS[i])) {
+                    indexes[i] = j;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new BusinessRuleException("CSV header is missing column: " + CSV_COLUMNS[i]);
+            }
+        }
+        return indexes;
+    }
+
+    private Map<String, String> readCsvRow(String line, int[] columnIndexes) {
+        List<String> values = splitCsv(line);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            int index = columnIndexes[i];
+            fields.put(CSV_COLUMNS[i], index < values.size() ? values.get(index).trim() : null);
+        }
+        return fields;
+    }
+
+    private Map<String, String> readJsonRow(String line) {
+        Map<?, ?> json;
+        try {
+            json = objectMapper.readValue(line, Map.class);
+        } catch (RuntimeException e) {
+            throw new BusinessRuleException("Invalid JSON");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<?, ?> entry : json.entrySet()) {
+            String name = String.valueOf(entry.getKey()).replace("_", "").toLowerCase(Locale.ROOT);
+            fields.put(name, entry.getValue() == null ? null : String.valueOf(entry.getValue()).trim());
+        }
+        return fields;
+    }
+
+    // Split one CSV line, honouring double-quoted fields
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Field-level validation that needs no database access
+    private Row toRow(long lineNumber, Map<String, String> fields, User owner) {
+        String make = required(fields, "make");
+        String model = required(fields, "model");
+        String licensePlate = required(fields, "licenseplate");
+        String color = required(fields, "color");
+        String type = required(fields, "type");
+
+        String normalizedPlate = PlateNormalizer.normalize(licensePlate);
+        if (normalizedPlate.isEmpty()) {
+            throw new BusinessRuleException("Invalid license plate: " + licensePlate);
+        }
+
+        Vehicle.VehicleType vehicleType;
+        try {
+            vehicleType = Vehicle.VehicleType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Invalid vehicle type: " + type);
+        }
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake(make);
+        vehicle.setModel(model);
+        vehicle.setLicensePlate(licensePlate);
+        vehicle.setColor(color);
+        vehicle.setType(vehicleType);
+        vehicle.setUser(owner);
+        return new Row(lineNumber, vehicle, normalizedPlate);
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new BusinessRuleException("Missing " + name);
+        }
+        return value;
+    }
+
+    // Check a batch's plates against the file and the DB with one query, then batch-insert the rest
+    private void saveBatch(List<Row> batch, VehicleImportResultDTO result) {
+        Set<String> plates = new HashSet<>();
+        for (Row row : batch) {
+            plates.add(row.normalizedPlate);
+        }
+        Set<String> existing = new HashSet<>(vehicleRepository.findExistingNormalizedPlates(plates));
+
+        List<Row> toSave = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (Row row : batch) {
+            if (existing.contains(row.normalizedPlate)) {
+                reject(result, row.line, row.vehicle.getLicensePlate(), "License plate already registered");
+            } else if (!seen.add(row.normalizedPlate)) {
+                reject(result, row.line, row.vehicle.getLicensePlate(), "Duplicate license plate in file");
+            } else {
+                toSave.add(row);
+            }
+        }
+        if (toSave.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(toSave));
+            accept(result, toSave);
+        } catch (RuntimeException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            // Someone registered one of these plates concurrently - retry row by row
+            for (Row row : toSave) {
+                row.vehicle.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    accept(result, List.of(row));
+                } catch (RuntimeException rowError) {
+                    if (!isConstraintViolation(rowError)) {
+                        throw rowError;
+                    }
+                    reject(result, row.line, row.vehicle.getLicensePlate(), "License plate already registered");
+                }
+            }
+        }
+    }
+
+    // The flush inside the callback surfaces Hibernate's own exception (the shared EntityManager doesn't
+    // translate it); a violation found at commit arrives translated by the transaction manager
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void persist(List<Row> rows) {
+        for (Row row : rows) {
+            entityManager.persist(row.vehicle);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void accept(VehicleImportResultDTO result, List<Row> rows) {
+        for (Row row : rows) {
+            licensePlateIndex.put(row.vehicle);
+        }
+        result.setImported(result.getImported() + rows.size());
+    }
+
+    private void reject(VehicleImportResultDTO result, long line, String licensePlate, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() >= maxReportedErrors) {
+            result.setErrorsTruncated(true);
+            return;
+        }
+        VehicleImportResultDTO.RowError error = new VehicleImportResultDTO.RowError();
+        error.setLine(line);
+        error.setLicensePlate(licensePlate);
+        error.setMessage(message);
+        result.getErrors().add(error);
+    }
+}
@@ -1,54 +1,119 @@
 package com.carwash.service;
 
 
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.PermissionDeniedException;
 import com.carwash.model.User;
 import com.carwash.model.Vehicle;
 import com.carwash.repository.VehicleRepository;
+import com.carwash.util.PlateNormalizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class VehicleService {
 
     private final VehicleRepository vehicleRepository;
+    private final LicensePlateIndex licensePlateIndex;
+
+    public enum PlateMatchType {
+        EXACT,      // Same plate after normalization
+        TOLERANT,   // Only differs by O/0, I/1, B/8
+        AMBIGUOUS,  // Several vehicles fold to the same plate
+        NONE
+    }
+
+    // Result of a plate lookup at the gate
+    public record PlateLookup(PlateMatchType matchType, List<Vehicle> vehicles) {
+    }
 
     // Add new vehicle for a user
+    @Transactional
     public Vehicle addVehicle(Vehicle vehicle, User user) {
         // Set the vehicle owner
         vehicle.setUser(user);
 
         // Save to database
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        licensePlateIndex.put(saved);
+        return saved;
     }
 
     // Get all vehicles for a user
+    @Transactional(readOnly = true)
     public List<Vehicle> getUserVehicles(User user) {
         return vehicleRepository.findByUser(user);
     }
 
     // Get vehicle by ID
+    @Transactional(readOnly = true)
     public Vehicle getVehicleById(Long id) {
         return vehicleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+                .orElseThrow(() -> new NotFoundException("Vehicle not found"));
     }
 
     // Delete vehicle
+    @Transactional
     public void deleteVehicle(Long id, User user) {
         Vehicle vehicle = getVehicleById(id);
 
         // Check if vehicle belongs to user
         if (!vehicle.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("You can only delete your own vehicles");
+            throw new PermissionDeniedException("You can only delete your own vehicles");
         }
 
         vehicleRepository.delete(vehicle);
+        licensePlateIndex.remove(id);
     }
 
     // Check if vehicle belongs to user
+    @Transactional(readOnly = true)
     public boolean vehicleBelongsToUser(Long vehicleId, User user) {
         Vehicle vehicle = getVehicleById(vehicleId);
         return vehicle.getUser().getId().equals(user.getId());
     }
-}
\ No newline at end of file
+
+    // Find vehicle by plate for drive-up check-in: in-memory index first, then tolerant matching
+    @Transactional(readOnly = true)
+    public PlateLookup findByPlate(String licensePlate) {
+        String normalized = PlateNormalizer.normalize(licensePlate);
+        if (normalized.isEmpty()) {
+            throw new BusinessRuleException("License plate is required");
+        }
+
+        Long vehicleId = licensePlateIndex.findExact(normalized);
+        if (vehicleId != null) {
+            Optional<Vehicle> vehicle = vehicleRepository.findById(vehicleId);
+            if (vehicle.isPresent()) {
+                return new PlateLookup(PlateMatchType.EXACT, List.of(vehicle.get()));
+            }
+            // Deleted elsewhere - drop the stale entry
+            licensePlateIndex.remove(vehicleId);
+        }
+
+        // Not indexed on this instance yet (e.g. added through another node)
+        Optional<Vehicle> fromDb = vehicleRepository.findByNormalizedPlate(normalized);
+        if (fromDb.isPresent()) {
+            licensePlateIndex.put(fromDb.get());
+            return new PlateLookup(PlateMatchType.EXACT, List.of(fromDb.get()));
+        }
+
+        Set<Long> candidateIds = licensePlateIndex.findTolerant(normalized);
+        if (candidateIds.isEmpty()) {
+            return new PlateLookup(PlateMatchType.NONE, List.of());
+        }
+        List<Vehicle> candidates = vehicleRepository.findAllById(candidateIds);
+        if (candidates.isEmpty()) {
+            return new PlateLookup(PlateMatchType.NONE, List.of());
+        }
+        return new PlateLookup(
+                candidates.size() == 1 ? PlateMatchType.TOLERANT : PlateMatchType.AMBIGUOUS,
+                candidates);
+    }
+}
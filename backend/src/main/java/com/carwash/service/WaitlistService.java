@@ -0,0 +1,354 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.exception.PermissionDeniedException;
+import com.carwash.invalidation.Invalidation;
+import com.carwash.invalidation.InvalidationBus;
+import com.carwash.model.Booking;
+import com.carwash.model.Location;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.model.WaitlistEntry;
+import com.carwash.repository.BookingRepository;
+import com.carwash.repository.VehicleRepository;
+import com.carwash.repository.WaitlistEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+// Waitlist for booked-out slots. WAITING rows live in waitlist_entries and are mirrored in memory as
+// one priority queue per (location, slot bucket). When a booking is cancelled, its bucket's queue is polled
+// (O(log n)) and the best waiter is booked into the freed time; a conditional update on the row
+// makes sure concurrent cancellations never promote the same entry twice.
+// Every node queues every waiter: joins, withdrawals and promotions go out on the invalidation bus, and
+// the periodic expiry pass (and a flush after missed messages) re-reads the WAITING rows.
+@Slf4j
+@org.springframework.stereotype.Service
+public class WaitlistService {
+
+    public static final int MAX_ENTRIES_PER_CUSTOMER = 5;
+
+    // In-memory copy of a WAITING entry. A queued copy no longer in `live` is stale and skipped when polled.
+    private record Waiter(long id, long locationId, int priority, LocalDateTime createdAt,
+                          LocalDateTime windowStart, LocalDateTime windowEnd) {
+
+        boolean covers(LocalDateTime time) {
+            return !time.isBefore(windowStart) && !time.isAfter(windowEnd);
+        }
+    }
+
+    private record SlotKey(long locationId, LocalDateTime bucket) {
+    }
+
+    // Highest priority first, then first come first served
+    private static final Comparator<Waiter> OFFER_ORDER = Comparator.comparingInt(Waiter::priority).reversed()
+            .thenComparing(Waiter::createdAt)
+            .thenComparingLong(Waiter::id);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final ServiceService serviceService;
+    private final LocationService locationService;
+    private final VehicleRepository vehicleRepository;
+    private final VehicleService vehicleService;
+    private final InvalidationBus invalidationBus;
+    private final TransactionTemplate newTransaction;
+    private final int slotMinutes;
+    private final int maxWindowHours;
+    private final int maxAttempts;
+
+    private final Map<Long, Waiter> live = new ConcurrentHashMap<>();
+    private final Map<SlotKey, PriorityBlockingQueue<Waiter>> slots = new ConcurrentHashMap<>();
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           BookingRepository bookingRepository,
+                           BookingService bookingService,
+                           ServiceService serviceService,
+                           LocationService locationService,
+                           VehicleRepository vehicleRepository,
+                           VehicleService vehicleService,
+                           InvalidationBus invalidationBus,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.waitlist.slot-minutes:30}") int slotMinutes,
+                           @Value("${app.waitlist.max-window-hours:4}") int maxWindowHours,
+                           @Value("${app.waitlist.max-attempts:20}") int maxAttempts) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.serviceService = serviceService;
+        this.locationService = locationService;
+        this.vehicleRepository = vehicleRepository;
+        this.vehicleService = vehicleService;
+        this.invalidationBus = invalidationBus;
+        // Promotions run after the cancelling transaction has committed, so they need their own
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.slotMinutes = slotMinutes;  // Must divide 60
+        this.maxWindowHours = maxWindowHours;
+        this.maxAttempts = maxAttempts;
+    }
+
+    // Join the waitlist for any slot starting in [windowStart, windowEnd] (windowEnd defaults to windowStart)
+    // at a location (null = default location)
+    @Transactional
+    public WaitlistEntry joinWaitlist(User customer, Long locationId, Long serviceId, Long vehicleId,
+                                      LocalDateTime windowStart, LocalDateTime windowEnd, String notes) {
+
+        Location location = locationService.resolve(locationId);
+        Service service = serviceService.getServiceById(serviceId);
+        if (!serviceService.isOfferedAt(service, location.getId())) {
+            throw new BusinessRuleException("Service is not offered at " + location.getName());
+        }
+
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new NotFoundException("Vehicle not found"));
+
+        if (!vehicleService.vehicleBelongsToUser(vehicleId, customer)) {
+            throw new PermissionDeniedException("Vehicle does not belong to you");
+        }
+
+        if (windowStart == null || windowStart.isBefore(LocalDateTime.now())) {
+            throw new BusinessRuleException("Waitlist window must be in the future");
+        }
+        if (windowEnd == null) {
+            windowEnd = windowStart;
+        }
+        if (windowEnd.isBefore(windowStart)) {
+            throw new BusinessRuleException("Window end must not be before window start");
+        }
+        if (Duration.between(windowStart, windowEnd).toMinutes() > maxWindowHours * 60L) {
+            throw new BusinessRuleException("Waitlist window is limited to " + maxWindowHours + " hours");
+        }
+
+        if (waitlistEntryRepository.countByCustomerAndStatus(customer, WaitlistEntry.WaitlistStatus.WAITING)
+                >= MAX_ENTRIES_PER_CUSTOMER) {
+            throw new BusinessRuleException("You can wait for at most " + MAX_ENTRIES_PER_CUSTOMER + " slots at a time");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomer(customer);
+        entry.setService(service);
+        entry.setVehicle(vehicle);
+        entry.setLocation(location);
+        entry.setWindowStart(windowStart);
+        entry.setWindowEnd(windowEnd);
+        entry.setNotes(notes);
+        // Regulars go first: priority is the number of completed washes
+        long completed = bookingRepository.countByCustomerAndStatus(customer, Booking.BookingStatus.COMPLETED);
+        entry.setPriority((int) Math.min(completed, Integer.MAX_VALUE));
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        invalidationBus.publish(Invalidation.waitlist(saved.getId()));
+
+        // Offer it only once the row is committed, so a promotion can always see it
+        Waiter waiter = toWaiter(saved);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                offer(waiter);
+            }
+        });
+        return saved;
+    }
+
+    // Get waitlist entries for customer
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getCustomerEntries(User customer) {
+        return waitlistEntryRepository.findByCustomerOrderByCreatedAtDesc(customer);
+    }
+
+    // Withdraw a waiting entry
+    @Transactional
+    public WaitlistEntry leaveWaitlist(Long entryId, User customer) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new NotFoundException("Waitlist entry not found"));
+
+        if (!entry.getCustomer().getId().equals(customer.getId())) {
+            throw new PermissionDeniedException("You can only withdraw your own waitlist entries");
+        }
+        if (waitlistEntryRepository.markCancelled(entryId) == 0) {
+            throw new BusinessRuleException("Only waiting entries can be withdrawn");
+        }
+
+        live.remove(entryId);
+        invalidationBus.publish(Invalidation.waitlist(entryId));
+        entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+        return entry;
+    }
+
+    // A cancellation frees its start time for the waitlist
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingEvent(BookingEvent event) {
+        if (event.getType() != BookingEvent.Type.STATUS_CHANGED
+                || event.getStatus() != Booking.BookingStatus.CANCELLED
+                || event.getOldStatus() == Booking.BookingStatus.CANCELLED
+                || !event.getBookingDateTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        promote(event.getLocationId(), event.getBookingDateTime()).ifPresent(booking ->
+                log.info("Booking {} from the waitlist took the slot freed by booking {}",
+                        booking.getId(), event.getBookingId()));
+    }
+
+    // Offer a freed start time at a location to waiters in order until one booking sticks
+    public Optional<Booking> promote(long locationId, LocalDateTime freedTime) {
+        PriorityBlockingQueue<Waiter> queue = slots.get(new SlotKey(locationId, bucketOf(freedTime)));
+        if (queue == null) {
+            return Optional.empty();
+        }
+
+        List<Waiter> passedOver = new ArrayList<>();
+        try {
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                Waiter waiter = queue.poll();
+                if (waiter == null) {
+                    break;
+                }
+                if (live.get(waiter.id()) != waiter) {
+                    continue;  // Promoted, withdrawn or expired since it was queued
+                }
+                if (!waiter.covers(freedTime)) {
+                    passedOver.add(waiter);  // Same bucket, outside this waiter's window
+                    continue;
+                }
+                Booking booking = tryPromote(waiter, freedTime);
+                if (booking != null) {
+                    live.remove(waiter.id(), waiter);
+                    return Optional.of(booking);
+                }
+                passedOver.add(waiter);
+            }
+        } finally {
+            // Still waiting - keep their place for the next cancellation
+            for (Waiter waiter : passedOver) {
+                if (live.get(waiter.id()) == waiter) {
+                    queue.add(waiter);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Book the waiter into the freed time and mark the entry promoted, all or nothing
+    private Booking tryPromote(Waiter waiter, LocalDateTime time) {
+        try {
+            return newTransaction.execute(status -> {
+                WaitlistEntry entry = waitlistEntryRepository.findById(waiter.id()).orElse(null);
+                if (entry == null || entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+                    live.remove(waiter.id(), waiter);
+                    return null;
+                }
+
+                Booking booking = bookingService.createBooking(entry.getCustomer(), entry.getLocation().getId(),
+                        entry.getService().getId(), entry.getVehicle().getId(), time, entry.getNotes(), 0);
+
+                // Lost to a concurrent promotion of the same entry
+                if (waitlistEntryRepository.markPromoted(entry.getId(), booking.getId()) == 0) {
+                    status.setRollbackOnly();
+                    live.remove(waiter.id(), waiter);
+                    return null;
+                }
+                invalidationBus.publish(Invalidation.waitlist(entry.getId()));
+                return booking;
+            });
+        } catch (RuntimeException e) {
+            // Typically the freed gap is too short for this waiter's service
+            log.debug("Waitlist entry {} could not take {}: {}", waiter.id(), time, e.getMessage());
+            return null;
+        }
+    }
+
+    // Load waiting entries into memory at startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        log.info("Waitlist loaded: {} waiting entries", reload());
+    }
+
+    // Queue any WAITING row this node doesn't know yet (joined elsewhere while a message was lost).
+    // Entries that stopped waiting are not removed here: a stale copy is dropped when it is polled.
+    public int reload() {
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findByStatusAndWindowEndAfter(
+                WaitlistEntry.WaitlistStatus.WAITING, LocalDateTime.now());
+        for (WaitlistEntry entry : waiting) {
+            if (!live.containsKey(entry.getId())) {
+                offer(toWaiter(entry));
+            }
+        }
+        return waiting.size();
+    }
+
+    // Another node changed an entry: queue it if it is waiting, forget it otherwise
+    public void refresh(long entryId) {
+        Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(entryId);
+        if (entry.isPresent() && entry.get().getStatus() == WaitlistEntry.WaitlistStatus.WAITING
+                && entry.get().getWindowEnd().isAfter(LocalDateTime.now())) {
+            if (!live.containsKey(entryId)) {
+                offer(toWaiter(entry.get()));
+            }
+        } else {
+            live.remove(entryId);
+        }
+    }
+
+    // Whether this node has the entry queued (tests)
+    boolean isQueued(long entryId) {
+        return live.containsKey(entryId);
+    }
+
+    // Expire entries whose window has passed, in the table and in memory
+    @Scheduled(fixedDelayString = "${app.waitlist.expire-interval-ms:900000}")
+    public void expirePastWindows() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer expired = newTransaction.execute(status -> waitlistEntryRepository.expireBefore(now));
+
+        live.values().removeIf(waiter -> waiter.windowEnd().isBefore(now));
+        slots.keySet().removeIf(key -> key.bucket().plusMinutes(slotMinutes).isBefore(now));
+        reload();
+
+        if (expired != null && expired > 0) {
+            log.info("Expired {} waitlist entries", expired);
+        }
+    }
+
+    // Queue the waiter in every bucket its window touches
+    private void offer(Waiter waiter) {
+        live.put(waiter.id(), waiter);
+        for (LocalDateTime bucket = bucketOf(waiter.windowStart()); !bucket.isAfter(waiter.windowEnd());
+             bucket = bucket.plusMinutes(slotMinutes)) {
+            slots.computeIfAbsent(new SlotKey(waiter.locationId(), bucket),
+                    key -> new PriorityBlockingQueue<>(11, OFFER_ORDER)).add(waiter);
+        }
+    }
+
+    private LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS).plusMinutes(time.getMinute() / slotMinutes * slotMinutes);
+    }
+
+    private static Waiter toWaiter(WaitlistEntry entry) {
+        return new Waiter(entry.getId(), entry.getLocation().getId(), entry.getPriority(), entry.getCreatedAt(),
+                entry.getWindowStart(), entry.getWindowEnd());
+    }
+}
@@ -6,6 +6,7 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -17,21 +18,56 @@ public class JwtUtil {
     // Token validity - 24 hours
     private final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24 hours in milliseconds
 
+    // Issue time in milliseconds; iat only has whole seconds, too coarse to order a login against a revocation
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     private Key getSigningKey() {
         return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
     }
 
     // Generate token for user
     public String generateToken(String email, String role) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())  // jti, so a single token can be revoked
                 .setSubject(email)
                 .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Token lifetime in milliseconds
+    public long getExpirationMillis() {
+        return EXPIRATION_TIME;
+    }
+
+    // Verify and parse the token once; null if invalid or expired
+    public Claims parseToken(String token) {
+        try {
+            return Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // When the token was issued, in milliseconds; tokens issued before the claim existed fall back to
+    // the start of their iat second. Null if the token carries neither.
+    public Long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? null : issuedAt.getTime();
+    }
+
     // Extract email from token
     public String extractEmail(String token) {
         return Jwts.parserBuilder()
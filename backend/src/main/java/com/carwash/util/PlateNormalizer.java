@@ -0,0 +1,38 @@
+package com.carwash.util;
+
+// License plate normalization for lookups: "kda 123a", "KDA-123A" and "KDA123A" are the same plate
+public final class PlateNormalizer {
+
+    private PlateNormalizer() {
+    }
+
+    // Uppercase and strip everything except letters and digits
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = Character.toUpperCase(plate.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Collapse characters that OCR and people commonly confuse (O/0, I/1, B/8)
+    // Input must already be normalized
+    public static String fold(String normalizedPlate) {
+        char[] chars = normalizedPlate.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            switch (chars[i]) {
+                case 'O' -> chars[i] = '0';
+                case 'I' -> chars[i] = '1';
+                case 'B' -> chars[i] = '8';
+                default -> { }
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,25 @@
+-- Append-only history of booking transitions, written in batches by BookingAuditTrail
+CREATE TABLE booking_audit (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id   BIGINT       NOT NULL,
+    event_type   VARCHAR(32)  NOT NULL,
+    actor        VARCHAR(255) NOT NULL,
+    old_status   VARCHAR(255),
+    new_status   VARCHAR(255),
+    old_staff_id BIGINT,
+    new_staff_id BIGINT,
+    occurred_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_booking_audit_booking ON booking_audit (booking_id, occurred_at);
+
+-- Rows are never changed or removed once written
+CREATE FUNCTION booking_audit_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'booking_audit is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER booking_audit_no_update_delete
+    BEFORE UPDATE OR DELETE ON booking_audit
+    FOR EACH ROW EXECUTE FUNCTION booking_audit_append_only();
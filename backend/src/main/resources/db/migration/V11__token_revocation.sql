@@ -0,0 +1,16 @@
+-- Revoked JWTs (logout) and per-user cut-offs (password change, deactivation).
+-- TokenRevocationList keeps both in memory and reloads them from here.
+CREATE TABLE revoked_tokens (
+    jti        VARCHAR(64)  PRIMARY KEY,
+    subject    VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,   -- Row can go once the token would have expired anyway
+    revoked_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+
+-- Tokens for subject issued before not_before are rejected
+CREATE TABLE token_not_before (
+    subject    VARCHAR(255) PRIMARY KEY,
+    not_before TIMESTAMP(6) NOT NULL
+);
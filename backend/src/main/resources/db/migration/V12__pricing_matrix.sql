@@ -0,0 +1,33 @@
+-- Per-vehicle-type prices and durations. A service without a row for a type uses its flat price/duration.
+CREATE TABLE service_vehicle_pricing (
+    service_id       BIGINT         NOT NULL REFERENCES service (id),
+    vehicle_type     VARCHAR(255)   NOT NULL,
+    price            NUMERIC(38, 2) NOT NULL,
+    duration_minutes INTEGER        NOT NULL,
+    PRIMARY KEY (service_id, vehicle_type)
+);
+
+-- Optional extras. flag_bit is the add-on's bit in bookings.add_on_mask and is never reused.
+CREATE TABLE add_ons (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code          VARCHAR(64)    NOT NULL UNIQUE,
+    name          VARCHAR(255)   NOT NULL,
+    price         NUMERIC(38, 2) NOT NULL,
+    extra_minutes INTEGER        NOT NULL DEFAULT 0,
+    flag_bit      INTEGER        NOT NULL UNIQUE CHECK (flag_bit BETWEEN 0 AND 30),
+    active        BOOLEAN        NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE add_on_vehicle_pricing (
+    add_on_id     BIGINT         NOT NULL REFERENCES add_ons (id),
+    vehicle_type  VARCHAR(255)   NOT NULL,
+    price         NUMERIC(38, 2) NOT NULL,
+    extra_minutes INTEGER        NOT NULL,
+    PRIMARY KEY (add_on_id, vehicle_type)
+);
+
+-- What was booked: resolved duration (drives slot checks) and chosen add-ons
+ALTER TABLE bookings ADD COLUMN duration_minutes INTEGER;
+ALTER TABLE bookings ADD COLUMN add_on_mask INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE bookings_archive ADD COLUMN duration_minutes INTEGER;
+ALTER TABLE bookings_archive ADD COLUMN add_on_mask INTEGER NOT NULL DEFAULT 0;
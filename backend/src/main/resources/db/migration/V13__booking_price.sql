@@ -0,0 +1,4 @@
+-- Price actually charged, snapshotted when the booking is made (vehicle type, add-ons and demand
+-- multiplier applied). Older rows stay NULL and revenue falls back to the service's flat price.
+ALTER TABLE bookings ADD COLUMN price NUMERIC(38, 2);
+ALTER TABLE bookings_archive ADD COLUMN price NUMERIC(38, 2);
@@ -0,0 +1,91 @@
+-- Car-wash sites. Every booking (and subscription / waitlist entry) belongs to one site, and all slot
+-- checks, calendars and demand counters are keyed by it. schema_name optionally names a separate
+-- database schema holding the site's bookings (see the partitioning below).
+CREATE TABLE locations (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code        VARCHAR(32)  NOT NULL UNIQUE,
+    name        VARCHAR(255) NOT NULL,
+    address     TEXT,
+    schema_name VARCHAR(63) UNIQUE,
+    active      BOOLEAN      NOT NULL DEFAULT TRUE
+);
+
+-- Existing data becomes the first site
+INSERT INTO locations (id, code, name) VALUES (1, 'MAIN', 'Main site');
+SELECT setval(pg_get_serial_sequence('locations', 'id'), 1);
+
+-- NULL = service offered at every site
+ALTER TABLE service ADD COLUMN location_id BIGINT REFERENCES locations (id);
+
+-- Staff home site (NULL for customers and roaming staff)
+ALTER TABLE users ADD COLUMN location_id BIGINT REFERENCES locations (id);
+
+-- Constant defaults keep these metadata-only on large tables; dropped afterwards so new rows must say
+ALTER TABLE bookings ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1 REFERENCES locations (id);
+ALTER TABLE bookings ALTER COLUMN location_id DROP DEFAULT;
+ALTER TABLE bookings_archive ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE bookings_archive ALTER COLUMN location_id DROP DEFAULT;
+ALTER TABLE subscriptions ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1 REFERENCES locations (id);
+ALTER TABLE subscriptions ALTER COLUMN location_id DROP DEFAULT;
+ALTER TABLE waitlist_entries ADD COLUMN location_id BIGINT NOT NULL DEFAULT 1 REFERENCES locations (id);
+ALTER TABLE waitlist_entries ALTER COLUMN location_id DROP DEFAULT;
+
+-- bookings and bookings_archive become partitioned by site. The existing tables are the DEFAULT
+-- partitions (public.bookings_shared, public.bookings_archive_shared) and hold every site without
+-- a schema. A site given a schema_name gets its own partitions in that schema (LocationSchemas), so its
+-- rows, indexes and vacuuming are separate from the other sites'. Queries keep using the parent tables.
+-- The existing indexes and foreign keys are renamed out of the way and re-attached to the new parents,
+-- so no index is rebuilt.
+ALTER TABLE bookings RENAME TO bookings_shared;
+ALTER INDEX bookings_pkey RENAME TO bookings_shared_pkey;
+ALTER INDEX idx_bookings_date_time RENAME TO bookings_shared_date_time_idx;
+ALTER INDEX idx_bookings_user_date_time RENAME TO bookings_shared_user_date_time_idx;
+ALTER INDEX idx_bookings_status_date_time RENAME TO bookings_shared_status_date_time_idx;
+ALTER INDEX idx_bookings_staff_status RENAME TO bookings_shared_staff_status_idx;
+ALTER INDEX idx_bookings_vehicle_date_time RENAME TO bookings_shared_vehicle_date_time_idx;
+-- Unique indexes on a partitioned table must include the partition key; a subscription has one site,
+-- so adding location_id doesn't change what it enforces
+DROP INDEX ux_bookings_subscription_occurrence;
+
+-- Partitions can't share an identity column, so ids come from a plain sequence; ids stay unique across
+-- sites, and each partition keeps its own primary key on id
+ALTER TABLE bookings_shared ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE bookings_id_seq;
+SELECT setval('bookings_id_seq', COALESCE((SELECT MAX(id) FROM bookings_shared), 0) + 1, false);
+
+CREATE TABLE bookings (LIKE bookings_shared INCLUDING DEFAULTS) PARTITION BY LIST (location_id);
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_id_seq');
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+ALTER TABLE bookings ADD FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE bookings ADD FOREIGN KEY (service_id) REFERENCES service (id);
+ALTER TABLE bookings ADD FOREIGN KEY (vehicle_id) REFERENCES vehicles (id);
+ALTER TABLE bookings ADD FOREIGN KEY (assigned_staff_id) REFERENCES users (id);
+ALTER TABLE bookings ADD FOREIGN KEY (subscription_id) REFERENCES subscriptions (id);
+ALTER TABLE bookings ADD FOREIGN KEY (location_id) REFERENCES locations (id);
+CREATE INDEX idx_bookings_date_time ON bookings (booking_date_time);
+CREATE INDEX idx_bookings_user_date_time ON bookings (user_id, booking_date_time);
+CREATE INDEX idx_bookings_status_date_time ON bookings (status, booking_date_time);
+CREATE INDEX idx_bookings_staff_status ON bookings (assigned_staff_id, status);
+CREATE INDEX idx_bookings_vehicle_date_time ON bookings (vehicle_id, booking_date_time);
+CREATE UNIQUE INDEX ux_bookings_subscription_occurrence ON bookings (subscription_id, booking_date_time, location_id)
+    WHERE subscription_id IS NOT NULL;
+-- Per-site slot checks and calendars
+CREATE INDEX idx_bookings_location_date_time ON bookings (location_id, booking_date_time);
+ALTER TABLE bookings ATTACH PARTITION bookings_shared DEFAULT;
+
+ALTER TABLE bookings_archive RENAME TO bookings_archive_shared;
+ALTER INDEX bookings_archive_pkey RENAME TO bookings_archive_shared_pkey;
+ALTER INDEX idx_bookings_archive_user_date_time RENAME TO bookings_archive_shared_user_date_time_idx;
+ALTER INDEX idx_bookings_archive_status_date_time RENAME TO bookings_archive_shared_status_date_time_idx;
+ALTER INDEX idx_bookings_archive_date_time RENAME TO bookings_archive_shared_date_time_idx;
+
+CREATE TABLE bookings_archive (LIKE bookings_archive_shared INCLUDING DEFAULTS) PARTITION BY LIST (location_id);
+ALTER TABLE bookings_archive ADD FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE bookings_archive ADD FOREIGN KEY (service_id) REFERENCES service (id);
+ALTER TABLE bookings_archive ADD FOREIGN KEY (vehicle_id) REFERENCES vehicles (id);
+ALTER TABLE bookings_archive ADD FOREIGN KEY (assigned_staff_id) REFERENCES users (id);
+CREATE INDEX idx_bookings_archive_user_date_time ON bookings_archive (user_id, booking_date_time);
+CREATE INDEX idx_bookings_archive_status_date_time ON bookings_archive (status, booking_date_time);
+CREATE INDEX idx_bookings_archive_date_time ON bookings_archive (booking_date_time);
+CREATE INDEX idx_bookings_archive_location_date_time ON bookings_archive (location_id, booking_date_time);
+ALTER TABLE bookings_archive ATTACH PARTITION bookings_archive_shared DEFAULT;
@@ -0,0 +1,10 @@
+-- Per-site, per-hour booking history for capacity forecasting. Built from bookings and
+-- bookings_archive by a nightly pass that re-rolls only the last few days, so forecasts never
+-- re-read raw history. service_minutes spreads each booking's duration over the hours it covers.
+CREATE TABLE booking_hourly_rollups (
+    location_id BIGINT NOT NULL REFERENCES locations (id),
+    hour_start TIMESTAMP NOT NULL,
+    bookings INTEGER NOT NULL,
+    service_minutes INTEGER NOT NULL,
+    PRIMARY KEY (location_id, hour_start)
+);
@@ -0,0 +1,44 @@
+-- Baseline schema, matching what ddl-auto=update produced for the JPA entities.
+-- Databases that already have these tables are baselined at this version and skip it.
+
+CREATE TABLE users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email        VARCHAR(255) NOT NULL UNIQUE,
+    password     VARCHAR(255) NOT NULL,
+    full_name    VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) UNIQUE,
+    role         VARCHAR(255) NOT NULL,
+    active       BOOLEAN      NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE service (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(255)   NOT NULL,
+    description      TEXT,
+    price            NUMERIC(38, 2) NOT NULL,
+    duration_minutes INTEGER        NOT NULL,
+    active           BOOLEAN        NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE vehicles (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    make          VARCHAR(255) NOT NULL,
+    model         VARCHAR(255) NOT NULL,
+    license_plate VARCHAR(255) NOT NULL,
+    color         VARCHAR(255) NOT NULL,
+    type          VARCHAR(255) NOT NULL,
+    user_id       BIGINT       NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE bookings (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT       NOT NULL REFERENCES users (id),
+    service_id        BIGINT       NOT NULL REFERENCES service (id),
+    vehicle_id        BIGINT       NOT NULL REFERENCES vehicles (id),
+    booking_date_time TIMESTAMP(6) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    notes             TEXT,
+    rating            INTEGER,
+    review            VARCHAR(255),
+    assigned_staff_id BIGINT REFERENCES users (id)
+);
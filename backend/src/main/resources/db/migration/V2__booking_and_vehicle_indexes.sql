@@ -0,0 +1,20 @@
+-- Indexes driven by the BookingRepository / VehicleRepository finders.
+
+-- findByBookingDateTimeBetween, findByBookingDateTimeAfterAndBookingDateTimeBefore (slot checks, schedules)
+CREATE INDEX idx_bookings_date_time ON bookings (booking_date_time);
+
+-- findByCustomer (my-bookings), newest first
+CREATE INDEX idx_bookings_user_date_time ON bookings (user_id, booking_date_time);
+
+-- findByStatus, countByStatus and the COMPLETED revenue queries
+CREATE INDEX idx_bookings_status_date_time ON bookings (status, booking_date_time);
+
+-- findByAssignedStaff (staff work queue)
+CREATE INDEX idx_bookings_staff_status ON bookings (assigned_staff_id, status);
+
+-- findByUser
+CREATE INDEX idx_vehicles_user ON vehicles (user_id);
+
+-- One vehicle per plate, ignoring case, spaces and dashes ("KDA 123A" = "kda-123a")
+CREATE UNIQUE INDEX ux_vehicles_license_plate_normalized
+    ON vehicles (UPPER(REGEXP_REPLACE(license_plate, '[^A-Za-z0-9]', '', 'g')));
@@ -0,0 +1,2 @@
+-- Gate check-in: a vehicle's bookings for today
+CREATE INDEX idx_bookings_vehicle_date_time ON bookings (vehicle_id, booking_date_time);
@@ -0,0 +1,4 @@
+-- Vehicles move from IDENTITY to a pooled sequence (allocationSize = 50) so inserts can be batched.
+-- The sequence starts past the current ids; Hibernate hands out the 50 ids ending at each value.
+CREATE SEQUENCE vehicles_seq INCREMENT BY 50;
+SELECT setval('vehicles_seq', COALESCE((SELECT MAX(id) FROM vehicles), 0) + 50, false);
@@ -0,0 +1,19 @@
+-- Cold storage for closed bookings. BookingArchiver moves COMPLETED/CANCELLED rows older than
+-- app.archive.horizon-days here, so the hot bookings table only holds recent and open work.
+CREATE TABLE bookings_archive (
+    id                BIGINT       PRIMARY KEY,
+    user_id           BIGINT       NOT NULL REFERENCES users (id),
+    service_id        BIGINT       NOT NULL REFERENCES service (id),
+    vehicle_id        BIGINT       NOT NULL REFERENCES vehicles (id),
+    booking_date_time TIMESTAMP(6) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    notes             TEXT,
+    rating            INTEGER,
+    review            VARCHAR(255),
+    assigned_staff_id BIGINT REFERENCES users (id),
+    archived_at       TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_bookings_archive_user_date_time ON bookings_archive (user_id, booking_date_time);
+CREATE INDEX idx_bookings_archive_status_date_time ON bookings_archive (status, booking_date_time);
+CREATE INDEX idx_bookings_archive_date_time ON bookings_archive (booking_date_time);
@@ -0,0 +1,12 @@
+-- Running rating totals, maintained by BookingService.rateBooking and rebuilt by RatingAggregateService.rebuild()
+CREATE TABLE service_rating_stats (
+    service_id   BIGINT PRIMARY KEY REFERENCES service (id),
+    rating_sum   BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE staff_rating_stats (
+    staff_id     BIGINT PRIMARY KEY REFERENCES users (id),
+    rating_sum   BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0
+);
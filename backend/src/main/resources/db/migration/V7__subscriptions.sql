@@ -0,0 +1,26 @@
+-- Recurring washes. Only a rolling window of occurrences is written to bookings;
+-- materialized_until is the last date already generated, moved forward by SubscriptionService.
+CREATE TABLE subscriptions (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id            BIGINT       NOT NULL REFERENCES users (id),
+    service_id         BIGINT       NOT NULL REFERENCES service (id),
+    vehicle_id         BIGINT       NOT NULL REFERENCES vehicles (id),
+    start_date         DATE         NOT NULL,
+    time_of_day        TIME         NOT NULL,
+    interval_weeks     INTEGER      NOT NULL,
+    end_date           DATE,
+    notes              TEXT,
+    active             BOOLEAN      NOT NULL DEFAULT TRUE,
+    materialized_until DATE         NOT NULL,
+    created_at         TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_subscriptions_user ON subscriptions (user_id);
+CREATE INDEX idx_subscriptions_active_materialized ON subscriptions (materialized_until, id) WHERE active;
+
+ALTER TABLE bookings ADD COLUMN subscription_id BIGINT REFERENCES subscriptions (id);
+ALTER TABLE bookings_archive ADD COLUMN subscription_id BIGINT;
+
+-- One booking per occurrence, however many times the window is extended
+CREATE UNIQUE INDEX ux_bookings_subscription_occurrence ON bookings (subscription_id, booking_date_time)
+    WHERE subscription_id IS NOT NULL;
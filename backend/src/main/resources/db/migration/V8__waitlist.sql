@@ -0,0 +1,18 @@
+-- Customers waiting for a slot in [window_start, window_end]. WaitlistService mirrors the WAITING rows
+-- in per-slot priority queues and promotes one into a booking when a booking in the window is cancelled.
+CREATE TABLE waitlist_entries (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id      BIGINT       NOT NULL REFERENCES users (id),
+    service_id   BIGINT       NOT NULL REFERENCES service (id),
+    vehicle_id   BIGINT       NOT NULL REFERENCES vehicles (id),
+    window_start TIMESTAMP(6) NOT NULL,
+    window_end   TIMESTAMP(6) NOT NULL,
+    notes        TEXT,
+    priority     INTEGER      NOT NULL DEFAULT 0,
+    status       VARCHAR(255) NOT NULL,
+    booking_id   BIGINT,
+    created_at   TIMESTAMP(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_waitlist_entries_user ON waitlist_entries (user_id);
+CREATE INDEX idx_waitlist_entries_waiting_end ON waitlist_entries (window_end) WHERE status = 'WAITING';
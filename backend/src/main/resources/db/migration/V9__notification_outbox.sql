@@ -0,0 +1,17 @@
+-- Customer notifications waiting to be sent. Rows are written in the same transaction as the booking change
+-- and drained by NotificationDispatcher (at-least-once; the row id doubles as an idempotency key for the sink).
+CREATE TABLE notification_outbox (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id        BIGINT        NOT NULL,
+    customer_id       BIGINT        NOT NULL,
+    type              VARCHAR(64)   NOT NULL,
+    booking_date_time TIMESTAMP(6)  NOT NULL,
+    status            VARCHAR(16)   NOT NULL,
+    attempts          INTEGER       NOT NULL DEFAULT 0,
+    next_attempt_at   TIMESTAMP(6)  NOT NULL,
+    last_error        VARCHAR(1000),
+    created_at        TIMESTAMP(6)  NOT NULL,
+    sent_at           TIMESTAMP(6)
+);
+
+CREATE INDEX idx_notification_outbox_pending ON notification_outbox (next_attempt_at, id) WHERE status = 'PENDING';
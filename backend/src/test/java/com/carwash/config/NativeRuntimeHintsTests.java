@@ -0,0 +1,36 @@
+package com.carwash.config;
+
+import com.carwash.dto.BookingDTO;
+import com.carwash.dto.LoginResponseDTO;
+import com.carwash.service.PricingEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTests {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTests() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersDtosIncludingNestedOnes() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoginResponseDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(BookingDTO.ServiceDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PricingEngine.Quote.class).test(hints));
+    }
+
+    @Test
+    void registersJjwtImplementationsAndServiceFiles() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder")).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("application.conf").test(hints));
+    }
+}
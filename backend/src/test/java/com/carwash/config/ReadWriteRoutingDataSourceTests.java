@@ -0,0 +1,117 @@
+package com.carwash.config;
+
+import com.carwash.config.ReadWriteRoutingDataSource.DataSourceRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two embedded H2 databases standing in for the primary and the replica
+class ReadWriteRoutingDataSourceTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReadYourWritesTracker tracker;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate replicaAdmin;
+    private TransactionTemplate tx;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaAdmin.update("INSERT INTO replica_lag VALUES (0)");
+
+        tracker = new ReadYourWritesTracker(5_000);
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT seconds FROM replica_lag", 2_000);
+        lagMonitor.checkLag();
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(lagMonitor, tracker);
+        routing.setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", currentNode(true));
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        assertEquals("primary", currentNode(false));
+    }
+
+    @Test
+    void recentWriterReadsFromPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("customer@test.com", null));
+
+        tracker.recordWrite("customer@test.com");
+        assertEquals("primary", currentNode(true));
+
+        tracker.recordWrite("someone.else@test.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("other@test.com", null));
+        assertEquals("replica", currentNode(true));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.checkLag();
+        assertEquals("primary", currentNode(true));
+
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 0.5");
+        lagMonitor.checkLag();
+        assertEquals("replica", currentNode(true));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        replicaAdmin.execute("DROP TABLE replica_lag");
+        lagMonitor.checkLag();
+        assertEquals("primary", currentNode(true));
+    }
+
+    private String currentNode(boolean readOnly) {
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .build();
+        JdbcTemplate jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return db;
+    }
+}
@@ -0,0 +1,198 @@
+package com.carwash.controller;
+
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.exception.NotFoundException;
+import com.carwash.model.Booking;
+import com.carwash.model.User;
+import com.carwash.service.BookingAuditTrail;
+import com.carwash.service.BookingService;
+import com.carwash.service.PricingEngine;
+import com.carwash.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiExceptionHandlerTests {
+
+    private static final String BOOKING_JSON = "{\"serviceId\": 1, \"vehicleId\": 2,"
+            + " \"bookingDateTime\": \"2030-01-07T09:00:00\"}";
+
+    @RestController
+    static class RejectingController {
+
+        @GetMapping("/missing")
+        public void missing() {
+            throw new NotFoundException("Booking not found");
+        }
+
+        @PostMapping("/past")
+        public void past() {
+            throw new BusinessRuleException("Booking time must be in the future");
+        }
+
+        @GetMapping("/bug")
+        public void bug() {
+            throw new IllegalStateException("connection pool internals");
+        }
+    }
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final UserService userService = mock(UserService.class);
+    private final PricingEngine pricingEngine = mock(PricingEngine.class);
+    private MockMvc mockMvc;
+    private User customer;
+
+    // The real BookingController, with the database behind it stubbed out
+    @BeforeEach
+    void setUp() {
+        customer = new User();
+        customer.setId(7L);
+        customer.setEmail("customer@test.com");
+        customer.setRole(User.UserRole.CUSTOMER);
+        when(userService.findByEmail("customer@test.com")).thenReturn(Optional.of(customer));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("customer@test.com", null, List.of()));
+
+        BookingController bookings = new BookingController(bookingService, mock(BookingAuditTrail.class),
+                pricingEngine, userService);
+        mockMvc = MockMvcBuilders.standaloneSetup(bookings, new RejectingController())
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void mapsDomainErrorsToStatusAndJson() throws Exception {
+        when(bookingService.createBooking(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new ConflictException("Time slot not available"));
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(BOOKING_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.error").value("Conflict"))
+                .andExpect(jsonPath("$.message").value("Time slot not available"));
+        mockMvc.perform(get("/missing")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/past")).andExpect(status().is(422));
+    }
+
+    @Test
+    void controllerChecksThrowTypedErrors() throws Exception {
+        User someoneElse = new User();
+        someoneElse.setId(8L);
+        Booking booking = new Booking();
+        booking.setCustomer(someoneElse);
+        when(bookingService.getBookingIncludingArchive(5L)).thenReturn(booking);
+
+        mockMvc.perform(get("/api/bookings/5"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Access denied"));
+
+        customer.setRole(User.UserRole.STAFF);
+        mockMvc.perform(get("/api/bookings/history"))
+                .andExpect(status().is(422))
+                .andExpect(jsonPath("$.message").value("from and to are required"));
+    }
+
+    // Bugs are a 500 with a generic message; requests Spring can't bind are still a 400
+    @Test
+    void unexpectedErrorsDoNotLeakTheirMessage() throws Exception {
+        mockMvc.perform(get("/bug"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status").value(500))
+                .andExpect(jsonPath("$.message").value("Something went wrong, please try again later"));
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content("{not json"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed request body"));
+        mockMvc.perform(get("/api/bookings/abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value for id"));
+    }
+
+    @Test
+    void domainErrorsCarryNoStackTrace() {
+        assertEquals(0, new ConflictException("Time slot not available").getStackTrace().length);
+    }
+
+    // A rejected booking through BookingController.createBooking: dispatch, JSON binding, the advice
+    // and the error body. Requests run under an extra stack the depth of a real one (filters, proxies).
+    // Then the raw cost of a stackless throw against one that captures a trace.
+    //   CARWASH_BENCH=1 mvn test -Dtest=ApiExceptionHandlerTests
+    @Test
+    @EnabledIfEnvironmentVariable(named = "CARWASH_BENCH", matches = ".+")
+    void benchmarkRejectedBooking() throws Exception {
+        when(bookingService.createBooking(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    throw new ConflictException("Time slot not available");
+                });
+        int warmup = 20_000;
+        int measured = 100_000;
+
+        run(warmup);
+        long started = System.nanoTime();
+        run(measured);
+        System.out.printf("rejected booking     %,8d ns/request%n", (System.nanoTime() - started) / measured);
+
+        for (boolean stackless : new boolean[]{true, false}) {
+            throwAt(120, stackless, warmup);
+            started = System.nanoTime();
+            throwAt(120, stackless, measured);
+            System.out.printf("throw at depth 120 (%s) %,8d ns/op%n",
+                    stackless ? "stackless" : "with trace", (System.nanoTime() - started) / measured);
+        }
+    }
+
+    private void run(int requests) throws Exception {
+        for (int i = 0; i < requests; i++) {
+            deep(80, () -> mockMvc.perform(post("/api/bookings")
+                            .contentType(MediaType.APPLICATION_JSON).content(BOOKING_JSON))
+                    .andExpect(status().isConflict()));
+        }
+    }
+
+    private static void throwAt(int depth, boolean stackless, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            deep(depth, () -> {
+                try {
+                    throw stackless ? new ConflictException("Time slot not available")
+                            : new RuntimeException("Time slot not available");
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            });
+        }
+    }
+
+    private interface Call {
+        Object call() throws Exception;
+    }
+
+    private static Object deep(int depth, Call call) throws Exception {
+        return depth == 0 ? call.call() : deep(depth - 1, call);
+    }
+}
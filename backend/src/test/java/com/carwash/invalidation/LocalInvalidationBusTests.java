@@ -0,0 +1,87 @@
+package com.carwash.invalidation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two "nodes" joined by one in-memory hub
+class LocalInvalidationBusTests {
+
+    private final LocalInvalidationBus.Hub hub = new LocalInvalidationBus.Hub();
+    private final LocalInvalidationBus first = new LocalInvalidationBus(hub);
+    private final LocalInvalidationBus second = new LocalInvalidationBus(hub);
+    private final List<Invalidation> seenByFirst = new ArrayList<>();
+    private final List<Invalidation> seenBySecond = new ArrayList<>();
+
+    LocalInvalidationBusTests() {
+        first.subscribe(seenByFirst::add);
+        second.subscribe(seenBySecond::add);
+    }
+
+    @Test
+    void encodesCompactly() {
+        Invalidation day = Invalidation.schedule(3L, LocalDate.of(2030, 6, 1));
+        assertEquals("D3:2030-06-01", day.encode());
+        assertEquals(day, Invalidation.decode(day.encode()));
+        assertEquals(3L, day.locationId());
+        assertEquals(LocalDate.of(2030, 6, 1), day.day());
+        assertEquals(12L, Invalidation.decode(Invalidation.service(12L).encode()).id());
+    }
+
+    @Test
+    void deliversToOtherNodesOnly() {
+        first.publish(Invalidation.service(7L));
+
+        assertEquals(List.of(Invalidation.service(7L)), seenBySecond);
+        assertTrue(seenByFirst.isEmpty());
+    }
+
+    @Test
+    void waitsForCommitAndDeduplicates() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            first.publish(Invalidation.user(1L));
+            first.publish(Invalidation.user(1L));
+            first.publish(Invalidation.pricing());
+            assertTrue(seenBySecond.isEmpty());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(Invalidation.user(1L), Invalidation.pricing()), seenBySecond);
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    @Test
+    void rollbackSendsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            first.publish(Invalidation.location(2L));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(seenBySecond.isEmpty());
+    }
+
+    @Test
+    void reconnectFlushesEverything() {
+        second.simulateReconnect();
+
+        assertEquals(List.of(Invalidation.FLUSH_ALL), seenBySecond);
+    }
+}
@@ -0,0 +1,45 @@
+package com.carwash.invalidation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Incoming NOTIFY payloads, without a database (the listener thread is never started)
+class PostgresInvalidationBusTests {
+
+    private final PostgresInvalidationBus bus = new PostgresInvalidationBus(
+            new DriverManagerDataSource("jdbc:postgresql://localhost/unused"), "jdbc:postgresql://localhost/unused",
+            "", "", 500, 30_000);
+    private final List<Invalidation> delivered = new ArrayList<>();
+
+    PostgresInvalidationBusTests() {
+        bus.subscribe(delivered::add);
+    }
+
+    @Test
+    void deliversEveryInvalidationInAPayload() {
+        bus.receive("othernode|S12\nD1:2030-06-01\nP");
+
+        assertEquals(List.of(Invalidation.service(12L), new Invalidation(Invalidation.Region.SCHEDULE, "1:2030-06-01"),
+                Invalidation.pricing()), delivered);
+    }
+
+    // A region this node doesn't know (a newer node mid-deploy) is skipped, not fatal to the rest
+    @Test
+    void skipsUnknownRegions() {
+        bus.receive("othernode|S12\nZ99\nU3");
+        bus.receive("othernode|L4");
+
+        assertEquals(List.of(Invalidation.service(12L), Invalidation.user(3L), Invalidation.location(4L)), delivered);
+    }
+
+    @Test
+    void ignoresMalformedPayloads() {
+        bus.receive("no separator");
+
+        assertEquals(List.of(), delivered);
+    }
+}
@@ -0,0 +1,29 @@
+package com.carwash.notification;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for a real gateway: keeps what was sent and can be told to fail
+public class InMemoryNotificationSink implements NotificationSink {
+
+    private final List<Notification> sent = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @Override
+    public void send(Notification notification) throws Exception {
+        if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new Exception("Gateway unavailable");
+        }
+        sent.add(notification);
+    }
+
+    // Fail the next n sends
+    public void failNext(int n) {
+        failuresLeft.set(n);
+    }
+
+    public List<Notification> sent() {
+        return List.copyOf(sent);
+    }
+}
@@ -0,0 +1,55 @@
+package com.carwash.security;
+
+import com.carwash.security.RateLimiter.EndpointClass;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    void allowsBurstThenAsksToWait() {
+        RateLimiter limiter = RateLimiter.forTesting(60, 3, 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "ip:1.2.3.4"));
+        }
+        long wait = limiter.tryAcquire(EndpointClass.READ, "ip:1.2.3.4");
+        assertTrue(wait > 0 && wait <= SECOND);
+
+        // One token per second at 60/min
+        now.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "ip:1.2.3.4"));
+    }
+
+    @Test
+    void classesAndClientsAreLimitedSeparately() {
+        RateLimiter limiter = RateLimiter.forTesting(60, 1, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "user:a@test.com"));
+        assertTrue(limiter.tryAcquire(EndpointClass.READ, "user:a@test.com") > 0);
+        assertEquals(0, limiter.tryAcquire(EndpointClass.MUTATION, "user:a@test.com"));
+        assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "user:b@test.com"));
+    }
+
+    @Test
+    void idleBucketsAreEvictedAndNewKeysOverflowWhenFull() {
+        RateLimiter limiter = RateLimiter.forTesting(60, 1, 2, now::get);
+
+        limiter.tryAcquire(EndpointClass.READ, "ip:1");
+        limiter.tryAcquire(EndpointClass.READ, "ip:2");
+        // Map is full: the third client shares the overflow bucket with every other newcomer
+        assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "ip:3"));
+        assertTrue(limiter.tryAcquire(EndpointClass.READ, "ip:4") > 0);
+
+        now.addAndGet(2 * SECOND);
+        limiter.evictIdle();
+        assertEquals(0, limiter.bucketCount(EndpointClass.READ));
+    }
+}
@@ -0,0 +1,168 @@
+package com.carwash.security;
+
+import com.carwash.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revocation tables in a throwaway schema of a disposable PostgreSQL database (the upserts use ON CONFLICT,
+// which H2 doesn't parse):
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=TokenRevocationListTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class TokenRevocationListTests {
+
+    private static final String SUBJECT = "customer@test.com";
+
+    private final String schema = "revocation_" + UUID.randomUUID().toString().substring(0, 8);
+    private JdbcTemplate admin;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactionTemplate;
+    private TokenRevocationList revocations;
+
+    @BeforeEach
+    void setUp() {
+        String url = System.getenv("CARWASH_IT_DB_URL");
+        String user = System.getenv().getOrDefault("CARWASH_IT_DB_USER", "");
+        String password = System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", "");
+        admin = new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+        admin.execute("CREATE SCHEMA " + schema);
+
+        DriverManagerDataSource db = new DriverManagerDataSource(
+                url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema, user, password);
+        jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE revoked_tokens (jti VARCHAR(64) PRIMARY KEY, subject VARCHAR(255) NOT NULL,"
+                + " expires_at TIMESTAMP(6) NOT NULL, revoked_at TIMESTAMP(6) NOT NULL)");
+        jdbc.execute("CREATE TABLE token_not_before (subject VARCHAR(255) PRIMARY KEY,"
+                + " not_before TIMESTAMP(6) NOT NULL)");
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(db));
+        revocations = new TokenRevocationList(jdbc, new JwtUtil());
+    }
+
+    @AfterEach
+    void tearDown() {
+        admin.execute("DROP SCHEMA " + schema + " CASCADE");
+    }
+
+    @Test
+    void revokedTokenIdIsRejected() {
+        long issuedAt = System.currentTimeMillis();
+        revocations.revokeToken("jti-1", SUBJECT, inOneHour());
+
+        assertTrue(revocations.isRevoked("jti-1", SUBJECT, issuedAt));
+        assertFalse(revocations.isRevoked("jti-2", SUBJECT, issuedAt));
+        assertFalse(revocations.isRevoked("jti-2", "other@test.com", issuedAt));
+    }
+
+    // The cut-off is kept to the millisecond, in memory and in the table
+    @Test
+    void notBeforeCutOffHasMillisecondPrecision() {
+        long before = System.currentTimeMillis();
+        revocations.revokeAllForUser(SUBJECT);
+        long cutOff = jdbc.queryForObject("SELECT not_before FROM token_not_before WHERE subject = ?",
+                Timestamp.class, SUBJECT).getTime();
+        assertTrue(cutOff >= before);
+
+        assertTrue(revocations.isRevoked("jti-1", SUBJECT, cutOff - 1));
+        assertFalse(revocations.isRevoked("jti-2", SUBJECT, cutOff));
+        assertFalse(revocations.isRevoked("jti-3", SUBJECT, cutOff + 1));
+        assertFalse(revocations.isRevoked("jti-1", "other@test.com", cutOff - 1));
+
+        revocations.rebuild();
+        assertTrue(revocations.isRevoked("jti-1", SUBJECT, cutOff - 1));
+        assertFalse(revocations.isRevoked("jti-2", SUBJECT, cutOff));
+    }
+
+    // Change password, then log in straight away (same second): the new token works, the old one doesn't
+    @Test
+    void tokenIssuedRightAfterPasswordChangeIsNotRevoked() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil();
+        Claims oldToken = jwtUtil.parseToken(jwtUtil.generateToken(SUBJECT, "CUSTOMER"));
+        Thread.sleep(2);
+
+        transactionTemplate.executeWithoutResult(status -> revocations.revokeAllForUser(SUBJECT));
+        Claims newToken = jwtUtil.parseToken(jwtUtil.generateToken(SUBJECT, "CUSTOMER"));
+
+        assertTrue(revocations.isRevoked(oldToken.getId(), SUBJECT, jwtUtil.issuedAtMillis(oldToken)));
+        assertFalse(revocations.isRevoked(newToken.getId(), SUBJECT, jwtUtil.issuedAtMillis(newToken)));
+    }
+
+    // Tokens from before the millisecond claim only have iat and count from the start of that second
+    @Test
+    void tokenWithoutMillisecondClaimFallsBackToIssuedAtSecond() {
+        JwtUtil jwtUtil = new JwtUtil();
+        long now = System.currentTimeMillis();
+        Claims legacy = Jwts.claims().setSubject(SUBJECT).setIssuedAt(new Date(now));
+
+        assertEquals(now / 1000 * 1000, jwtUtil.issuedAtMillis(legacy));
+        assertNull(jwtUtil.issuedAtMillis(Jwts.claims().setSubject(SUBJECT)));
+    }
+
+    @Test
+    void revocationInARolledBackTransactionIsNotApplied() {
+        long issuedAt = System.currentTimeMillis() - 60_000;
+        transactionTemplate.executeWithoutResult(status -> {
+            revocations.revokeToken("jti-1", SUBJECT, inOneHour());
+            revocations.revokeAllForUser(SUBJECT);
+            // Not visible before commit either
+            assertFalse(revocations.isRevoked("jti-1", SUBJECT, issuedAt));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(revocations.isRevoked("jti-1", SUBJECT, issuedAt));
+        assertFalse(revocations.isRevoked("jti-2", SUBJECT, issuedAt));
+    }
+
+    @Test
+    void revocationIsAppliedWhenItsTransactionCommits() {
+        long issuedAt = System.currentTimeMillis() - 60_000;
+        transactionTemplate.executeWithoutResult(status -> revocations.revokeAllForUser(SUBJECT));
+
+        assertTrue(revocations.isRevoked("jti-1", SUBJECT, issuedAt));
+    }
+
+    // A rebuild picks up other instances' rows and drops those for tokens that have expired
+    @Test
+    void rebuildReloadsTablesAndDropsExpiredRows() {
+        long issuedAt = System.currentTimeMillis() - 60_000;
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("INSERT INTO revoked_tokens VALUES ('jti-live', ?, ?, ?)", SUBJECT,
+                Timestamp.valueOf(now.plusHours(1)), Timestamp.valueOf(now));
+        jdbc.update("INSERT INTO revoked_tokens VALUES ('jti-expired', ?, ?, ?)", SUBJECT,
+                Timestamp.valueOf(now.minusHours(1)), Timestamp.valueOf(now.minusDays(1)));
+        jdbc.update("INSERT INTO token_not_before VALUES ('fresh@test.com', ?)", Timestamp.valueOf(now));
+        jdbc.update("INSERT INTO token_not_before VALUES ('stale@test.com', ?)", Timestamp.valueOf(now.minusDays(2)));
+
+        assertFalse(revocations.isRevoked("jti-live", SUBJECT, issuedAt));
+
+        revocations.rebuild();
+
+        assertTrue(revocations.isRevoked("jti-live", SUBJECT, issuedAt));
+        assertFalse(revocations.isRevoked("jti-expired", SUBJECT, issuedAt));
+        assertTrue(revocations.isRevoked("jti-1", "fresh@test.com", issuedAt));
+        assertFalse(revocations.isRevoked("jti-1", "stale@test.com", issuedAt));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM revoked_tokens", Integer.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM token_not_before", Integer.class));
+    }
+
+    private static Date inOneHour() {
+        return new Date(System.currentTimeMillis() + 3_600_000);
+    }
+}
@@ -0,0 +1,74 @@
+package com.carwash.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTests {
+
+    @Test
+    void drainsInOrder() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        List<Integer> out = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(out, 3));
+        assertEquals(2, buffer.drainTo(out, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), out);
+    }
+
+    @Test
+    void dropsAndCountsWhenFull() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.takeDropped());
+
+        // Draining frees the slots again
+        buffer.drainTo(new ArrayList<>(), 2);
+        assertTrue(buffer.offer(5));
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhileThereIsRoom() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(producers * perProducer);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(base + i);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Integer> out = new ArrayList<>();
+        buffer.drainTo(out, Integer.MAX_VALUE);
+        Set<Integer> unique = new HashSet<>(out);
+        assertEquals(producers * perProducer, unique.size());
+        assertEquals(0, buffer.takeDropped());
+    }
+}
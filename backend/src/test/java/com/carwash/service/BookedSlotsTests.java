@@ -0,0 +1,47 @@
+package com.carwash.service;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Clash rule with resolved durations and the 30-minute buffer
+class BookedSlotsTests {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 6, 3, 0, 0);
+
+    @Test
+    void longBookingHoldsTheSlotsAfterItsStart() {
+        BookedSlots booked = new BookedSlots();
+        booked.add(DAY.withHour(9), 120);
+
+        // 09:00 + 120 min + buffer = 11:30
+        assertTrue(booked.clashes(DAY.withHour(10), 30));
+        assertTrue(booked.clashes(DAY.withHour(11).withMinute(29), 30));
+        assertFalse(booked.clashes(DAY.withHour(11).withMinute(30), 30));
+    }
+
+    @Test
+    void newBookingMustEndBeforeTheNextOneWithBuffer() {
+        BookedSlots booked = new BookedSlots();
+        booked.add(DAY.withHour(12), 30);
+
+        // 60-minute wash at 10:30 runs to 11:30, plus buffer = 12:00
+        assertFalse(booked.clashes(DAY.withHour(10).withMinute(30), 60));
+        assertTrue(booked.clashes(DAY.withHour(10).withMinute(31), 60));
+        assertFalse(booked.clashes(DAY.withHour(11), 30));
+    }
+
+    @Test
+    void shortBookingAfterALongOneStillSeesTheLongOne() {
+        BookedSlots booked = new BookedSlots();
+        booked.add(DAY.withHour(8), 180);
+        booked.add(DAY.withHour(12), 15);
+
+        // The long one holds the bay to 11:30 with the buffer, the short one from 12:00 to 12:45
+        assertTrue(booked.clashes(DAY.withHour(11), 10));
+        assertTrue(booked.clashes(DAY.withHour(11).withMinute(30), 30));
+        assertFalse(booked.clashes(DAY.withHour(13), 30));
+    }
+}
@@ -0,0 +1,130 @@
+package com.carwash.service;
+
+import com.carwash.CarWashBookingsApplication;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.UserRepository;
+import com.carwash.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The nightly rollup run by several instances at once, on a disposable PostgreSQL database (Flyway migrates it):
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=DemandForecasterRollupTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class DemandForecasterRollupTests {
+
+    private static final long SITE = 1L;
+    private static final int ROUNDS = 5;
+    private static final int INSTANCES = 4;
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbc;
+    private static User customer;
+    private static Vehicle vehicle;
+    private static Service service;
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(CarWashBookingsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--app.datasource.primary.jdbc-url=" + System.getenv("CARWASH_IT_DB_URL"),
+                        "--app.datasource.primary.username=" + System.getenv().getOrDefault("CARWASH_IT_DB_USER", ""),
+                        "--app.datasource.primary.password=" + System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", ""),
+                        "--app.replica.enabled=false",
+                        "--app.invalidation.mode=local");
+        jdbc = context.getBean(JdbcTemplate.class);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail("rollup-" + suffix + "@test.com");
+        user.setPassword("not-used");
+        user.setFullName("Rollup Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        customer = context.getBean(UserRepository.class).save(user);
+
+        Vehicle car = new Vehicle();
+        car.setMake("Toyota");
+        car.setModel("Corolla");
+        car.setLicensePlate("ROLL" + suffix);
+        car.setColor("White");
+        car.setType(Vehicle.VehicleType.SEDAN);
+        car.setUser(customer);
+        vehicle = context.getBean(VehicleRepository.class).save(car);
+
+        Service wash = new Service();
+        wash.setName("Rollup test wash " + suffix);
+        wash.setPrice(new BigDecimal("10.00"));
+        wash.setDurationMinutes(30);
+        service = context.getBean(ServiceService.class).createService(wash);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // Instances rolling up the same hours at once take turns instead of colliding on the primary key
+    @Test
+    void concurrentRollupsAllSucceed() throws Exception {
+        DemandForecaster forecaster = context.getBean(DemandForecaster.class);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        LocalDateTime yesterday = today.minusDays(1).withHour(10);
+        ExecutorService pool = Executors.newFixedThreadPool(INSTANCES);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // Completed yesterday, so every rollup has that hour to rewrite
+                jdbc.update("INSERT INTO bookings (user_id, service_id, vehicle_id, location_id, booking_date_time,"
+                                + " status) VALUES (?, ?, ?, ?, ?, 'COMPLETED')",
+                        customer.getId(), service.getId(), vehicle.getId(), SITE, Timestamp.valueOf(yesterday));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> rollups = new ArrayList<>();
+                for (int i = 0; i < INSTANCES; i++) {
+                    rollups.add(pool.submit(() -> {
+                        start.await();
+                        forecaster.rollUp(today);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> rollup : rollups) {
+                    rollup.get();
+                }
+
+                int booked = jdbc.queryForObject("SELECT COUNT(*) FROM bookings WHERE location_id = ?"
+                                + " AND booking_date_time = ? AND status <> 'CANCELLED'",
+                        Integer.class, SITE, Timestamp.valueOf(yesterday));
+                int rolledUp = jdbc.queryForObject("SELECT bookings FROM booking_hourly_rollups"
+                                + " WHERE location_id = ? AND hour_start = ?",
+                        Integer.class, SITE, Timestamp.valueOf(yesterday));
+                assertEquals(booked, rolledUp, "Bookings rolled up in round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
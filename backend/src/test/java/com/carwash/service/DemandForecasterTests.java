@@ -0,0 +1,53 @@
+package com.carwash.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DemandForecasterTests {
+
+    private static final int WEEK = DemandForecaster.HOURS_PER_WEEK;
+
+    @Test
+    void repeatsAStableWeeklyPattern() {
+        // Four identical weeks: busy Saturday mornings (hour-of-week 5 * 24 + 9), quiet otherwise
+        double[] history = new double[4 * WEEK];
+        for (int week = 0; week < 4; week++) {
+            history[week * WEEK + 129] = 6;
+            history[week * WEEK + 130] = 4;
+        }
+
+        double[] forecast = DemandForecaster.smooth(history, WEEK, 0.2, 0.3, WEEK);
+
+        assertEquals(6, forecast[129], 0.01);
+        assertEquals(4, forecast[130], 0.01);
+        assertEquals(0, forecast[10], 0.01);
+    }
+
+    @Test
+    void followsAShiftInLevel() {
+        double[] history = new double[6 * WEEK];
+        for (int t = 0; t < history.length; t++) {
+            history[t] = t < 3 * WEEK ? 1 : 3;
+        }
+
+        double[] forecast = DemandForecaster.smooth(history, WEEK, 0.2, 0.3, WEEK);
+
+        assertEquals(3, forecast[0], 0.5);
+    }
+
+    @Test
+    void shortHistoryForecastsItsMean() {
+        double[] forecast = DemandForecaster.smooth(new double[]{2, 4}, WEEK, 0.2, 0.3, 3);
+
+        assertEquals(3, forecast[2], 1e-9);
+    }
+
+    @Test
+    void staffCoversServiceMinutesAtTargetUtilization() {
+        assertEquals(0, DemandForecaster.staffFor(0, 0.8));
+        assertEquals(1, DemandForecaster.staffFor(48, 0.8));
+        assertEquals(2, DemandForecaster.staffFor(49, 0.8));
+        assertEquals(3, DemandForecaster.staffFor(135, 0.75));
+    }
+}
@@ -0,0 +1,112 @@
+package com.carwash.service;
+
+import com.carwash.event.BookingEvent;
+import com.carwash.model.Booking;
+import com.carwash.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DemandPricingTests {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 6, 1, 10, 15);
+    private static final long SITE = 1L;
+
+    private final DemandPricing pricing = DemandPricing.forTesting(60, 4, "0:0.90,0.5:1.00,1:1.50");
+
+    @Test
+    void interpolatesAndClampsTheCurve() {
+        assertEquals(9_000, pricing.interpolate(0));
+        assertEquals(9_500, pricing.interpolate(0.25));
+        assertEquals(12_500, pricing.interpolate(0.75));
+        assertEquals(15_000, pricing.interpolate(2));
+    }
+
+    @Test
+    void countersFollowCreatesAndCancellations() {
+        assertEquals(9_000, pricing.multiplierBasisPoints(SITE, SLOT));
+
+        pricing.onBookingEvent(event(BookingEvent.Type.CREATED, Booking.BookingStatus.PENDING, null));
+        pricing.onBookingEvent(event(BookingEvent.Type.CREATED, Booking.BookingStatus.PENDING, null));
+        // Same hour bucket, different minute
+        assertEquals(2, pricing.bookedInBucket(SITE, SLOT.withMinute(50)));
+        assertEquals(10_000, pricing.multiplierBasisPoints(SITE, SLOT));
+
+        pricing.onBookingEvent(event(BookingEvent.Type.STATUS_CHANGED,
+                Booking.BookingStatus.CANCELLED, Booking.BookingStatus.PENDING));
+        assertEquals(1, pricing.bookedInBucket(SITE, SLOT));
+
+        // Moving between slot-holding statuses leaves the count alone
+        pricing.onBookingEvent(event(BookingEvent.Type.STATUS_CHANGED,
+                Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.PENDING));
+        assertEquals(1, pricing.bookedInBucket(SITE, SLOT));
+        assertEquals(0, pricing.bookedInBucket(SITE, SLOT.plusHours(1)));
+        // Other sites have their own counters
+        assertEquals(0, pricing.bookedInBucket(2L, SLOT));
+    }
+
+    @Test
+    void appliesMultiplierToTheQuoteInCents() {
+        PricingEngine.Quote quote = new PricingEngine.Quote(1L, Vehicle.VehicleType.SEDAN, 0,
+                1999, BigDecimal.valueOf(1999, 2), 45, BigDecimal.ONE);
+
+        PricingEngine.Quote offPeak = pricing.apply(quote, SITE, SLOT);
+        assertEquals(1799, offPeak.priceCents());  // 17.991 rounds to 17.99
+        assertEquals(new BigDecimal("0.9000"), offPeak.multiplier());
+        assertEquals(45, offPeak.durationMinutes());
+    }
+
+    // Bookings another instance made or cancelled, picked up from an embedded H2 database
+    @Test
+    void recountsADayFromTheDatabase() {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("demand;MODE=PostgreSQL")
+                .build();
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(db);
+            jdbc.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, location_id BIGINT NOT NULL,"
+                    + " booking_date_time TIMESTAMP NOT NULL, status VARCHAR(255) NOT NULL)");
+            book(jdbc, 1, SITE, SLOT, "CONFIRMED");
+            book(jdbc, 2, SITE, SLOT.withMinute(45), "PENDING");
+            book(jdbc, 3, SITE, SLOT.plusHours(3), "CANCELLED");
+            book(jdbc, 4, 2L, SLOT, "PENDING");
+            DemandPricing shared = new DemandPricing(jdbc, true, 60, 4, 90, "0:0.90,0.5:1.00,1:1.50");
+            // Stale counts from events this instance saw earlier
+            shared.adjust(SITE, SLOT.plusHours(3), 1);
+            shared.adjust(SITE, SLOT.plusDays(1), 1);
+
+            shared.recount(SITE, SLOT.toLocalDate());
+
+            assertEquals(2, shared.bookedInBucket(SITE, SLOT));
+            assertEquals(0, shared.bookedInBucket(SITE, SLOT.plusHours(3)));
+            // Other days and other sites are left alone
+            assertEquals(1, shared.bookedInBucket(SITE, SLOT.plusDays(1)));
+            assertEquals(0, shared.bookedInBucket(2L, SLOT));
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    private static void book(JdbcTemplate jdbc, long id, long locationId, LocalDateTime time, String status) {
+        jdbc.update("INSERT INTO bookings VALUES (?, ?, ?, ?)", id, locationId, Timestamp.valueOf(time), status);
+    }
+
+    private static BookingEvent event(BookingEvent.Type type, Booking.BookingStatus status,
+                                      Booking.BookingStatus oldStatus) {
+        return BookingEvent.builder()
+                .type(type)
+                .locationId(SITE)
+                .bookingDateTime(SLOT)
+                .status(status)
+                .oldStatus(oldStatus)
+                .build();
+    }
+}
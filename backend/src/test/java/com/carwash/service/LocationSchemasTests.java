@@ -0,0 +1,181 @@
+package com.carwash.service;
+
+import com.carwash.CarWashBookingsApplication;
+import com.carwash.dto.LocationDTO;
+import com.carwash.exception.BusinessRuleException;
+import com.carwash.exception.ConflictException;
+import com.carwash.model.Booking;
+import com.carwash.model.Location;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.BookingRepository;
+import com.carwash.repository.UserRepository;
+import com.carwash.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Sites moved into their own schemas in a disposable PostgreSQL database (Flyway migrates it); the
+// schemas are dropped again afterwards:
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=LocationSchemasTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class LocationSchemasTests {
+
+    private static final LocalDateTime TIME = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.DAYS).withHour(8);
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbc;
+    private static User customer;
+    private static Vehicle vehicle;
+    private static Service service;
+    private static final List<Location> created = new ArrayList<>();
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(CarWashBookingsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--app.datasource.primary.jdbc-url=" + System.getenv("CARWASH_IT_DB_URL"),
+                        "--app.datasource.primary.username=" + System.getenv().getOrDefault("CARWASH_IT_DB_USER", ""),
+                        "--app.datasource.primary.password=" + System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", ""),
+                        "--app.replica.enabled=false",
+                        "--app.invalidation.mode=local");
+        jdbc = context.getBean(JdbcTemplate.class);
+
+        String suffix = suffix();
+        User user = new User();
+        user.setEmail("schema-" + suffix + "@test.com");
+        user.setPassword("not-used");
+        user.setFullName("Schema Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        customer = context.getBean(UserRepository.class).save(user);
+
+        Vehicle car = new Vehicle();
+        car.setMake("Toyota");
+        car.setModel("Corolla");
+        car.setLicensePlate("SCHEMA" + suffix);
+        car.setColor("White");
+        car.setType(Vehicle.VehicleType.SEDAN);
+        car.setUser(customer);
+        vehicle = context.getBean(VehicleRepository.class).save(car);
+
+        Service wash = new Service();
+        wash.setName("Schema test wash " + suffix);
+        wash.setPrice(new BigDecimal("10.00"));
+        wash.setDurationMinutes(30);
+        service = context.getBean(ServiceService.class).createService(wash);
+        context.getBean(PricingEngine.class).reload();
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context == null) {
+            return;
+        }
+        // Dropping a partition detaches it; the site goes back to the shared partitions, empty
+        for (Location location : created) {
+            String schema = jdbc.queryForObject("SELECT schema_name FROM locations WHERE id = ?", String.class,
+                    location.getId());
+            if (schema != null) {
+                jdbc.execute("DROP SCHEMA " + schema + " CASCADE");
+            }
+            jdbc.update("UPDATE locations SET schema_name = NULL, active = FALSE WHERE id = ?", location.getId());
+        }
+        context.close();
+    }
+
+    // Existing bookings move with the site, new ones land there, and both are still read through bookings
+    @Test
+    void givingASiteASchemaMovesItsBookingsThere() {
+        Location site = newLocation(null);
+        Booking before = book(site, TIME);
+        String schema = "site_" + suffix();
+
+        LocationDTO change = new LocationDTO();
+        change.setSchemaName(schema);
+        context.getBean(LocationService.class).updateLocation(site.getId(), change);
+        Booking after = book(site, TIME.plusHours(2));
+
+        assertEquals(2, count(schema + ".bookings", site));
+        assertEquals(0, count("bookings_shared", site));
+        assertEquals(2, count("bookings", site));
+        BookingRepository bookings = context.getBean(BookingRepository.class);
+        assertEquals(site.getId(), bookings.findById(before.getId()).orElseThrow().getLocation().getId());
+        assertEquals(site.getId(), bookings.findById(after.getId()).orElseThrow().getLocation().getId());
+
+        // Archived rows follow the same partitioning
+        jdbc.update("INSERT INTO bookings_archive (id, user_id, service_id, vehicle_id, location_id, booking_date_time,"
+                + " status) SELECT id, user_id, service_id, vehicle_id, location_id, booking_date_time, status"
+                + " FROM bookings WHERE id = ?", before.getId());
+        assertEquals(1, count(schema + ".bookings_archive", site));
+    }
+
+    @Test
+    void newSiteCanStartInItsOwnSchema() {
+        String schema = "site_" + suffix();
+        Location site = newLocation(schema);
+
+        book(site, TIME);
+
+        assertEquals(schema, site.getSchemaName());
+        assertEquals(1, count(schema + ".bookings", site));
+        assertEquals(0, count("bookings_shared", site));
+    }
+
+    @Test
+    void rejectsUnsafeReusedOrChangedSchemas() {
+        String schema = "site_" + suffix();
+        Location site = newLocation(schema);
+        LocationService locations = context.getBean(LocationService.class);
+
+        assertThrows(BusinessRuleException.class, () -> newLocation("Site_A"));
+        assertThrows(BusinessRuleException.class, () -> newLocation("a; DROP TABLE bookings"));
+        assertThrows(BusinessRuleException.class, () -> newLocation("public"));
+        assertThrows(BusinessRuleException.class, () -> newLocation("pg_site"));
+        assertThrows(ConflictException.class, () -> newLocation(schema));
+
+        LocationDTO move = new LocationDTO();
+        move.setSchemaName("site_" + suffix());
+        assertThrows(BusinessRuleException.class, () -> locations.updateLocation(site.getId(), move));
+    }
+
+    private static Location newLocation(String schemaName) {
+        LocationDTO dto = new LocationDTO();
+        dto.setCode("SCHEMA-" + suffix());
+        dto.setName("Schema test site");
+        dto.setSchemaName(schemaName);
+        Location location = context.getBean(LocationService.class).createLocation(dto);
+        created.add(location);
+        return location;
+    }
+
+    private static Booking book(Location site, LocalDateTime time) {
+        return context.getBean(BookingService.class)
+                .createBooking(customer, site.getId(), service.getId(), vehicle.getId(), time, null, 0);
+    }
+
+    private static int count(String table, Location site) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE location_id = ?", Integer.class,
+                site.getId());
+    }
+
+    private static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8).replace('-', '_');
+    }
+}
@@ -0,0 +1,111 @@
+package com.carwash.service;
+
+import com.carwash.notification.InMemoryNotificationSink;
+import com.carwash.notification.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Outbox rows in an embedded H2 database, delivered to the in-memory sink
+class NotificationDispatcherTests {
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbc;
+    private InMemoryNotificationSink sink;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("outbox;MODE=PostgreSQL")
+                .build();
+        jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(255), phone_number VARCHAR(255),"
+                + " full_name VARCHAR(255))");
+        jdbc.execute("CREATE TABLE notification_outbox (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                + " booking_id BIGINT NOT NULL, customer_id BIGINT NOT NULL, type VARCHAR(64) NOT NULL,"
+                + " booking_date_time TIMESTAMP(6) NOT NULL, status VARCHAR(16) NOT NULL,"
+                + " attempts INTEGER NOT NULL DEFAULT 0, next_attempt_at TIMESTAMP(6) NOT NULL,"
+                + " last_error VARCHAR(1000), created_at TIMESTAMP(6) NOT NULL, sent_at TIMESTAMP(6))");
+        jdbc.update("INSERT INTO users VALUES (1, 'customer@test.com', '0700000000', 'Test Customer')");
+
+        sink = new InMemoryNotificationSink();
+        dispatcher = new NotificationDispatcher(jdbc, new DataSourceTransactionManager(db), sink,
+                2, 3, 60_000, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void pendingRowsAreSentInBatches() {
+        enqueue(10, "BOOKING_CONFIRMED");
+        enqueue(11, "WASH_STARTED");
+        enqueue(12, "WASH_COMPLETED");
+
+        dispatcher.dispatch();
+
+        assertEquals(3, sink.sent().size());
+        assertEquals(Notification.Type.BOOKING_CONFIRMED, sink.sent().get(0).type());
+        assertEquals("customer@test.com", sink.sent().get(0).email());
+        assertEquals(3, count("SENT"));
+    }
+
+    @Test
+    void failedSendIsRetriedAfterBackoff() {
+        enqueue(10, "BOOKING_CONFIRMED");
+        sink.failNext(1);
+
+        dispatcher.dispatch();
+
+        assertTrue(sink.sent().isEmpty());
+        assertEquals(1, count("PENDING"));
+        LocalDateTime next = jdbc.queryForObject("SELECT next_attempt_at FROM notification_outbox",
+                LocalDateTime.class);
+        assertTrue(next.isAfter(LocalDateTime.now().plusSeconds(30)));
+
+        // Due again: delivered on the next pass
+        jdbc.update("UPDATE notification_outbox SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+        dispatcher.dispatch();
+
+        assertEquals(1, sink.sent().size());
+        assertEquals(1, count("SENT"));
+    }
+
+    @Test
+    void rowIsDeadAfterMaxAttempts() {
+        enqueue(10, "BOOKING_CONFIRMED");
+        sink.failNext(3);
+
+        for (int i = 0; i < 3; i++) {
+            jdbc.update("UPDATE notification_outbox SET next_attempt_at = ?", LocalDateTime.now().minusSeconds(1));
+            dispatcher.dispatch();
+        }
+
+        assertTrue(sink.sent().isEmpty());
+        assertEquals(1, count("DEAD"));
+    }
+
+    private void enqueue(long bookingId, String type) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("INSERT INTO notification_outbox (booking_id, customer_id, type, booking_date_time, status,"
+                        + " attempts, next_attempt_at, created_at) VALUES (?, 1, ?, ?, 'PENDING', 0, ?, ?)",
+                bookingId, type, now.plusDays(1), now.minusSeconds(1), now);
+    }
+
+    private int count(String status) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM notification_outbox WHERE status = ?", Integer.class, status);
+    }
+}
@@ -0,0 +1,105 @@
+package com.carwash.service;
+
+import com.carwash.invalidation.LocalInvalidationBus;
+import com.carwash.model.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Pricing rules in an embedded H2 database, compiled into the matrix
+class PricingEngineTests {
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbc;
+    private PricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("pricing;MODE=PostgreSQL")
+                .build();
+        jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE service (id BIGINT PRIMARY KEY, price NUMERIC(38, 2) NOT NULL,"
+                + " duration_minutes INTEGER NOT NULL)");
+        jdbc.execute("CREATE TABLE service_vehicle_pricing (service_id BIGINT NOT NULL, vehicle_type VARCHAR(255) NOT NULL,"
+                + " price NUMERIC(38, 2) NOT NULL, duration_minutes INTEGER NOT NULL)");
+        jdbc.execute("CREATE TABLE add_ons (id BIGINT PRIMARY KEY, code VARCHAR(64) NOT NULL, price NUMERIC(38, 2) NOT NULL,"
+                + " extra_minutes INTEGER NOT NULL, flag_bit INTEGER NOT NULL, active BOOLEAN NOT NULL)");
+        jdbc.execute("CREATE TABLE add_on_vehicle_pricing (add_on_id BIGINT NOT NULL, vehicle_type VARCHAR(255) NOT NULL,"
+                + " price NUMERIC(38, 2) NOT NULL, extra_minutes INTEGER NOT NULL)");
+
+        jdbc.update("INSERT INTO service VALUES (1, 10.00, 30)");
+        jdbc.update("INSERT INTO service_vehicle_pricing VALUES (1, 'TRUCK', 25.00, 90)");
+        jdbc.update("INSERT INTO add_ons VALUES (1, 'WAX', 5.00, 15, 0, TRUE)");
+        jdbc.update("INSERT INTO add_ons VALUES (2, 'POLISH', 8.00, 20, 3, FALSE)");
+        jdbc.update("INSERT INTO add_on_vehicle_pricing VALUES (1, 'TRUCK', 9.50, 40)");
+
+        engine = new PricingEngine(jdbc, new LocalInvalidationBus(new LocalInvalidationBus.Hub()));
+        engine.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void vehicleTypeRulesOverrideTheServiceDefaults() {
+        PricingEngine.Quote sedan = engine.quote(1, Vehicle.VehicleType.SEDAN, 0);
+        assertEquals(1000, sedan.priceCents());
+        assertEquals(30, sedan.durationMinutes());
+
+        PricingEngine.Quote truck = engine.quote(1, Vehicle.VehicleType.TRUCK, 0);
+        assertEquals(2500, truck.priceCents());
+        assertEquals(90, truck.durationMinutes());
+    }
+
+    @Test
+    void addOnsAddPriceAndTimePerVehicleType() {
+        int wax = engine.addOnMask(List.of("wax"));
+        assertEquals(1, wax);
+
+        PricingEngine.Quote sedan = engine.quote(1, Vehicle.VehicleType.SEDAN, wax);
+        assertEquals(1500, sedan.priceCents());
+        assertEquals(45, sedan.durationMinutes());
+
+        PricingEngine.Quote truck = engine.quote(1, Vehicle.VehicleType.TRUCK, wax);
+        assertEquals(3450, truck.priceCents());
+        assertEquals(130, truck.durationMinutes());
+        assertEquals(List.of("WAX"), engine.addOnCodes(wax));
+    }
+
+    @Test
+    void inactiveAddOnsAndUnknownServicesAreRejected() {
+        assertThrows(RuntimeException.class, () -> engine.addOnMask(List.of("POLISH")));
+        assertThrows(RuntimeException.class, () -> engine.quote(1, Vehicle.VehicleType.SEDAN, 1 << 3));
+        assertThrows(RuntimeException.class, () -> engine.quote(2, Vehicle.VehicleType.SEDAN, 0));
+    }
+
+    @Test
+    void reloadPicksUpNewServices() {
+        jdbc.update("INSERT INTO service VALUES (2, 12.50, 45)");
+        assertThrows(RuntimeException.class, () -> engine.quote(2, Vehicle.VehicleType.SEDAN, 0));
+
+        engine.reload();
+
+        assertEquals(1250, engine.quote(2, Vehicle.VehicleType.SEDAN, 0).priceCents());
+        assertEquals(45, engine.quote(2, Vehicle.VehicleType.SEDAN, 0).durationMinutes());
+    }
+
+    @Test
+    void demandMultiplierKeepsTheDuration() {
+        PricingEngine.Quote surged = engine.quote(1, Vehicle.VehicleType.SEDAN, 0).withMultiplier(12_500);
+        assertEquals(1250, surged.priceCents());
+        assertEquals(30, surged.durationMinutes());
+    }
+}
@@ -0,0 +1,172 @@
+package com.carwash.service;
+
+import com.carwash.CarWashBookingsApplication;
+import com.carwash.model.Booking;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.BookingRepository;
+import com.carwash.repository.UserRepository;
+import com.carwash.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two application contexts ("instances") on one PostgreSQL database rating the same bookings.
+// Needs a disposable database (Flyway migrates it):
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=RatingAggregateMultiInstanceTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class RatingAggregateMultiInstanceTests {
+
+    private static final long SITE = 1L;
+    private static final int ROUNDS = 5;
+    private static final int THREADS_PER_INSTANCE = 4;
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static User customer;
+    private static Vehicle vehicle;
+
+    @BeforeAll
+    static void startInstances() {
+        first = instance();
+        second = instance();
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail("rating-" + suffix + "@test.com");
+        user.setPassword("not-used");
+        user.setFullName("Rating Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        customer = first.getBean(UserRepository.class).save(user);
+
+        Vehicle car = new Vehicle();
+        car.setMake("Toyota");
+        car.setModel("Corolla");
+        car.setLicensePlate("RATE" + suffix);
+        car.setColor("White");
+        car.setType(Vehicle.VehicleType.SEDAN);
+        car.setUser(customer);
+        vehicle = first.getBean(VehicleRepository.class).save(car);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (first != null) {
+            first.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+    }
+
+    // Run arguments, not builder properties: those are defaults that application.properties overrides
+    private static ConfigurableApplicationContext instance() {
+        return new SpringApplicationBuilder(CarWashBookingsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--app.datasource.primary.jdbc-url=" + System.getenv("CARWASH_IT_DB_URL"),
+                        "--app.datasource.primary.username=" + System.getenv().getOrDefault("CARWASH_IT_DB_USER", ""),
+                        "--app.datasource.primary.password=" + System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", ""),
+                        "--app.replica.enabled=false");
+    }
+
+    // Concurrent first ratings of one booking on both instances count it once, and both instances agree
+    @Test
+    void concurrentRatingsOfABookingCountItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2 * THREADS_PER_INSTANCE);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Service service = newService();
+                Booking booking = completedBooking(service);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> rates = new ArrayList<>();
+                for (int i = 0; i < 2 * THREADS_PER_INSTANCE; i++) {
+                    ConfigurableApplicationContext instance = i % 2 == 0 ? first : second;
+                    int rating = 1 + i % 5;
+                    rates.add(pool.submit(() -> {
+                        start.await();
+                        return instance.getBean(BookingService.class)
+                                .rateBooking(booking.getId(), rating, "Round " + rating, customer);
+                    }));
+                }
+                start.countDown();
+                for (Future<?> rate : rates) {
+                    rate.get();
+                }
+
+                int stored = first.getBean(BookingRepository.class).findById(booking.getId()).orElseThrow().getRating();
+                Map<String, Object> totals = first.getBean(JdbcTemplate.class).queryForMap(
+                        "SELECT rating_sum, rating_count FROM service_rating_stats WHERE service_id = ?",
+                        service.getId());
+                assertEquals(1L, ((Number) totals.get("rating_count")).longValue(), "Ratings counted in round " + round);
+                assertEquals(stored, ((Number) totals.get("rating_sum")).longValue(), "Rating sum in round " + round);
+
+                RatingAggregateService.RatingSummary expected = new RatingAggregateService.RatingSummary(stored, 1);
+                assertEquals(expected, awaitServiceRating(first, service.getId(), expected));
+                assertEquals(expected, awaitServiceRating(second, service.getId(), expected));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Service newService() {
+        Service wash = new Service();
+        wash.setName("Rating test wash " + UUID.randomUUID().toString().substring(0, 8));
+        wash.setPrice(new BigDecimal("10.00"));
+        wash.setDurationMinutes(30);
+        Service service = first.getBean(ServiceService.class).createService(wash);
+        first.getBean(PricingEngine.class).reload();
+        return service;
+    }
+
+    // Booked on a far-off day with nothing at the site yet (earlier runs leave theirs), then completed
+    private static Booking completedBooking(Service service) {
+        LocalDateTime time;
+        do {
+            time = LocalDateTime.now().plusYears(30)
+                    .plusDays(ThreadLocalRandom.current().nextInt(3_000))
+                    .truncatedTo(ChronoUnit.DAYS).withHour(8);
+        } while (!first.getBean(BookingRepository.class)
+                .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                        SITE, time.minusHours(8), time.plusHours(16))
+                .isEmpty());
+
+        BookingService bookings = first.getBean(BookingService.class);
+        Booking booking = bookings.createBooking(customer, SITE, service.getId(), vehicle.getId(), time, null, 0);
+        return bookings.updateBookingStatus(booking.getId(), Booking.BookingStatus.COMPLETED);
+    }
+
+    // The last rating may have been on the other instance; this one reloads when its invalidation arrives
+    private static RatingAggregateService.RatingSummary awaitServiceRating(
+            ConfigurableApplicationContext instance, Long serviceId, RatingAggregateService.RatingSummary expected)
+            throws InterruptedException {
+        RatingAggregateService ratings = instance.getBean(RatingAggregateService.class);
+        for (int i = 0; i < 100 && !expected.equals(ratings.getServiceRating(serviceId)); i++) {
+            Thread.sleep(50);
+        }
+        return ratings.getServiceRating(serviceId);
+    }
+}
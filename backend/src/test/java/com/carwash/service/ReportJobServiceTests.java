@@ -0,0 +1,91 @@
+package com.carwash.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Report jobs over an embedded H2 database, sliced two days at a time
+class ReportJobServiceTests {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 6, 1);
+
+    private HikariDataSource db;
+    private JdbcTemplate jdbc;
+    private ReportJobService reports;
+
+    @BeforeEach
+    void setUp() {
+        db = new HikariDataSource();
+        db.setJdbcUrl("jdbc:h2:mem:reports;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(db);
+        jdbc.execute("CREATE TABLE service (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL,"
+                + " price NUMERIC(38, 2) NOT NULL)");
+        jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, full_name VARCHAR(255))");
+        for (String table : List.of("bookings", "bookings_archive")) {
+            jdbc.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, service_id BIGINT NOT NULL,"
+                    + " assigned_staff_id BIGINT, location_id BIGINT NOT NULL, booking_date_time TIMESTAMP NOT NULL,"
+                    + " status VARCHAR(255) NOT NULL, price NUMERIC(38, 2), rating INTEGER)");
+        }
+        // Two sites each with a "Basic Wash", two staff members both called Sam
+        jdbc.update("INSERT INTO service VALUES (1, 'Basic Wash', 10.00), (2, 'Basic Wash', 12.00)");
+        jdbc.update("INSERT INTO users VALUES (1, 'Sam'), (2, 'Sam')");
+        book("bookings_archive", 1, 1, 1L, 0);
+        book("bookings", 2, 1, 1L, 3);
+        book("bookings", 3, 2, 2L, 0);
+        book("bookings", 4, 1, null, 3);
+
+        reports = new ReportJobService(db, 1, 5, 31, 2, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reports.shutdown();
+        jdbc.execute("DROP ALL OBJECTS");
+        db.close();
+    }
+
+    @Test
+    void servicesWithTheSameNameStayApart() throws InterruptedException {
+        List<ReportJobService.ReportRow> rows = run(ReportJobService.ReportType.REVENUE_BY_SERVICE);
+
+        assertEquals(List.of(
+                new ReportJobService.ReportRow(1L, "Basic Wash", 3, new BigDecimal("30.00")),
+                new ReportJobService.ReportRow(2L, "Basic Wash", 1, new BigDecimal("12.00"))), rows);
+    }
+
+    @Test
+    void staffWithTheSameNameStayApart() throws InterruptedException {
+        List<ReportJobService.ReportRow> rows = run(ReportJobService.ReportType.REVENUE_BY_STAFF);
+
+        assertEquals(List.of(
+                new ReportJobService.ReportRow(1L, "Sam", 2, new BigDecimal("20.00")),
+                new ReportJobService.ReportRow(2L, "Sam", 1, new BigDecimal("12.00")),
+                new ReportJobService.ReportRow(null, "Unassigned", 1, new BigDecimal("10.00"))), rows);
+    }
+
+    private List<ReportJobService.ReportRow> run(ReportJobService.ReportType type) throws InterruptedException {
+        ReportJobService.JobView job = reports.submit(type, FROM, FROM.plusDays(6), null);
+        for (int i = 0; i < 100 && job.status() != ReportJobService.JobStatus.DONE
+                && job.status() != ReportJobService.JobStatus.FAILED; i++) {
+            Thread.sleep(20);
+            job = reports.getJob(job.id());
+        }
+        assertEquals(ReportJobService.JobStatus.DONE, job.status(), job.error());
+        return job.rows();
+    }
+
+    // Completed, on day "day" of the range
+    private void book(String table, long id, long serviceId, Long staffId, int day) {
+        jdbc.update("INSERT INTO " + table + " (id, service_id, assigned_staff_id, location_id, booking_date_time,"
+                        + " status) VALUES (?, ?, ?, 1, ?, 'COMPLETED')",
+                id, serviceId, staffId, Timestamp.valueOf(FROM.plusDays(day).atTime(10, 0)));
+    }
+}
@@ -0,0 +1,163 @@
+package com.carwash.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bookings in an embedded H2 database, segment and journal in a temporary directory
+class ReviewSearchIndexTests {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 6, 3, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDatabase db;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("reviews;MODE=PostgreSQL")
+                .build();
+        jdbc = new JdbcTemplate(db);
+        createTables();
+        insert(1, 1, 5, "Great foam, great foam wash", null);
+        insert(2, 2, 2, "Foam left streaks", "Slow service");
+        insert(3, 1, 0, "Please vacuum the boot", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void ranksAndFiltersLoadedBookings() {
+        ReviewSearchIndex index = loaded();
+
+        ReviewSearchIndex.SearchPage page = index.search("foam", null, null, null, null, null, 0, 10);
+        assertEquals(2, page.total());
+        assertEquals(List.of(1L, 2L), ids(page));
+
+        assertEquals(List.of(2L), ids(index.search("foam", 2L, null, null, null, null, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("foam", null, 4, null, null, null, 0, 10)));
+        assertEquals(List.of(), ids(index.search("foam", null, null, null, LocalDate.of(2030, 6, 4), null, 0, 10)));
+    }
+
+    @Test
+    void hugePageNumbersDoNotOverflow() {
+        ReviewSearchIndex index = loaded();
+
+        ReviewSearchIndex.SearchPage page = index.search("foam", null, null, null, null, null,
+                Integer.MAX_VALUE, 100);
+        assertEquals(2, page.total());
+        assertTrue(page.hits().isEmpty());
+    }
+
+    @Test
+    void restartReadsSegmentAndJournal() {
+        ReviewSearchIndex first = loaded();
+        first.index(4, 1, null, DAY.toLocalDate(), "Wheel polish please", null);  // Journal only
+        first.close();
+
+        // The bookings are gone from the database, so the second index can only have them from disk
+        jdbc.update("DELETE FROM bookings");
+        ReviewSearchIndex second = loaded();
+
+        assertEquals(List.of(1L, 2L), ids(second.search("foam", null, null, null, null, null, 0, 10)));
+        assertEquals(List.of(4L), ids(second.search("polish", null, null, null, null, null, 0, 10)));
+    }
+
+    @Test
+    void picksUpChangesMadeOnOtherNodes() throws Exception {
+        ReviewSearchIndex index = loaded();
+        jdbc.update("UPDATE bookings SET rating = 4, review = 'Spotless wheels' WHERE id = 3");
+        jdbc.update("UPDATE bookings SET review = 'Excellent wheels' WHERE id = 2");
+        assertTrue(ids(index.search("wheels", null, null, null, null, null, 0, 10)).isEmpty());
+
+        // A review invalidation re-reads just that booking
+        index.refresh(3);
+        index.awaitPendingChanges();
+        assertEquals(List.of(3L), ids(index.search("wheels", null, 4, null, null, null, 0, 10)));
+
+        // A rebuild re-reads everything
+        index.rebuild();
+        assertEquals(2, index.search("wheels", null, null, null, null, null, 0, 10).total());
+    }
+
+    // A snapshot holds the read lock for the whole segment write; indexing must not wait for it
+    @Test
+    void indexingNeverWaitsForASnapshot() throws Exception {
+        ReviewSearchIndex index = loaded();
+
+        index.lock.readLock().lock();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(2),
+                    () -> index.index(4, 1, 5, DAY.toLocalDate(), "Wheel polish please", null));
+            assertTrue(ids(index.search("polish", null, null, null, null, null, 0, 10)).isEmpty());
+        } finally {
+            index.lock.readLock().unlock();
+        }
+
+        index.awaitPendingChanges();
+        assertEquals(List.of(4L), ids(index.search("polish", null, null, null, null, null, 0, 10)));
+    }
+
+    @Test
+    void keepsRetryingUntilTheDatabaseIsBack() {
+        jdbc.execute("DROP TABLE bookings");
+        ReviewSearchIndex index = new ReviewSearchIndex(db, new DataSourceTransactionManager(db),
+                directory.toString());
+
+        assertFalse(index.load());
+        assertFalse(index.isReady());
+
+        createTables();
+        insert(5, 1, 3, "Foam again", null);
+        assertTrue(index.load());
+        assertTrue(index.isReady());
+        assertEquals(List.of(5L), ids(index.search("foam", null, null, null, null, null, 0, 10)));
+    }
+
+    private ReviewSearchIndex loaded() {
+        ReviewSearchIndex index = new ReviewSearchIndex(db, new DataSourceTransactionManager(db),
+                directory.toString());
+        assertTrue(index.load());
+        return index;
+    }
+
+    private void createTables() {
+        for (String table : List.of("bookings", "bookings_archive")) {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + table + " (id BIGINT PRIMARY KEY, service_id BIGINT NOT NULL,"
+                    + " rating INTEGER, booking_date_time TIMESTAMP(6) NOT NULL, notes VARCHAR(1000),"
+                    + " review VARCHAR(1000))");
+        }
+    }
+
+    private void insert(long id, long serviceId, int rating, String notes, String review) {
+        jdbc.update("INSERT INTO bookings VALUES (?, ?, ?, ?, ?, ?)",
+                id, serviceId, rating == 0 ? null : rating, DAY, notes, review);
+    }
+
+    private static List<Long> ids(ReviewSearchIndex.SearchPage page) {
+        return page.hits().stream().map(ReviewSearchIndex.Hit::bookingId).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.carwash.service;
+
+import com.carwash.model.Booking;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleCacheTests {
+
+    private static final long SITE = 1L;
+    private static final LocalDate MONDAY = LocalDate.of(2030, 6, 3);
+
+    private final List<Booking> stored = new ArrayList<>();
+    private int queries;
+
+    private final ScheduleCache cache = new ScheduleCache((locationId, start, end) -> {
+        queries++;
+        return stored.stream()
+                .filter(b -> !b.getBookingDateTime().isBefore(start) && b.getBookingDateTime().isBefore(end))
+                .toList();
+    }, 400);
+
+    @Test
+    void rangeWithEmptyDaysLoads() {
+        stored.add(booking(1L, MONDAY.atTime(9, 0)));
+        stored.add(booking(2L, MONDAY.atTime(11, 0)));
+        stored.add(booking(3L, MONDAY.plusDays(2).atTime(10, 0)));
+
+        List<ScheduleCache.DaySchedule> week = cache.getDays(SITE, MONDAY, MONDAY.plusDays(6));
+
+        assertEquals(7, week.size());
+        assertEquals(List.of(1L, 2L), week.get(0).bookings().stream().map(ScheduleCache.BookingSummary::id).toList());
+        assertTrue(week.get(1).bookings().isEmpty());
+        assertEquals(1, week.get(2).bookings().size());
+        assertTrue(week.get(6).bookings().isEmpty());
+    }
+
+    @Test
+    void servesCachedDaysUntilInvalidated() {
+        stored.add(booking(1L, MONDAY.atTime(9, 0)));
+        cache.getDays(SITE, MONDAY, MONDAY.plusDays(1));
+        cache.getDays(SITE, MONDAY, MONDAY.plusDays(1));
+        assertEquals(1, queries);
+
+        stored.add(booking(2L, MONDAY.plusDays(1).atTime(9, 0)));
+        cache.invalidate(SITE, MONDAY.plusDays(1));
+        List<ScheduleCache.DaySchedule> days = cache.getDays(SITE, MONDAY, MONDAY.plusDays(1));
+
+        assertEquals(2, queries);
+        assertEquals(1, days.get(1).bookings().size());
+    }
+
+    private static Booking booking(Long id, LocalDateTime time) {
+        Service service = new Service();
+        service.setName("Full wash");
+        service.setDurationMinutes(45);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("KAA 123A");
+        User customer = new User();
+        customer.setFullName("Test Customer");
+
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setBookingDateTime(time);
+        booking.setService(service);
+        booking.setVehicle(vehicle);
+        booking.setCustomer(customer);
+        return booking;
+    }
+}
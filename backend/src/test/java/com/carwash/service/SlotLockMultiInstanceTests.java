@@ -0,0 +1,355 @@
+package com.carwash.service;
+
+import com.carwash.CarWashBookingsApplication;
+import com.carwash.exception.ConflictException;
+import com.carwash.model.Booking;
+import com.carwash.model.Service;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.model.WaitlistEntry;
+import com.carwash.repository.BookingRepository;
+import com.carwash.repository.UserRepository;
+import com.carwash.repository.VehicleRepository;
+import com.carwash.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two application contexts ("instances") on one PostgreSQL database racing for the same slots,
+// directly, through subscriptions and through the waitlist.
+// Needs a disposable database (Flyway migrates it):
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=SlotLockMultiInstanceTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class SlotLockMultiInstanceTests {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotLockMultiInstanceTests.class);
+
+    private static final long SITE = 1L;
+    private static final int ROUNDS = 20;
+    private static final int THREADS_PER_INSTANCE = 4;
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static User customer;
+    private static Vehicle vehicle;
+    private static Service service;
+
+    @BeforeAll
+    static void startInstances() {
+        first = instance();
+        second = instance();
+
+        customer = newCustomer();
+        vehicle = vehicleOf(customer);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Service wash = new Service();
+        wash.setName("Slot lock test wash " + suffix);
+        wash.setPrice(new BigDecimal("10.00"));
+        wash.setDurationMinutes(30);
+        // Through the service layer, so the price matrix learns about it; the other instance reloads its copy
+        service = first.getBean(ServiceService.class).createService(wash);
+        first.getBean(PricingEngine.class).reload();
+        second.getBean(PricingEngine.class).reload();
+    }
+
+    private static User newCustomer() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail("slot-lock-" + suffix + "@test.com");
+        user.setPassword("not-used");
+        user.setFullName("Slot Lock Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        User saved = first.getBean(UserRepository.class).save(user);
+
+        Vehicle car = new Vehicle();
+        car.setMake("Toyota");
+        car.setModel("Corolla");
+        car.setLicensePlate("LOCK" + suffix);
+        car.setColor("White");
+        car.setType(Vehicle.VehicleType.SEDAN);
+        car.setUser(saved);
+        first.getBean(VehicleRepository.class).save(car);
+        return saved;
+    }
+
+    private static Vehicle vehicleOf(User user) {
+        return first.getBean(VehicleRepository.class).findByUser(user).get(0);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (first != null) {
+            first.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+    }
+
+    // Run arguments, not builder properties: those are defaults that application.properties overrides
+    private static ConfigurableApplicationContext instance() {
+        return new SpringApplicationBuilder(CarWashBookingsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--app.datasource.primary.jdbc-url=" + System.getenv("CARWASH_IT_DB_URL"),
+                        "--app.datasource.primary.username=" + System.getenv().getOrDefault("CARWASH_IT_DB_USER", ""),
+                        "--app.datasource.primary.password=" + System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", ""),
+                        "--app.replica.enabled=false",
+                        "--app.slot-locks.mode=postgres");
+    }
+
+    @Test
+    void racingInstancesNeverDoubleBookASlot() throws Exception {
+        int wins = race((i, time) -> (i % 2 == 0 ? first : second).getBean(BookingService.class)
+                .createBooking(customer, SITE, service.getId(), vehicle.getId(), time, null, 0));
+
+        assertEquals(ROUNDS, wins);
+        report("first", first.getBean(SlotLockManager.class).stats());
+        report("second", second.getBean(SlotLockManager.class).stats());
+    }
+
+    // A new subscription books its first wash through the same slot locks as a direct booking
+    @Test
+    void subscriptionsAndBookingsNeverDoubleBookASlot() throws Exception {
+        int wins = race((i, time) -> {
+            if (i % 2 == 0) {
+                first.getBean(SubscriptionService.class).createSubscription(customer, SITE, service.getId(),
+                        vehicle.getId(), time, 1, time.toLocalDate(), null);
+            } else {
+                second.getBean(BookingService.class).createBooking(customer, SITE, service.getId(),
+                        vehicle.getId(), time, null, 0);
+            }
+        });
+
+        assertEquals(ROUNDS, wins);
+    }
+
+    // A cancelled slot handed to a waiter on the other instance can't be taken back by un-cancelling
+    @Test
+    void uncancellingAGivenAwaySlotIsRejected() throws Exception {
+        LocalDateTime time = freeSlot();
+        Booking original = book(first, customer, time);
+        User waiting = newCustomer();
+        WaitlistEntry entry = join(first, waiting, time, time);
+
+        cancel(second, original);
+
+        assertEquals(WaitlistEntry.WaitlistStatus.PROMOTED, reload(entry).getStatus());
+        assertThrows(ConflictException.class, () -> first.getBean(BookingService.class)
+                .updateBookingStatus(original.getId(), Booking.BookingStatus.CONFIRMED));
+        assertEquals(1, slotHolders(time));
+    }
+
+    // Higher priority (more completed washes) first, then first come first served
+    @Test
+    void waitlistPromotesInPriorityThenArrivalOrder() throws Exception {
+        LocalDateTime time = freeSlot();
+        User regular = newCustomer();
+        Booking past = book(first, regular, time.plusDays(1));
+        first.getBean(BookingService.class).updateBookingStatus(past.getId(), Booking.BookingStatus.COMPLETED);
+
+        Booking original = book(first, customer, time);
+        User early = newCustomer();
+        User late = newCustomer();
+        WaitlistEntry earlyEntry = join(first, early, time, time);
+        WaitlistEntry regularEntry = join(second, regular, time, time);
+        WaitlistEntry lateEntry = join(first, late, time, time);
+
+        Booking promoted = cancel(second, original);
+        assertEquals(regularEntry.getId(), promotedEntryFor(promoted, regularEntry, earlyEntry, lateEntry));
+        promoted = cancel(first, promoted);
+        assertEquals(earlyEntry.getId(), promotedEntryFor(promoted, regularEntry, earlyEntry, lateEntry));
+        promoted = cancel(second, promoted);
+        assertEquals(lateEntry.getId(), promotedEntryFor(promoted, regularEntry, earlyEntry, lateEntry));
+    }
+
+    // Two slots in one waiter's window freed at once on different instances: the waiter gets exactly one
+    @Test
+    void concurrentCancellationsPromoteAWaiterOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS / 2; round++) {
+                LocalDateTime time = freeSlot();
+                Booking firstSlot = book(first, customer, time);
+                Booking secondSlot = book(second, customer, time.plusHours(2));
+                User waiting = newCustomer();
+                WaitlistEntry entry = join(first, waiting, time, time.plusHours(2));
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> one = pool.submit(() -> {
+                    start.await();
+                    return cancel(first, firstSlot);
+                });
+                Future<?> other = pool.submit(() -> {
+                    start.await();
+                    return cancel(second, secondSlot);
+                });
+                start.countDown();
+                one.get();
+                other.get();
+
+                WaitlistEntry promoted = reload(entry);
+                assertEquals(WaitlistEntry.WaitlistStatus.PROMOTED, promoted.getStatus());
+                List<Booking> waiterBookings = first.getBean(BookingRepository.class).findByCustomer(waiting);
+                assertEquals(1, waiterBookings.size(), "Bookings made for the waiter in round " + round);
+                assertEquals(promoted.getBookingId(), waiterBookings.get(0).getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // 08:00 on a far-off day that, with the next, has no bookings at the site yet (earlier runs leave theirs)
+    private static LocalDateTime freeSlot() {
+        return freeSlot(2);
+    }
+
+    private static LocalDateTime freeSlot(int days) {
+        while (true) {
+            LocalDateTime day = LocalDateTime.now().plusYears(20)
+                    .plusDays(ThreadLocalRandom.current().nextInt(3_000))
+                    .truncatedTo(ChronoUnit.DAYS);
+            boolean taken = !first.getBean(BookingRepository.class)
+                    .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                            SITE, day, day.plusDays(days))
+                    .isEmpty();
+            if (!taken) {
+                return day.withHour(8);
+            }
+        }
+    }
+
+    private static Booking book(ConfigurableApplicationContext instance, User user, LocalDateTime time) {
+        return instance.getBean(BookingService.class)
+                .createBooking(user, SITE, service.getId(), vehicleOf(user).getId(), time, null, 0);
+    }
+
+    // Join on one instance and wait until the other has it queued too
+    private static WaitlistEntry join(ConfigurableApplicationContext instance, User user,
+                                      LocalDateTime from, LocalDateTime to) throws InterruptedException {
+        WaitlistEntry entry = instance.getBean(WaitlistService.class)
+                .joinWaitlist(user, SITE, service.getId(), vehicleOf(user).getId(), from, to, null);
+        ConfigurableApplicationContext other = instance == first ? second : first;
+        for (int i = 0; i < 100 && !other.getBean(WaitlistService.class).isQueued(entry.getId()); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(other.getBean(WaitlistService.class).isQueued(entry.getId()), "Entry reached the other instance");
+        return entry;
+    }
+
+    // Cancel; the waitlist promotion runs after commit on the same thread. Returns the booking that took the slot.
+    private static Booking cancel(ConfigurableApplicationContext instance, Booking booking) {
+        instance.getBean(BookingService.class).updateBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED);
+        return first.getBean(BookingRepository.class)
+                .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                        SITE, booking.getBookingDateTime(), booking.getBookingDateTime().plusMinutes(1))
+                .stream()
+                .filter(candidate -> candidate.getStatus() != Booking.BookingStatus.CANCELLED)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Long promotedEntryFor(Booking booking, WaitlistEntry... entries) {
+        for (WaitlistEntry entry : entries) {
+            WaitlistEntry current = reload(entry);
+            if (booking != null && booking.getId().equals(current.getBookingId())) {
+                return current.getId();
+            }
+        }
+        return null;
+    }
+
+    private static WaitlistEntry reload(WaitlistEntry entry) {
+        return first.getBean(WaitlistEntryRepository.class).findById(entry.getId()).orElseThrow();
+    }
+
+    private static long slotHolders(LocalDateTime time) {
+        return first.getBean(BookingRepository.class)
+                .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                        SITE, time.minusHours(1), time.plusHours(1))
+                .stream()
+                .filter(booking -> booking.getStatus() != Booking.BookingStatus.CANCELLED)
+                .count();
+    }
+
+    private interface Attempt {
+        void run(int index, LocalDateTime time);
+    }
+
+    // ROUNDS rounds of 2 x THREADS_PER_INSTANCE conflicting attempts; exactly one may win each round
+    private static int race(Attempt attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2 * THREADS_PER_INSTANCE);
+        LocalDateTime base = freeSlot(3);  // ROUNDS slots two hours apart run into the day after next
+        int totalWins = 0;
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime slot = base.plusHours(2L * round);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> attempts = new ArrayList<>();
+
+                // Start times 5 minutes apart: each 30-minute wash plus buffer overlaps every later attempt,
+                // while the attempts touch different lock buckets
+                for (int i = 0; i < 2 * THREADS_PER_INSTANCE; i++) {
+                    int index = i;
+                    LocalDateTime time = slot.plusMinutes(5L * i);
+                    attempts.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            attempt.run(index, time);
+                            return true;
+                        } catch (RuntimeException e) {
+                            return false;
+                        }
+                    }));
+                }
+                start.countDown();
+
+                int wins = 0;
+                for (Future<Boolean> future : attempts) {
+                    if (future.get()) {
+                        wins++;
+                    }
+                }
+                assertEquals(1, wins, "Exactly one booking should win the slot at " + slot);
+                totalWins += wins;
+
+                List<Booking> stored = first.getBean(BookingRepository.class)
+                        .findByLocationIdAndBookingDateTimeGreaterThanEqualAndBookingDateTimeLessThanOrderByBookingDateTime(
+                                SITE, slot, slot.plusHours(2));
+                assertEquals(1, stored.size(), "Bookings stored for the slot at " + slot);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return totalWins;
+    }
+
+    private static void report(String instance, SlotLockManager.LockStats stats) {
+        log.info("Slot locks ({} instance): {} acquisitions, avg wait {} us, max wait {} us",
+                instance, stats.acquisitions(), stats.averageWaitMicros(), stats.maxWaitMicros());
+    }
+}
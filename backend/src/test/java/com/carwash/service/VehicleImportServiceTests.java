@@ -0,0 +1,99 @@
+package com.carwash.service;
+
+import com.carwash.CarWashBookingsApplication;
+import com.carwash.dto.VehicleImportResultDTO;
+import com.carwash.model.User;
+import com.carwash.model.Vehicle;
+import com.carwash.repository.UserRepository;
+import com.carwash.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Imports into a disposable PostgreSQL database (Flyway migrates it), where the unique index on
+// normalized plates is real:
+//   CARWASH_IT_DB_URL=jdbc:postgresql://localhost:5432/car_wash_it CARWASH_IT_DB_USER=... CARWASH_IT_DB_PASSWORD=...
+//   mvn test -Dtest=VehicleImportServiceTests
+@EnabledIfEnvironmentVariable(named = "CARWASH_IT_DB_URL", matches = ".+")
+class VehicleImportServiceTests {
+
+    private static ConfigurableApplicationContext context;
+    private static User owner;
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(CarWashBookingsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--app.datasource.primary.jdbc-url=" + System.getenv("CARWASH_IT_DB_URL"),
+                        "--app.datasource.primary.username=" + System.getenv().getOrDefault("CARWASH_IT_DB_USER", ""),
+                        "--app.datasource.primary.password=" + System.getenv().getOrDefault("CARWASH_IT_DB_PASSWORD", ""),
+                        "--app.replica.enabled=false",
+                        "--app.invalidation.mode=local");
+
+        User user = new User();
+        user.setEmail("import-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com");
+        user.setPassword("not-used");
+        user.setFullName("Import Test");
+        user.setRole(User.UserRole.CUSTOMER);
+        owner = context.getBean(UserRepository.class).save(user);
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // A plate registered after the batch's pre-check (here: a pre-check that sees nothing) fails the
+    // batch insert on the unique index; the batch is retried row by row and only that row is rejected
+    @Test
+    void plateRegisteredConcurrentlyFailsOnlyItsRow() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        Vehicle taken = new Vehicle();
+        taken.setMake("Mazda");
+        taken.setModel("Demio");
+        taken.setLicensePlate("KDA " + suffix);
+        taken.setColor("Red");
+        taken.setType(Vehicle.VehicleType.SEDAN);
+        taken.setUser(owner);
+        context.getBean(VehicleRepository.class).save(taken);
+
+        VehicleRepository blindRepository = mock(VehicleRepository.class);
+        when(blindRepository.findExistingNormalizedPlates(any())).thenReturn(List.of());
+        VehicleImportService importer = new VehicleImportService(blindRepository,
+                context.getBean(LicensePlateIndex.class), context.getBean(ObjectMapper.class),
+                context.getBean(PlatformTransactionManager.class), 500, 1000);
+        context.getAutowireCapableBeanFactory().autowireBean(importer);
+
+        String csv = "make,model,license_plate,color,type\n"
+                + "Toyota,Vitz,KDB " + suffix + ",White,SEDAN\n"
+                + "Mazda,Demio,kda-" + suffix + ",Red,SEDAN\n"
+                + "Nissan,Note,KDC " + suffix + ",Blue,SEDAN\n";
+        VehicleImportResultDTO result = importer.importVehicles(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), VehicleImportService.Format.CSV, owner);
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("License plate already registered", result.getErrors().get(0).getMessage());
+        assertEquals(3, context.getBean(VehicleRepository.class).findByUser(owner).size());
+    }
+}